@@ -5,11 +5,9 @@ import static java.nio.file.Files.exists;
 import static tardis.implementation.common.Util.getTargets;
 import static tardis.implementation.common.Util.stream;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -17,6 +15,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -42,7 +41,9 @@ import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.ParserProperties;
 
 import tardis.framework.Performer;
+import tardis.framework.QueueInputOutputBuffer;
 import tardis.framework.TerminationManager;
+import tardis.implementation.common.CompilationService;
 import tardis.implementation.common.NoJavaCompilerException;
 import tardis.implementation.data.EvosuiteResultInputOutputBuffer;
 import tardis.implementation.data.JBSEResultInputOutputBuffer;
@@ -51,8 +52,10 @@ import tardis.implementation.evosuite.EvosuiteResult;
 import tardis.implementation.evosuite.PerformerEvosuite;
 import tardis.implementation.evosuite.PerformerEvosuiteRMI;
 import tardis.implementation.evosuite.TestCase;
+import tardis.implementation.jbse.AcceptedTest;
 import tardis.implementation.jbse.JBSEResult;
 import tardis.implementation.jbse.PerformerJBSE;
+import tardis.implementation.jbse.PerformerTestEmitter;
 
 /**
  * TARDIS main class.
@@ -111,10 +114,12 @@ public final class Main {
 
             //...the communication buffers...
             final JBSEResultInputOutputBuffer pathConditionBuffer = new JBSEResultInputOutputBuffer(this.o, treePath);
-            final EvosuiteResultInputOutputBuffer testCaseBuffer = new EvosuiteResultInputOutputBuffer();
+            final EvosuiteResultInputOutputBuffer testCaseBuffer = new EvosuiteResultInputOutputBuffer(this.o, treePath);
+            final QueueInputOutputBuffer<AcceptedTest> acceptedTestBuffer = new QueueInputOutputBuffer<>();
 
             //...the performers and the termination manager
-            final PerformerJBSE performerJBSE = new PerformerJBSE(this.o, testCaseBuffer, pathConditionBuffer, treePath);
+            final PerformerJBSE performerJBSE = new PerformerJBSE(this.o, testCaseBuffer, pathConditionBuffer, acceptedTestBuffer, treePath);
+            final PerformerTestEmitter performerTestEmitter = new PerformerTestEmitter(this.o, acceptedTestBuffer);
             Performer<JBSEResult, EvosuiteResult> performerEvosuite;
             if (this.o.getEvosuiteMultiSearch()) {
             	performerEvosuite = new PerformerEvosuiteRMI(this.o, pathConditionBuffer, testCaseBuffer);       
@@ -123,14 +128,16 @@ public final class Main {
             	performerEvosuite = new PerformerEvosuite(this.o, pathConditionBuffer, testCaseBuffer);
             }
             
-            //...the termination manager
-            final TerminationManager terminationManager = new TerminationManager(this.o, performerJBSE, performerEvosuite);
+            //...the termination manager; it stops the performers in order,
+            //so the test emitter must come after the JBSE performer
+            final TerminationManager terminationManager = new TerminationManager(this.o, performerJBSE, performerEvosuite, performerTestEmitter);
             
         	//injects a seed into a performer
             injectSeed(performerEvosuite, performerJBSE);
 
             //starts everything
             performerJBSE.start();
+            performerTestEmitter.start();
             performerEvosuite.start();
             terminationManager.start();
 
@@ -381,9 +388,8 @@ public final class Main {
 
         final String classpathCompilationTest = String.join(File.pathSeparator, stream(this.o.getClassesPath()).map(Object::toString).toArray(String[]::new));
         final Path javacLogFilePath = this.o.getTmpDirectoryPath().resolve("javac-log-test-0.txt");
-        final String[] javacParametersTestCase = { "-cp", classpathCompilationTest, "-d", this.o.getTmpBinDirectoryPath().toString(), tc.getSourcePath().toString() };
-        try (final OutputStream w = new BufferedOutputStream(Files.newOutputStream(javacLogFilePath))) {
-            compiler.run(null, w, w, javacParametersTestCase);
+        try (final CompilationService compilationService = new CompilationService(compiler, classpathCompilationTest, this.o.getTmpBinDirectoryPath(), Collections.emptyList(), javacLogFilePath, null)) {
+            compilationService.compile(Collections.singletonList(tc.getSourcePath()));
         } catch (IOException e) {
             throw new JavaCompilerException(javacLogFilePath.toString(), e);
         }
@@ -101,14 +101,42 @@ public final class Options implements Cloneable {
             usage = "The maximum state count after which, if the depth does not increase, the exploration of a path is abandoned")
     private long maxCount = 10_000_000;
 
+    @Option(name = "-jbse_job_budget_duration",
+            usage = "Duration of the time budget of a JBSE job, after which the job is interrupted and its test case requeued with a narrower depth window (0: no time budget)")
+    private long jbseJobBudgetDuration = 0;
+
+    @Option(name = "-jbse_job_budget_unit",
+            usage = "Unit of the time budget of a JBSE job: NANOSECONDS, MICROSECONDS, MILLISECONDS, SECONDS, MINUTES, HOURS, DAYS")
+    private TimeUnit jbseJobBudgetUnit = TimeUnit.SECONDS;
+
+    @Option(name = "-jbse_job_budget_steps",
+            usage = "The maximum number of steps of a JBSE job, after which the job is interrupted and its test case requeued with a narrower depth window (0: no step budget)")
+    private long jbseJobBudgetSteps = 0;
+
     @Option(name = "-num_threads_jbse",
             usage = "The number of threads in the JBSE thread pool")
     private int numOfThreadsJBSE = 1;
 
+    @Option(name = "-num_threads_jbse_frontier",
+            usage = "The number of threads in the thread pool shared by the JBSE jobs to explore the frontiers at different depths in parallel (0: the frontiers are explored sequentially by each job)")
+    private int numOfThreadsJBSEFrontier = 0;
+
+    @Option(name = "-num_tests_per_jbse_job",
+            usage = "The maximum number of tests that a JBSE job may run; the tests of a job with the same target method share the runner setup")
+    private int numOfTestsPerJBSEJob = 1;
+
     @Option(name = "-num_threads_evosuite",
             usage = "The number of threads in the EvoSuite thread pool")
     private int numOfThreadsEvosuite = 1;
 
+    @Option(name = "-num_threads_evosuite_wrappers",
+            usage = "The number of threads that prepare the EvoSuite wrappers in RMI mode")
+    private int numOfThreadsEvosuiteWrappers = 4;
+
+    @Option(name = "-num_threads_evosuite_tests",
+            usage = "The number of threads that compile and check the tests generated by EvoSuite in RMI mode")
+    private int numOfThreadsEvosuiteTests = 4;
+
     //TODO: Remove throttling?
     @Option(name = "-throttle_factor_jbse",
             usage = "The throttle factor for the JBSE thread pool",
@@ -140,11 +168,36 @@ public final class Options implements Cloneable {
             handler = PathOptionHandler.class)
     private Path outDir = Paths.get(".", "out");
 
+    @Option(name = "-compilation_cache",
+            usage = "Reuse the class files of the wrappers and tests whose sources were already compiled, up to the names of their classes")
+    private boolean compilationCache = false;
+
+    @Option(name = "-compilation_cache_dir",
+            usage = "Directory of the compilation cache, that persists across runs (by default the cache is in the temporary subdirectory)",
+            handler = PathOptionHandler.class)
+    private Path compilationCacheDir = null;
+
     @Option(name = "-z3",
             usage = "Path to Z3 binary",
             handler = PathOptionHandler.class)
     private Path z3Path = Paths.get("/usr", "bin", "z3");
 
+    @Option(name = "-z3_max_leases",
+            usage = "The number of JBSE runners that may reuse a same Z3 process before it is recycled (0: every runner spawns its own Z3 process)")
+    private int z3MaxLeases = 0;
+
+    @Option(name = "-smt_cache_size",
+            usage = "The maximum number of solver answers cached and shared by all the JBSE runners (0: no cache)")
+    private int smtCacheSize = 0;
+
+    @Option(name = "-smt_fast_path",
+            usage = "Whether JBSE shall decide in process the solver queries that only compare integral symbols with literals")
+    private boolean smtFastPath = false;
+
+    @Option(name = "-smt_fast_path_check",
+            usage = "Whether the decisions of the SMT fast path shall be checked against the solver, logging the mismatches (slow, for debugging)")
+    private boolean smtFastPathCheck = false;
+
     @Option(name = "-jbse_lib",
             usage = "Path to JBSE library",
             handler = PathOptionHandler.class)
@@ -177,6 +230,26 @@ public final class Options implements Cloneable {
             usage = "Whether the generated tests should have no dependency on the EvoSuite runtime")
     private boolean evosuiteNoDependency = false;
 
+    @Option(name = "-evosuite_worker_max_jobs",
+            usage = "The number of EvoSuite jobs that a long-lived EvoSuite worker JVM runs before it is recycled (0: every job launches its own EvoSuite process)")
+    private int evosuiteWorkerMaxJobs = 0;
+
+    @Option(name = "-evosuite_worker_max_memory_mb",
+            usage = "The heap size (in MB) beyond which a long-lived EvoSuite worker JVM is recycled after a job")
+    private int evosuiteWorkerMaxMemoryMB = 2048;
+
+    @Option(name = "-evosuite_stalled_goal_seconds",
+            usage = "The time (in seconds) after which a goal not yet solved by an EvoSuite RMI node is also sent to an idle node; 0 means never")
+    private int evosuiteStalledGoalSeconds = 60;
+
+    @Option(name = "-evosuite_node_max_restarts",
+            usage = "The maximum number of times a crashed or hung EvoSuite RMI node is relaunched")
+    private int evosuiteNodeMaxRestarts = 3;
+
+    @Option(name = "-evosuite_node_hang_seconds",
+            usage = "The time (in seconds) after which an EvoSuite RMI node that gives no sign of life is considered hung and killed; 0 means never")
+    private int evosuiteNodeHangSeconds = 300;
+
     @Option(name = "-global_time_budget_duration",
             usage = "Duration of the global time budget")
     private long globalTimeBudgetDuration = 10;
@@ -262,6 +335,18 @@ public final class Options implements Cloneable {
     @Option(name = "-maximum_elapsed_without_pathcondition_generated_tests",
             usage = "The maximum time elapsed (in seconds) without generating test with injected path conditions")
     private int maximumElapsedWithoutPathConditions = 10;
+    
+    @Option(name = "-eager_wrapper_rendering",
+            usage = "Whether JBSE shall render the EvoSuite wrappers as soon as it generates the path conditions, instead of passing the symbolic states to EvoSuite")
+    private boolean eagerWrapperRendering = false;
+
+    @Option(name = "-entry_state_cache",
+            usage = "Whether JBSE shall cache the state at the entry of every target method after the static initializers run, and start the guided executions from there")
+    private boolean entryStateCache = false;
+
+    @Option(name = "-concrete_trace_filter",
+            usage = "Whether JBSE shall skip the tests whose concrete execution trace is equal to that of an already explored test, before symbolically executing them")
+    private boolean concreteTraceFilter = false;
 
 	public boolean getHelp() {
         return this.help;
@@ -450,6 +535,39 @@ public final class Options implements Cloneable {
         this.maxCount = maxCount;
     }
 
+    public long getJBSEJobBudgetDuration() {
+        return this.jbseJobBudgetDuration;
+    }
+
+    public void setJBSEJobBudgetDuration(long jbseJobBudgetDuration) {
+        if (jbseJobBudgetDuration < 0) {
+            throw new IllegalArgumentException("Attempted to set the JBSE job time budget duration to a value less than 0.");
+        }
+        this.jbseJobBudgetDuration = jbseJobBudgetDuration;
+    }
+
+    public TimeUnit getJBSEJobBudgetUnit() {
+        return this.jbseJobBudgetUnit;
+    }
+
+    public void setJBSEJobBudgetUnit(TimeUnit jbseJobBudgetUnit) {
+        if (jbseJobBudgetUnit == null) {
+            throw new IllegalArgumentException("Attempted to set the JBSE job time budget unit to null.");
+        }
+        this.jbseJobBudgetUnit = jbseJobBudgetUnit;
+    }
+
+    public long getJBSEJobBudgetSteps() {
+        return this.jbseJobBudgetSteps;
+    }
+
+    public void setJBSEJobBudgetSteps(long jbseJobBudgetSteps) {
+        if (jbseJobBudgetSteps < 0) {
+            throw new IllegalArgumentException("Attempted to set the JBSE job step budget to a value less than 0.");
+        }
+        this.jbseJobBudgetSteps = jbseJobBudgetSteps;
+    }
+
     public float getThrottleFactorJBSE() {
         return this.throttleFactorJBSE;
     }
@@ -483,6 +601,28 @@ public final class Options implements Cloneable {
         this.numOfThreadsJBSE = numOfThreads;
     }
 
+    public int getNumOfThreadsJBSEFrontier() {
+        return this.numOfThreadsJBSEFrontier;
+    }
+
+    public void setNumOfThreadsJBSEFrontier(int numOfThreads) {
+        if (numOfThreads < 0) {
+            throw new IllegalArgumentException("Attempted to set JBSE frontier number of thread to a value less than 0.");
+        }
+        this.numOfThreadsJBSEFrontier = numOfThreads;
+    }
+
+    public int getNumOfTestsPerJBSEJob() {
+        return this.numOfTestsPerJBSEJob;
+    }
+
+    public void setNumOfTestsPerJBSEJob(int numOfTests) {
+        if (numOfTests < 1) {
+            throw new IllegalArgumentException("Attempted to set JBSE number of tests per job to a value less than 1.");
+        }
+        this.numOfTestsPerJBSEJob = numOfTests;
+    }
+
     public int getNumOfThreadsEvosuite() {
         return this.numOfThreadsEvosuite;
     }
@@ -494,6 +634,28 @@ public final class Options implements Cloneable {
         this.numOfThreadsEvosuite = numOfThreads;
     }
 
+    public int getNumOfThreadsEvosuiteWrappers() {
+        return this.numOfThreadsEvosuiteWrappers;
+    }
+
+    public void setNumOfThreadsEvosuiteWrappers(int numOfThreads) {
+        if (numOfThreads < 1) {
+            throw new IllegalArgumentException("Attempted to set Evosuite wrappers number of thread to a value less than 1.");
+        }
+        this.numOfThreadsEvosuiteWrappers = numOfThreads;
+    }
+
+    public int getNumOfThreadsEvosuiteTests() {
+        return this.numOfThreadsEvosuiteTests;
+    }
+
+    public void setNumOfThreadsEvosuiteTests(int numOfThreads) {
+        if (numOfThreads < 1) {
+            throw new IllegalArgumentException("Attempted to set Evosuite tests number of thread to a value less than 1.");
+        }
+        this.numOfThreadsEvosuiteTests = numOfThreads;
+    }
+
     public List<Path> getClassesPath() {
         return this.classesPath;
     }
@@ -563,6 +725,27 @@ public final class Options implements Cloneable {
         return this.outDir;
     }
 
+    public boolean getCompilationCache() {
+        return this.compilationCache;
+    }
+
+    public void setCompilationCache(boolean compilationCache) {
+        this.compilationCache = compilationCache;
+    }
+
+    public Path getCompilationCacheDirectoryPath() {
+        if (this.compilationCacheDir == null) {
+            return getTmpDirectoryPath().resolve("compilation-cache");
+        } else {
+            return this.compilationCacheDir;
+        }
+    }
+
+    public void setCompilationCacheDirectory(Path compilationCacheDir) {
+        //null means in the temporary subdirectory
+        this.compilationCacheDir = compilationCacheDir;
+    }
+
     public void setOutDirectory(Path outDir) {
         if (outDir == null) {
             throw new IllegalArgumentException("Attempted to set the output directory to null.");
@@ -581,6 +764,44 @@ public final class Options implements Cloneable {
         this.z3Path = z3Path;
     }
 
+    public int getZ3MaxLeases() {
+        return this.z3MaxLeases;
+    }
+
+    public void setZ3MaxLeases(int z3MaxLeases) {
+        if (z3MaxLeases < 0) {
+            throw new IllegalArgumentException("Attempted to set the maximum number of Z3 process leases to a value less than 0.");
+        }
+        this.z3MaxLeases = z3MaxLeases;
+    }
+
+    public int getSMTCacheSize() {
+        return this.smtCacheSize;
+    }
+
+    public void setSMTCacheSize(int smtCacheSize) {
+        if (smtCacheSize < 0) {
+            throw new IllegalArgumentException("Attempted to set the SMT cache size to a value less than 0.");
+        }
+        this.smtCacheSize = smtCacheSize;
+    }
+
+    public boolean getSMTFastPath() {
+        return this.smtFastPath;
+    }
+
+    public void setSMTFastPath(boolean smtFastPath) {
+        this.smtFastPath = smtFastPath;
+    }
+
+    public boolean getSMTFastPathCheck() {
+        return this.smtFastPathCheck;
+    }
+
+    public void setSMTFastPathCheck(boolean smtFastPathCheck) {
+        this.smtFastPathCheck = smtFastPathCheck;
+    }
+
     public Path getJBSELibraryPath() {
         return this.jbsePath;
     }
@@ -676,6 +897,61 @@ public final class Options implements Cloneable {
         this.evosuiteNoDependency = evosuiteNoDependency;
     }
 
+    public int getEvosuiteWorkerMaxJobs() {
+        return this.evosuiteWorkerMaxJobs;
+    }
+
+    public void setEvosuiteWorkerMaxJobs(int evosuiteWorkerMaxJobs) {
+        if (evosuiteWorkerMaxJobs < 0) {
+            throw new IllegalArgumentException("Attempted to set the maximum number of jobs of an EvoSuite worker to a value less than 0.");
+        }
+        this.evosuiteWorkerMaxJobs = evosuiteWorkerMaxJobs;
+    }
+
+    public int getEvosuiteWorkerMaxMemoryMB() {
+        return this.evosuiteWorkerMaxMemoryMB;
+    }
+
+    public void setEvosuiteWorkerMaxMemoryMB(int evosuiteWorkerMaxMemoryMB) {
+        if (evosuiteWorkerMaxMemoryMB < 1) {
+            throw new IllegalArgumentException("Attempted to set the maximum memory of an EvoSuite worker to a value less than 1.");
+        }
+        this.evosuiteWorkerMaxMemoryMB = evosuiteWorkerMaxMemoryMB;
+    }
+
+    public int getEvosuiteStalledGoalSeconds() {
+        return this.evosuiteStalledGoalSeconds;
+    }
+
+    public void setEvosuiteStalledGoalSeconds(int evosuiteStalledGoalSeconds) {
+        if (evosuiteStalledGoalSeconds < 0) {
+            throw new IllegalArgumentException("Attempted to set the stalled goal time of EvoSuite to a negative value.");
+        }
+        this.evosuiteStalledGoalSeconds = evosuiteStalledGoalSeconds;
+    }
+
+    public int getEvosuiteNodeMaxRestarts() {
+        return this.evosuiteNodeMaxRestarts;
+    }
+
+    public void setEvosuiteNodeMaxRestarts(int evosuiteNodeMaxRestarts) {
+        if (evosuiteNodeMaxRestarts < 0) {
+            throw new IllegalArgumentException("Attempted to set the maximum number of restarts of an EvoSuite node to a negative value.");
+        }
+        this.evosuiteNodeMaxRestarts = evosuiteNodeMaxRestarts;
+    }
+
+    public int getEvosuiteNodeHangSeconds() {
+        return this.evosuiteNodeHangSeconds;
+    }
+
+    public void setEvosuiteNodeHangSeconds(int evosuiteNodeHangSeconds) {
+        if (evosuiteNodeHangSeconds < 0) {
+            throw new IllegalArgumentException("Attempted to set the hang time of an EvoSuite node to a negative value.");
+        }
+        this.evosuiteNodeHangSeconds = evosuiteNodeHangSeconds;
+    }
+
     public long getGlobalTimeBudgetDuration() {
         return this.globalTimeBudgetDuration;
     }
@@ -918,6 +1194,30 @@ public final class Options implements Cloneable {
 	public void setMaxEvosuiteItersPerPathCondition(int maxEvosuiteItersPerPathCondition) {
 		this.maxEvosuiteItersPerPathCondition = maxEvosuiteItersPerPathCondition;
 	}
+	
+	public boolean getEagerWrapperRendering() {
+		return this.eagerWrapperRendering;
+	}
+	
+	public void setEagerWrapperRendering(boolean eagerWrapperRendering) {
+		this.eagerWrapperRendering = eagerWrapperRendering;
+	}
+	
+	public boolean getEntryStateCache() {
+		return this.entryStateCache;
+	}
+	
+	public void setEntryStateCache(boolean entryStateCache) {
+		this.entryStateCache = entryStateCache;
+	}
+
+	public boolean getConcreteTraceFilter() {
+		return this.concreteTraceFilter;
+	}
+	
+	public void setConcreteTraceFilter(boolean concreteTraceFilter) {
+		this.concreteTraceFilter = concreteTraceFilter;
+	}
 
 	@Override
     public Options clone() {
@@ -53,6 +53,20 @@ public abstract class PerformerPausableFixedThreadPoolExecutor<I,O> extends Perf
     	this.threadPool.shutdownNow();
     }
 
+    /**
+     * Waits for the jobs that were running upon shutdown to end.
+     * Meant to be used in {@link #onStop()} by the subclasses whose
+     * jobs produce items that another performer consumes upon stop.
+     * 
+     * @param timeoutDuration the maximum time to wait.
+     * @param timeoutTimeUnit the {@link TimeUnit} of {@code timeoutDuration}.
+     * @return {@code true} iff the jobs ended before the timeout expired.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    protected final boolean awaitWorkersTermination(long timeoutDuration, TimeUnit timeoutTimeUnit) throws InterruptedException {
+    	return this.threadPool.awaitTermination(timeoutDuration, timeoutTimeUnit);
+    }
+
     @Override
     protected final boolean areWorkersIdle() {
     	return this.threadPool.isIdle();
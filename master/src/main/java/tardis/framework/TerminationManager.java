@@ -128,7 +128,8 @@ public final class TerminationManager {
     }
 
     /**
-     * Stops all the performers.
+     * Stops all the performers, one at a time and in the
+     * order they were passed upon construction.
      */
     private void stopAll() {
         Arrays.stream(this.performers).forEach(Performer::stop);
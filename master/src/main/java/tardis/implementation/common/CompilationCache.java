@@ -0,0 +1,363 @@
+package tardis.implementation.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A content-addressed cache of class files, used by {@link CompilationService}.
+ * A compilation task is identified by the hash of its sources, where the
+ * names of the top-level classes of the sources are abstracted, of the
+ * compilation options, and of the classpath (except the output directory).
+ * Upon a hit, the cached class files are renamed (by rewriting their
+ * constant pools) and copied to the output directory, so javac is not
+ * invoked. The entries are directories named after the hash, that are
+ * published atomically, thus many threads, or many runs if the cache
+ * directory is persistent, can share the cache.
+ *
+ * @author Pietro Braione
+ */
+final class CompilationCache {
+    private static final Pattern PATTERN_PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final String MANIFEST = "manifest.txt";
+    private static final String PLACEHOLDER = "__TARDIS_CLASS_%d__";
+
+    /** The directory of the cache. */
+    private final Path cacheDirectory;
+
+    /** The directory where the class files are emitted. */
+    private final Path outputDirectory;
+
+    /**
+     * The hash of the compilation options and of
+     * the classpath, that is part of all the keys.
+     */
+    private final byte[] environmentHash;
+
+    /** The number of hits. */
+    private final AtomicLong hits = new AtomicLong(0);
+
+    /** The number of misses. */
+    private final AtomicLong misses = new AtomicLong(0);
+
+    /**
+     * Constructor.
+     *
+     * @param cacheDirectory a {@link Path}, the directory of the cache.
+     * @param classpath a {@link List}{@code <}{@link File}{@code >}, the classpath
+     *        of the compilations.
+     * @param outputDirectory a {@link Path}, the directory where the class files
+     *        are emitted.
+     * @param options a {@link List}{@code <}{@link String}{@code >}, the other
+     *        options of the compilations.
+     * @throws IOException if some I/O error occurs while creating the cache directory
+     *         or while reading the classpath.
+     */
+    CompilationCache(Path cacheDirectory, List<File> classpath, Path outputDirectory, List<String> options) throws IOException {
+        this.cacheDirectory = cacheDirectory;
+        this.outputDirectory = outputDirectory;
+        Files.createDirectories(cacheDirectory);
+
+        //the classpath is fingerprinted by the sizes and the modification
+        //times of its files, except those in the output directory, that
+        //are the class files emitted by the compilations themselves
+        final MessageDigest digest = newDigest();
+        update(digest, System.getProperty("java.version", ""));
+        update(digest, String.join(" ", options));
+        final Path outputDirectoryNormalized = outputDirectory.toAbsolutePath().normalize();
+        for (File entry : classpath) {
+            final Path entryPath = entry.toPath().toAbsolutePath().normalize();
+            update(digest, entryPath.toString());
+            if (entryPath.equals(outputDirectoryNormalized) || !Files.exists(entryPath)) {
+                continue;
+            }
+            try (final Stream<Path> files = Files.walk(entryPath)) {
+                for (Path file : files.sorted().collect(Collectors.toList())) {
+                    final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        update(digest, entryPath.relativize(file).toString() + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis());
+                    }
+                }
+            }
+        }
+        this.environmentHash = digest.digest();
+    }
+
+    long getHits() {
+        return this.hits.get();
+    }
+
+    long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * The key of a compilation task.
+     *
+     * @author Pietro Braione
+     */
+    final class Key {
+        /** The hash, in hexadecimal. */
+        private final String hash;
+
+        /** The packages of the sources. */
+        private final ArrayList<String> packages = new ArrayList<>();
+
+        /** The names of the top-level classes of the sources. */
+        private final ArrayList<String> classNames = new ArrayList<>();
+
+        private Key(List<Path> sources) throws IOException {
+            final ArrayList<String> contents = new ArrayList<>();
+            for (Path source : sources) {
+                final String content = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+                final Matcher matcherPackage = PATTERN_PACKAGE.matcher(content);
+                final String fileName = source.getFileName().toString();
+                contents.add(content);
+                this.packages.add(matcherPackage.find() ? matcherPackage.group(1) : "");
+                this.classNames.add(fileName.substring(0, fileName.length() - ".java".length()));
+            }
+            final MessageDigest digest = newDigest();
+            digest.update(CompilationCache.this.environmentHash);
+            for (String content : contents) {
+                String normalized = content;
+                for (int i = 0; i < this.classNames.size(); ++i) {
+                    normalized = patternName(this.classNames.get(i)).matcher(normalized).replaceAll(Matcher.quoteReplacement(String.format(PLACEHOLDER, i)));
+                }
+                update(digest, normalized);
+            }
+            final StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            this.hash = hex.toString();
+        }
+
+        private Path packageDirectory(Path base, int i) {
+            final String packageName = this.packages.get(i);
+            return (packageName.isEmpty() ? base : base.resolve(packageName.replace('.', File.separatorChar)));
+        }
+    }
+
+    /**
+     * Builds the key of a compilation task.
+     *
+     * @param sources a {@link List}{@code <}{@link Path}{@code >}, the
+     *        source files of the task.
+     * @return the {@link Key} of the task.
+     * @throws IOException if some source file cannot be read.
+     */
+    Key key(List<Path> sources) throws IOException {
+        return new Key(sources);
+    }
+
+    /**
+     * Looks up the class files of a compilation task in the cache,
+     * and upon a hit emits them in the output directory.
+     *
+     * @param key the {@link Key} of the task.
+     * @return {@code true} upon a hit, {@code false} upon a miss.
+     */
+    boolean emit(Key key) {
+        final Path entry = this.cacheDirectory.resolve(key.hash);
+        final Path manifest = entry.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            this.misses.incrementAndGet();
+            return false;
+        }
+        try {
+            //the cached names of the classes
+            final List<String> classNamesCached = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+            if (classNamesCached.size() != key.classNames.size()) {
+                this.misses.incrementAndGet();
+                return false;
+            }
+
+            //renames and emits the class files
+            for (int i = 0; i < key.classNames.size(); ++i) {
+                final Path packageDirectory = key.packageDirectory(this.outputDirectory, i);
+                Files.createDirectories(packageDirectory);
+                try (final DirectoryStream<Path> classFiles = Files.newDirectoryStream(entry.resolve(Integer.toString(i)))) {
+                    for (Path classFile : classFiles) {
+                        final byte[] bytecode = rename(Files.readAllBytes(classFile), classNamesCached, key.classNames);
+                        final String fileName = rename(classFile.getFileName().toString(), classNamesCached, key.classNames);
+                        Files.write(packageDirectory.resolve(fileName), bytecode);
+                    }
+                }
+            }
+            this.hits.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            //treats the entry as missing
+            this.misses.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Stores the class files emitted by a successful
+     * compilation task in the cache.
+     *
+     * @param key the {@link Key} of the task.
+     * @throws IOException if some I/O error occurs while
+     *         populating the cache.
+     */
+    void store(Key key) throws IOException {
+        final Path entry = this.cacheDirectory.resolve(key.hash);
+        if (Files.exists(entry)) {
+            return;
+        }
+
+        //populates a temporary directory and then publishes it
+        final Path entryTmp = Files.createTempDirectory(this.cacheDirectory, key.hash + ".tmp");
+        for (int i = 0; i < key.classNames.size(); ++i) {
+            final Path classFilesTmp = Files.createDirectory(entryTmp.resolve(Integer.toString(i)));
+            final String className = key.classNames.get(i);
+            try (final DirectoryStream<Path> classFiles = Files.newDirectoryStream(key.packageDirectory(this.outputDirectory, i), className + "{.class,$*.class}")) {
+                for (Path classFile : classFiles) {
+                    Files.copy(classFile, classFilesTmp.resolve(classFile.getFileName()));
+                }
+            }
+        }
+        Files.write(entryTmp.resolve(MANIFEST), key.classNames, StandardCharsets.UTF_8);
+        try {
+            Files.move(entryTmp, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            //another thread published the entry first
+            deleteRecursively(entryTmp);
+        } catch (IOException e) {
+            deleteRecursively(entryTmp);
+            if (!Files.exists(entry)) {
+                throw e;
+            } //else, another thread published the entry first
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (final Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted((p1, p2) -> p2.compareTo(p1)).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Returns a pattern that matches a class name as an identifier,
+     * also when it is the prefix of the name of a nested class and
+     * when it appears in a type descriptor of the default package.
+     *
+     * @param className a {@link String}, the name of the class.
+     * @return a {@link Pattern}.
+     */
+    private static Pattern patternName(String className) {
+        return Pattern.compile("(?:(?<![A-Za-z0-9_$])|(?<=(?<![A-Za-z0-9_$/])L))" + Pattern.quote(className) + "(?![A-Za-z0-9_])");
+    }
+
+    private static String rename(String s, List<String> from, List<String> to) {
+        String retVal = s;
+        for (int i = 0; i < from.size(); ++i) {
+            if (!from.get(i).equals(to.get(i))) {
+                retVal = patternName(from.get(i)).matcher(retVal).replaceAll(Matcher.quoteReplacement(to.get(i)));
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Renames the classes in a class file by rewriting the UTF8
+     * entries of its constant pool. Since the entries are not
+     * moved, nothing else in the class file must be changed.
+     *
+     * @param bytecode a {@code byte[]}, the class file.
+     * @param from a {@link List}{@code <}{@link String}{@code >}, the
+     *        names of the classes to rename.
+     * @param to a {@link List}{@code <}{@link String}{@code >}, the
+     *        new names of the classes.
+     * @return a {@code byte[]}, the renamed class file.
+     * @throws IOException if the class file is ill-formed.
+     */
+    private static byte[] rename(byte[] bytecode, List<String> from, List<String> to) throws IOException {
+        if (from.equals(to)) {
+            return bytecode;
+        }
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytecode));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(bytecode.length + 64);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(in.readInt()); //magic
+        out.writeShort(in.readUnsignedShort()); //minor version
+        out.writeShort(in.readUnsignedShort()); //major version
+        final int constantPoolCount = in.readUnsignedShort();
+        out.writeShort(constantPoolCount);
+        for (int i = 1; i < constantPoolCount; ++i) {
+            final int tag = in.readUnsignedByte();
+            out.writeByte(tag);
+            switch (tag) {
+            case 1: //Utf8
+                out.writeUTF(rename(in.readUTF(), from, to));
+                break;
+            case 7: case 8: case 16: case 19: case 20: //Class, String, MethodType, Module, Package
+                copy(in, out, 2);
+                break;
+            case 15: //MethodHandle
+                copy(in, out, 3);
+                break;
+            case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18: //Integer, Float, *ref, NameAndType, (Invoke)Dynamic
+                copy(in, out, 4);
+                break;
+            case 5: case 6: //Long, Double take two slots
+                copy(in, out, 8);
+                ++i;
+                break;
+            default:
+                throw new IOException("Unexpected constant pool tag " + tag + " in class file.");
+            }
+        }
+
+        //the rest of the class file is copied verbatim
+        final byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void copy(DataInputStream in, DataOutputStream out, int n) throws IOException {
+        final byte[] buffer = new byte[n];
+        in.readFully(buffer);
+        out.write(buffer);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            //this should never happen
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,217 @@
+package tardis.implementation.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+/**
+ * Compiles Java source files in process. Differently from invoking
+ * {@link JavaCompiler#run(java.io.InputStream, java.io.OutputStream, java.io.OutputStream, String...) JavaCompiler.run}
+ * once per file, it keeps a {@link StandardJavaFileManager} per thread,
+ * configured once with the classpath and the output directory, so the
+ * archives in the classpath are opened and indexed once, and it can compile
+ * many source files in one task. The diagnostics of all the compilations
+ * are appended to a shared log file. Optionally, the class files are
+ * cached in a {@link CompilationCache}, so the sources that were already
+ * compiled up to the names of their classes are not compiled again.
+ *
+ * @author Pietro Braione
+ */
+public final class CompilationService implements AutoCloseable {
+    /** The compiler. */
+    private final JavaCompiler compiler;
+
+    /** The classpath of the compilations. */
+    private final List<File> classpath;
+
+    /** The directory where the class files are emitted. */
+    private final File outputDirectory;
+
+    /** The other options of the compilations. */
+    private final List<String> options;
+
+    /** The log file of the compilations. */
+    private final Path logFilePath;
+
+    /** The directory of the compilation cache, or {@code null} if there is no cache. */
+    private final Path cacheDirectory;
+
+    /** The compilation cache, created upon the first compilation. */
+    private CompilationCache cache = null;
+
+    /**
+     * The file manager of each thread (file managers
+     * are not guaranteed to be thread-safe).
+     */
+    private final ThreadLocal<StandardJavaFileManager> fileManager = new ThreadLocal<>();
+
+    /** All the file managers, to close them. */
+    private final ArrayList<StandardJavaFileManager> fileManagers = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param compiler the {@link JavaCompiler}.
+     * @param classpath a {@link String}, the classpath of the
+     *        compilations in the same format as the {@code -cp}
+     *        option of javac.
+     * @param outputDirectory a {@link Path}, the directory where
+     *        the class files are emitted.
+     * @param options a {@link List}{@code <}{@link String}{@code >},
+     *        the other options of the compilations (e.g., {@code -source 8}).
+     *        It must not contain the classpath and the output directory.
+     * @param logFilePath a {@link Path}, the log file where the
+     *        diagnostics are appended.
+     * @param cacheDirectory a {@link Path}, the directory of the
+     *        compilation cache, or {@code null} for no cache.
+     */
+    public CompilationService(JavaCompiler compiler, String classpath, Path outputDirectory, List<String> options, Path logFilePath, Path cacheDirectory) {
+        this.compiler = compiler;
+        this.classpath = new ArrayList<>();
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                this.classpath.add(new File(entry));
+            }
+        }
+        this.outputDirectory = outputDirectory.toFile();
+        this.options = new ArrayList<>(options);
+        this.logFilePath = logFilePath;
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    private synchronized CompilationCache cache() throws IOException {
+        if (this.cacheDirectory != null && this.cache == null) {
+            this.cache = new CompilationCache(this.cacheDirectory, this.classpath, this.outputDirectory.toPath(), this.options);
+        }
+        return this.cache;
+    }
+
+    public synchronized long getCacheHits() {
+        return (this.cache == null ? 0 : this.cache.getHits());
+    }
+
+    public synchronized long getCacheMisses() {
+        return (this.cache == null ? 0 : this.cache.getMisses());
+    }
+
+    private StandardJavaFileManager fileManager() throws IOException {
+        StandardJavaFileManager retVal = this.fileManager.get();
+        if (retVal == null) {
+            retVal = this.compiler.getStandardFileManager(null, null, null);
+            retVal.setLocation(StandardLocation.CLASS_PATH, this.classpath);
+            retVal.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(this.outputDirectory));
+            this.fileManager.set(retVal);
+            synchronized (this.fileManagers) {
+                this.fileManagers.add(retVal);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Compiles some source files in one task.
+     *
+     * @param sources a {@link List}{@code <}{@link Path}{@code >},
+     *        the source files to compile.
+     * @return a {@link List}{@code <}{@link Path}{@code >}, the source
+     *         files of {@code sources} with errors, in the order they
+     *         appear in {@code sources}; if the compilation fails but
+     *         no error is reported on a source file, all the {@code sources}.
+     *         The compilation succeeds iff the returned list is empty.
+     * @throws IOException if some I/O error occurs while setting up the
+     *         compilation or while writing the log file.
+     */
+    public List<Path> compile(List<Path> sources) throws IOException {
+        //upon a cache hit javac is skipped
+        final CompilationCache cache = cache();
+        final CompilationCache.Key key = (cache == null ? null : cache.key(sources));
+        if (cache != null && cache.emit(key)) {
+            appendLog("javac " + String.join(" ", this.options) + " " + sources.stream().map(Object::toString).collect(Collectors.joining(" ")) + " CACHED" + System.lineSeparator());
+            return Collections.emptyList();
+        }
+
+        final StandardJavaFileManager fileManager = fileManager();
+        final Iterable<? extends JavaFileObject> compilationUnits =
+            fileManager.getJavaFileObjectsFromFiles(sources.stream().map(Path::toFile).collect(Collectors.toList()));
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final StringWriter out = new StringWriter();
+        final boolean success = this.compiler.getTask(out, fileManager, diagnostics, this.options, null, compilationUnits).call();
+
+        //logs the diagnostics and finds the sources with errors
+        final LinkedHashSet<Path> sourcesWithErrors = new LinkedHashSet<>();
+        final StringWriter log = new StringWriter();
+        final PrintWriter logWriter = new PrintWriter(log);
+        logWriter.println("javac " + String.join(" ", this.options) + " " + sources.stream().map(Object::toString).collect(Collectors.joining(" ")) + (success ? "" : " FAILED"));
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            logWriter.println(d.toString());
+            if (d.getKind() == Diagnostic.Kind.ERROR && d.getSource() != null) {
+                sourcesWithErrors.add(Paths.get(d.getSource().toUri()).toAbsolutePath().normalize());
+            }
+        }
+        logWriter.print(out.toString());
+
+        //caches the class files
+        if (success && cache != null) {
+            try {
+                cache.store(key);
+            } catch (IOException e) {
+                //the compilation succeeded anyway
+                logWriter.println("Failed to store the class files in the compilation cache: " + e.toString());
+            }
+        }
+        logWriter.flush();
+        appendLog(log.toString());
+
+        final ArrayList<Path> retVal = new ArrayList<>();
+        if (!success) {
+            for (Path source : sources) {
+                if (sourcesWithErrors.contains(source.toAbsolutePath().normalize())) {
+                    retVal.add(source);
+                }
+            }
+            if (retVal.isEmpty()) {
+                retVal.addAll(sources);
+            }
+        }
+        return retVal;
+    }
+
+    private synchronized void appendLog(String s) throws IOException {
+        Files.write(this.logFilePath, s.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Closes the file managers, and with
+     * them the archives in the classpath.
+     */
+    @Override
+    public void close() {
+        synchronized (this.fileManagers) {
+            for (StandardJavaFileManager fileManager : this.fileManagers) {
+                try {
+                    fileManager.close();
+                } catch (IOException e) {
+                    //nevermind and continue
+                }
+            }
+            this.fileManagers.clear();
+        }
+    }
+}
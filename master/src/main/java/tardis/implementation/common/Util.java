@@ -3,12 +3,14 @@ package tardis.implementation.common;
 import static jbse.common.Type.className;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -22,6 +24,10 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+
 import jbse.bc.Opcodes;
 import jbse.mem.Clause;
 import jbse.mem.ClauseAssume;
@@ -351,6 +357,41 @@ public final class Util {
     	return Math.abs(a - b) < 0.000001d; //this should be the correct way to check if two floating point values are equal, not the == operator
     }
     
+    /**
+     * Checks whether a class file declares a method, by parsing
+     * its method table and without loading the class.
+     * 
+     * @param classFile the {@link Path} of the class file.
+     * @param methodName a {@link String}, the name of the method.
+     * @param methodDescriptor a {@link String}, the descriptor of the method.
+     * @return {@code true} iff the class file declares a method with name 
+     *         {@code methodName} and descriptor {@code methodDescriptor}.
+     * @throws IOException if the class file cannot be read or is ill-formed.
+     */
+    public static boolean classFileDeclaresMethod(Path classFile, String methodName, String methodDescriptor) throws IOException {
+        final ClassReader classReader;
+        try {
+            classReader = new ClassReader(Files.readAllBytes(classFile));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Ill-formed class file " + classFile.toString(), e);
+        }
+        final boolean[] found = { false };
+        try {
+            classReader.accept(new ClassVisitor(org.objectweb.asm.Opcodes.ASM5) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                    if (name.equals(methodName) && descriptor.equals(methodDescriptor)) {
+                        found[0] = true;
+                    }
+                    return null; //no need to visit the code
+                }
+            }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | UnsupportedOperationException e) {
+            throw new IOException("Ill-formed or unsupported class file " + classFile.toString(), e);
+        }
+        return found[0];
+    }
+    
     //just for the example MIPC (ManyInfeasiblePC)
   	/*public static boolean calculateGroundTruth(String pathCondition) {
   		if (pathCondition.contains("null") || pathCondition.contains("aliases") || pathCondition.contains("<(~")) {
@@ -1,29 +1,228 @@
 package tardis.implementation.data;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.TimeUnit;
 
-import tardis.framework.QueueInputOutputBuffer;
+import jbse.mem.Clause;
+import tardis.Options;
+import tardis.framework.InputBuffer;
+import tardis.framework.OutputBuffer;
 import tardis.implementation.evosuite.EvosuiteResult;
 
-public class EvosuiteResultInputOutputBuffer extends QueueInputOutputBuffer<EvosuiteResult> {
+/**
+ * An {@link InputBuffer} and {@link OutputBuffer} for {@link EvosuiteResult}s
+ * that prioritizes them based on their expected yield of new path conditions.
+ * The seed {@link EvosuiteResult}s (those without a generating path condition)
+ * come first. The others are ranked by a score calculated from the indices
+ * of improvability and novelty of their generating path condition in the 
+ * {@link TreePath}, and from their start depth. When the indices are updated
+ * the scores become stale (see {@link #invalidateScores()}), and each item is 
+ * rescored only when it reaches the head of the queue: if it no longer comes 
+ * before the next item it is queued again. Since the indices mostly worsen 
+ * as the coverage grows, this keeps the order without rescoring all the items.
+ * To avoid starvation the items age: a later item overtakes an earlier one 
+ * only if its score is better by a margin that grows with the number of items 
+ * that arrived in between. The novelty of the branch a test was generated to 
+ * cover, and a concrete probe of the coverage of the test, are not considered:
+ * an {@link EvosuiteResult} does not carry its target branch, and running the 
+ * test concretely would cost as much as the first step of its exploration.
+ *
+ * @author Pietro Braione
+ */
+public class EvosuiteResultInputOutputBuffer implements InputBuffer<EvosuiteResult>, OutputBuffer<EvosuiteResult> {
+    /** The maximum value of the index of improvability and novelty. */
+    private static final int INDEX_MAX = 10;
+
+    /** The maximum score contributed by the start depth. */
+    private static final int SCORE_DEPTH_MAX = 10;
+
+    /**
+     * How many arrivals a point of score is worth, i.e., how many
+     * later items an item may overtake for each point of score
+     * it has more than them.
+     */
+    private static final int ARRIVALS_PER_SCORE_POINT = 4;
+
+    /**
+     * An item in the queue, with its position.
+     *
+     * @author Pietro Braione
+     */
+    private static final class Entry {
+        private final EvosuiteResult item;
+        private final long arrival;
+        
+        /** Whether the item was requeued, and thus has the worst score. */
+        private final boolean requeued;
+        
+        /** The position, that must not change while the entry is queued. */
+        private long position;
+        
+        /** The generation of the scores {@link #position} was calculated with. */
+        private long generation;
+
+        Entry(EvosuiteResult item, long arrival, boolean requeued) {
+            this.item = item;
+            this.arrival = arrival;
+            this.requeued = requeued;
+        }
+    }
+
+    /** The order of the entries in the queue, by position and then by arrival. */
+    private static final Comparator<Entry> ORDER = 
+    Comparator.<Entry>comparingLong(e -> e.position).thenComparingLong(e -> e.arrival);
+
     private final ConcurrentLinkedDeque<EvosuiteResult> queueWithPriority = new ConcurrentLinkedDeque<>();
-    
+
+    /** The queue of the nonseed items. Guarded by {@code this}. */
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(11, ORDER);
+
+    /** The number of arrivals so far. Guarded by {@code this}. */
+    private long arrivals = 0;
+
+    /** 
+     * The generation of the scores, incremented whenever
+     * they become stale. Guarded by {@code this}. 
+     */
+    private long generation = 0;
+
+    /** The maximum depth. */
+    private final int maxDepth;
+
+    /** The {@link TreePath} used to store information about the path conditions. */
+    private final TreePath treePath;
+
+    public EvosuiteResultInputOutputBuffer(Options o, TreePath treePath) {
+    	this.maxDepth = o.getMaxDepth();
+    	this.treePath = treePath;
+    }
+
     @Override
     public boolean add(EvosuiteResult item) {
     	if (item.getPathConditionGenerating() == null) {
     		this.queueWithPriority.addFirst(item);
+    		synchronized (this) {
+    			notifyAll();
+    		}
     		return true;
     	} else {
-    		return super.add(item);
+    		return addEntry(item, false);
+    	}
+    }
+
+    /**
+     * Adds an item with the lowest priority, i.e., with the
+     * worst score, regardless it is a seed or not.
+     *
+     * @param item the {@link EvosuiteResult} to add.
+     * @return {@code true}.
+     */
+    public boolean addLast(EvosuiteResult item) {
+    	return addEntry(item, true);
+    }
+
+    private synchronized boolean addEntry(EvosuiteResult item, boolean requeued) {
+    	final Entry entry = new Entry(item, this.arrivals++, requeued);
+    	entry.position = position(entry);
+    	entry.generation = this.generation;
+    	this.queue.add(entry);
+    	notifyAll();
+    	return true;
+    }
+    
+    /**
+     * Marks the scores of all the queued items as stale. 
+     * To be invoked after the indices of the {@link TreePath} 
+     * are updated. The items are rescored when polled.
+     */
+    public synchronized void invalidateScores() {
+    	++this.generation;
+    }
+    
+    /**
+     * Polls the entry at the head of the queue, rescoring
+     * the stale entries that reach it.
+     * 
+     * @return the first {@link Entry}, or {@code null} if
+     *         the queue is empty.
+     */
+    private Entry pollEntry() {
+    	while (true) {
+    		final Entry entry = this.queue.poll();
+    		if (entry == null || entry.generation == this.generation) {
+    			return entry;
+    		}
+    		
+    		//rescores the stale entry, and returns it only if
+    		//it still comes before the next one
+    		entry.position = position(entry);
+    		entry.generation = this.generation;
+    		final Entry next = this.queue.peek();
+    		if (next == null || ORDER.compare(entry, next) <= 0) {
+    			return entry;
+    		}
+    		this.queue.add(entry);
     	}
     }
     
+    private long position(Entry entry) {
+    	final int score = (entry.requeued ? 0 : score(entry.item));
+    	return entry.arrival - score * ARRIVALS_PER_SCORE_POINT;
+    }
+
+    /**
+     * Calculates the score of an item, the higher
+     * the better.
+     *
+     * @param item a {@link EvosuiteResult} with a generating
+     *        path condition.
+     * @return an {@code int} between {@code 0} and 
+     *         {@code 2 * }{@link #INDEX_MAX}{@code  + }{@link #SCORE_DEPTH_MAX}.
+     */
+    private int score(EvosuiteResult item) {
+    	final String entryPoint = item.getTargetMethodSignature();
+    	final List<Clause> path = item.getPathConditionGenerating();
+    	final int indexImprovability;
+    	final int indexNovelty;
+    	synchronized (this.treePath) {
+    		indexImprovability = this.treePath.getIndexImprovability(entryPoint, path);
+    		indexNovelty = this.treePath.getIndexNovelty(entryPoint, path);
+    	}
+
+    	//the more improvable, the better
+    	final int scoreImprovability = (indexImprovability < 0 ? 0 : Math.min(indexImprovability, INDEX_MAX));
+
+    	//the less hit, the better
+    	final int scoreNovelty = (indexNovelty < 0 ? 0 : INDEX_MAX - Math.min(indexNovelty, INDEX_MAX));
+
+    	//the shallower, the better (more frontiers to explore)
+    	final int depth = Math.min(Math.max(item.getStartDepth(), 0), this.maxDepth);
+    	final int scoreDepth = (this.maxDepth <= 0 ? 0 : (SCORE_DEPTH_MAX * (this.maxDepth - depth)) / this.maxDepth);
+
+    	return scoreImprovability + scoreNovelty + scoreDepth;
+    }
+
+    /**
+     * {@inheritDoc} This buffer waits only for the first item,
+     * and returns it together with the other items that are 
+     * already stored, up to {@code n}: thus, the number of returned 
+     * items adapts to how many are queued.
+     */
     @Override
-    public List<EvosuiteResult> pollN(int n, long timeoutDuration, TimeUnit timeoutTimeUnit)
+    public synchronized List<EvosuiteResult> pollN(int n, long timeoutDuration, TimeUnit timeoutTimeUnit)
     throws InterruptedException {
+    	//waits for the first item
+    	final long deadline = System.nanoTime() + timeoutTimeUnit.toNanos(timeoutDuration);
+    	long remaining = deadline - System.nanoTime();
+    	while (this.queueWithPriority.isEmpty() && this.queue.isEmpty() && remaining > 0) {
+    		TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    		remaining = deadline - System.nanoTime();
+    	}
+    	
     	final ArrayList<EvosuiteResult> retVal = new ArrayList<>();
     	for (int i = 1; i <= n; ++i) {
     		final EvosuiteResult item = this.queueWithPriority.pollFirst();
@@ -32,14 +231,18 @@ public class EvosuiteResultInputOutputBuffer extends QueueInputOutputBuffer<Evos
     		}
     		retVal.add(item);
     	}
-    	if (retVal.size() < n) {
-    		retVal.addAll(super.pollN(n - retVal.size(), timeoutDuration, timeoutTimeUnit));
+    	for (int i = retVal.size() + 1; i <= n; ++i) {
+    		final Entry entry = pollEntry();
+    		if (entry == null) {
+    			break;
+    		}
+    		retVal.add(entry.item);
     	}
     	return retVal;
     }
-    
+
     @Override
-    public boolean isEmpty() {
-    	return queueWithPriority.isEmpty() && super.isEmpty();
+    public synchronized boolean isEmpty() {
+    	return this.queueWithPriority.isEmpty() && this.queue.isEmpty();
     }
 }
@@ -3,6 +3,7 @@ package tardis.implementation.data;
 import static tardis.implementation.common.Util.filterOnPattern;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -429,6 +430,39 @@ public final class JBSEResultInputOutputBuffer implements InputBuffer<JBSEResult
             this.coverageSetImprovability.clear();
         }
     }
+
+    /**
+     * Recalculates the improvability index of some {@link JBSEResult}s
+     * stored in this buffer and reclassifies their priorities. To be 
+     * invoked when the neighbor branches of their path conditions change, 
+     * e.g., after the exploration of the frontier that generated them.
+     * 
+     * @param items a {@link Collection}{@code <}{@link JBSEResult}{@code >}.
+     *        The items that are no longer stored in this buffer are skipped.
+     */
+    public synchronized void updateIndexImprovabilityAndReclassify(Collection<JBSEResult> items) {
+        if (!this.useIndexImprovability) {
+            return;
+        }
+        synchronized (this.treePath) {
+            for (JBSEResult item : items) {
+                for (int queueNumber : this.queues.keySet()) {
+                    if (!this.queues.get(queueNumber).contains(item)) {
+                        continue;
+                    }
+                    final String entryPoint = item.getTargetMethodSignature();
+                    final List<Clause> pathCondition = item.getPathConditionGenerated();
+                    updateIndexImprovability(entryPoint, pathCondition);
+                    final int queueNumberNew = calculateQueueNumber(entryPoint, pathCondition);
+                    if (queueNumberNew != queueNumber) {
+                        this.queues.get(queueNumber).remove(item);
+                        this.queues.get(queueNumberNew).add(item);
+                    }
+                    break;
+                }
+            }
+        }
+    }
             
     /**
      * Recalculates the novelty index of all the {@link JBSEResult}s
@@ -59,6 +59,12 @@ public final class TreePath {
          */
         private final HashSet<String> branchesFrontier = new HashSet<>();
 
+        /** 
+         * The depths of the frontiers past this node (i.e., past
+         * the path from the root to this node) that were expanded.
+         */
+        private final HashSet<Integer> frontierDepthsExpanded = new HashSet<>();
+
         /** 
          * The status of this node (i.e., of the path
          * from the root to this node). 
@@ -310,6 +316,44 @@ public final class TreePath {
         return true;
     }
     
+    /**
+     * Records that a frontier was expanded, i.e., that all the 
+     * path conditions past it were generated and inserted in 
+     * this {@link TreePath}.
+     * 
+     * @param entryPoint a {@link String}, the branch
+     *        identifier of a method's entry point where the
+     *        path starts. 
+     * @param pathPreFrontier a {@link List}{@code <}{@link Clause}{@code >},
+     *        the path condition of the pre-frontier state. 
+     *        The first is the closest to the root, the last is the leaf.
+     * @param depthFrontier an {@code int}, the depth of the frontier.
+     */
+    public synchronized void markFrontierExpanded(String entryPoint, List<Clause> pathPreFrontier, int depthFrontier) {
+        final Node nodePreFrontier = findNode(entryPoint, pathPreFrontier);
+        if (nodePreFrontier != null) {
+            nodePreFrontier.frontierDepthsExpanded.add(depthFrontier);
+        }
+    }
+
+    /**
+     * Checks whether a frontier was expanded.
+     * 
+     * @param entryPoint a {@link String}, the branch
+     *        identifier of a method's entry point where the
+     *        path starts. 
+     * @param pathPreFrontier a {@link List}{@code <}{@link Clause}{@code >},
+     *        the path condition of the pre-frontier state. 
+     *        The first is the closest to the root, the last is the leaf.
+     * @param depthFrontier an {@code int}, the depth of the frontier.
+     * @return {@code true} iff the frontier was recorded as expanded
+     *         by {@link #markFrontierExpanded(String, List, int) markFrontierExpanded}.
+     */
+    public synchronized boolean isFrontierExpanded(String entryPoint, List<Clause> pathPreFrontier, int depthFrontier) {
+        final Node nodePreFrontier = findNode(entryPoint, pathPreFrontier);
+        return (nodePreFrontier != null && nodePreFrontier.frontierDepthsExpanded.contains(depthFrontier));
+    }
+    
     /**
      * Finds a node in the tree.
      * 
@@ -0,0 +1,99 @@
+package tardis.implementation.evosuite;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+import shaded.org.evosuite.EvoSuite;
+import shaded.org.evosuite.Properties;
+import shaded.org.evosuite.TestGenerationContext;
+import shaded.org.evosuite.rmi.ClientServices;
+import shaded.org.evosuite.rmi.MasterServices;
+import shaded.org.evosuite.setup.TestCluster;
+
+/**
+ * The main class of a long-lived EvoSuite worker JVM, launched by
+ * {@link EvosuiteWorkerPool}. It reads from its standard input
+ * one job per line, i.e., the arguments of an EvoSuite invocation
+ * separated by tabs, and runs EvoSuite in process with them. The
+ * output of EvoSuite goes to the standard output. After every job
+ * the worker resets the static state that EvoSuite keeps across
+ * invocations, and prints a line starting with {@link #JOB_END}
+ * followed by the number of bytes of heap it uses. The worker
+ * ends when its standard input is closed. Note that it must
+ * depend only on the JDK and on EvoSuite.
+ *
+ * @author Pietro Braione
+ */
+public final class EvosuiteWorker {
+    /** The prefix of the line that marks the end of a job. */
+    static final String JOB_END = "* TARDIS EVOSUITE WORKER JOB END";
+
+    /** The separator of the arguments in a job line. */
+    static final String ARGUMENTS_SEPARATOR = "\t";
+
+    public static void main(String[] args) throws IOException {
+        //EvoSuite might redirect System.out while running
+        final PrintStream out = System.out;
+        final BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        final Runtime runtime = Runtime.getRuntime();
+        final java.util.Properties systemProperties = (java.util.Properties) System.getProperties().clone();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                Properties.getInstance().resetToDefaults();
+                new EvoSuite().parseCommandLine(line.split(ARGUMENTS_SEPARATOR));
+            } catch (Throwable e) {
+                e.printStackTrace(out);
+                //falls through
+            }
+            final boolean reset = reset(systemProperties, out);
+            System.gc();
+            //if the reset failed reports an unbounded heap, so
+            //the worker is recycled
+            out.println(JOB_END + " " + (reset ? runtime.totalMemory() - runtime.freeMemory() : Long.MAX_VALUE));
+            out.flush();
+        }
+    }
+
+    /**
+     * Resets the static state that EvoSuite keeps across invocations,
+     * so the next job does not see the classes, the test cluster and
+     * the RMI services of the previous one.
+     *
+     * @param systemProperties the system properties at the start
+     *        of the worker, that EvoSuite might have changed.
+     * @param out the {@link PrintStream} where the failures are
+     *        reported.
+     * @return {@code true} iff the reset succeeded.
+     */
+    private static boolean reset(java.util.Properties systemProperties, PrintStream out) {
+        try {
+            //the master and client services that the search registered,
+            //since with client_on_thread they live in this JVM
+            ClientServices.getInstance().stopServices();
+            MasterServices.getInstance().stopServices();
+
+            //the instrumenting class loader, with the classes under test
+            //it loaded, and the pools that depend on it
+            TestGenerationContext.getInstance().resetContext();
+            TestCluster.reset();
+
+            //the system properties, that the search sets
+            System.setProperties((java.util.Properties) systemProperties.clone());
+            return true;
+        } catch (Throwable e) {
+            e.printStackTrace(out);
+            return false;
+        }
+    }
+
+    /**
+     * Do not instantiate!
+     */
+    private EvosuiteWorker() { }
+}
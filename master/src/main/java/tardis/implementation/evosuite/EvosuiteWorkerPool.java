@@ -0,0 +1,329 @@
+package tardis.implementation.evosuite;
+
+import static tardis.implementation.evosuite.EvosuiteWorker.ARGUMENTS_SEPARATOR;
+import static tardis.implementation.evosuite.EvosuiteWorker.JOB_END;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import tardis.Options;
+
+/**
+ * A pool of long-lived EvoSuite worker JVMs (see {@link EvosuiteWorker}).
+ * Submitting a job to the pool is the same as launching an EvoSuite
+ * process, but the job runs in an idle worker if there is one, so it
+ * does not pay the startup of the JVM and of EvoSuite. The workers run
+ * the search in process, thus they are recycled after a number of jobs,
+ * or when the heap they use grows beyond a threshold.
+ *
+ * @author Pietro Braione
+ */
+final class EvosuiteWorkerPool implements AutoCloseable {
+    /** The command line that launches a worker. */
+    private final ArrayList<String> workerCommandLine;
+
+    /** The maximum number of idle workers that are kept. */
+    private final int maxIdle;
+
+    /** The maximum number of jobs a worker runs before it is recycled. */
+    private final int maxJobs;
+
+    /**
+     * The maximum number of bytes of heap a worker may use after
+     * a job without being recycled.
+     */
+    private final long maxMemoryBytes;
+
+    /** The idle workers. */
+    private final ArrayDeque<Worker> idle = new ArrayDeque<>();
+
+    /** The workers that are running a job. */
+    private final HashSet<Worker> busy = new HashSet<>();
+
+    /** Set when the pool is closed. */
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param o the {@link Options}.
+     * @param maxIdle an {@code int}, the maximum number of idle workers
+     *        kept by the pool. Usually it is the number of threads that
+     *        may concurrently run EvoSuite.
+     */
+    EvosuiteWorkerPool(Options o, int maxIdle) {
+        this.workerCommandLine = new ArrayList<>();
+        this.workerCommandLine.add(o.getJava8Command());
+        this.workerCommandLine.add("-cp");
+        this.workerCommandLine.add(o.getEvosuitePath().toString() + File.pathSeparator + tardisPath());
+        this.workerCommandLine.add(EvosuiteWorker.class.getName());
+        this.maxIdle = maxIdle;
+        this.maxJobs = o.getEvosuiteWorkerMaxJobs();
+        this.maxMemoryBytes = o.getEvosuiteWorkerMaxMemoryMB() * 1024L * 1024L;
+    }
+
+    private static String tardisPath() {
+        try {
+            return Paths.get(EvosuiteWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            //this should never happen
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Submits a job to an idle worker, launching
+     * a new worker if no idle one is available.
+     *
+     * @param evosuiteCommandLine a {@link List}{@code <}{@link String}{@code >},
+     *        the command line that would launch EvoSuite in a process
+     *        of its own, i.e., {@code java -jar <EvoSuite jar> <arguments>}.
+     * @return the submitted {@link Job}.
+     * @throws IOException if the worker cannot be launched.
+     */
+    Job submit(List<String> evosuiteCommandLine) throws IOException {
+        //drops the launcher, and runs the search in the worker
+        final int jarOptionIndex = evosuiteCommandLine.indexOf("-jar");
+        final ArrayList<String> evosuiteArguments = new ArrayList<>(evosuiteCommandLine.subList(jarOptionIndex + 2, evosuiteCommandLine.size()));
+        evosuiteArguments.add("-Dclient_on_thread=true");
+        final String jobLine = String.join(ARGUMENTS_SEPARATOR, evosuiteArguments);
+
+        //an idle worker might have died, in which case
+        //the job is submitted to a new one
+        Worker worker;
+        synchronized (this) {
+            if (this.closed) {
+                throw new IOException("Attempted to submit a job to a closed EvoSuite worker pool.");
+            }
+            worker = this.idle.poll();
+        }
+        while (true) {
+            final boolean isNew = (worker == null);
+            if (isNew) {
+                worker = new Worker();
+            }
+            synchronized (this) {
+                this.busy.add(worker);
+            }
+            try {
+                return worker.submit(jobLine);
+            } catch (IOException e) {
+                synchronized (this) {
+                    this.busy.remove(worker);
+                }
+                worker.dispose();
+                if (isNew) {
+                    throw e;
+                }
+                worker = null;
+            }
+        }
+    }
+
+    private void release(Worker worker, boolean healthy, long memoryBytes) {
+        //puts the worker back in the pool if it is
+        //healthy, not worn out and not bloated
+        synchronized (this) {
+            this.busy.remove(worker);
+            if (healthy && !this.closed && worker.jobs < this.maxJobs &&
+                memoryBytes < this.maxMemoryBytes && this.idle.size() < this.maxIdle) {
+                this.idle.push(worker);
+                return;
+            }
+        }
+        worker.dispose();
+    }
+
+    /**
+     * Closes this pool by disposing of all the workers,
+     * including those that are running a job.
+     */
+    @Override
+    public void close() {
+        final ArrayList<Worker> toDispose;
+        synchronized (this) {
+            this.closed = true;
+            toDispose = new ArrayList<>(this.idle);
+            toDispose.addAll(this.busy);
+            this.idle.clear();
+            this.busy.clear();
+        }
+        for (Worker worker : toDispose) {
+            worker.dispose();
+        }
+    }
+
+    /**
+     * A worker JVM.
+     *
+     * @author Pietro Braione
+     */
+    private final class Worker {
+        private final Process process;
+        private final BufferedWriter stdin;
+        private final BufferedReader stdout;
+
+        /** How many jobs were submitted to this worker. */
+        private int jobs = 0;
+
+        Worker() throws IOException {
+            this.process = new ProcessBuilder(EvosuiteWorkerPool.this.workerCommandLine).redirectErrorStream(true).start();
+            this.stdin = new BufferedWriter(new OutputStreamWriter(this.process.getOutputStream()));
+            this.stdout = new BufferedReader(new InputStreamReader(this.process.getInputStream()));
+        }
+
+        Job submit(String jobLine) throws IOException {
+            ++this.jobs;
+            this.stdin.write(jobLine);
+            this.stdin.newLine();
+            this.stdin.flush();
+            return new Job(this);
+        }
+
+        void dispose() {
+            this.process.destroyForcibly();
+        }
+    }
+
+    /**
+     * A job submitted to a worker. Its output is that of the
+     * EvoSuite invocation, and ends when the job ends.
+     *
+     * @author Pietro Braione
+     */
+    final class Job {
+        private final Worker worker;
+        private final JobOutput output = new JobOutput();
+        private boolean finished = false;
+
+        private Job(Worker worker) {
+            this.worker = worker;
+        }
+
+        /**
+         * Returns the output of this job.
+         *
+         * @return an {@link InputStream} with the standard output
+         *         and standard error of the EvoSuite invocation.
+         */
+        InputStream getInputStream() {
+            return this.output;
+        }
+
+        /**
+         * Waits for this job to end, discarding
+         * its output not yet read.
+         *
+         * @throws IOException if reading the output
+         *         of the worker fails.
+         */
+        void waitFor() throws IOException {
+            final byte[] discarded = new byte[4096];
+            while (this.output.read(discarded) >= 0) ;
+        }
+
+        /**
+         * Aborts this job by disposing of its worker.
+         */
+        void destroy() {
+            finish(false, 0L);
+        }
+
+        private synchronized void finish(boolean healthy, long memoryBytes) {
+            if (!this.finished) {
+                this.finished = true;
+                release(this.worker, healthy, memoryBytes);
+            }
+        }
+
+        /**
+         * The output of the job, i.e., the output of the
+         * worker up to the line that marks the end of the job.
+         *
+         * @author Pietro Braione
+         */
+        private final class JobOutput extends InputStream {
+            private byte[] line = new byte[0];
+            private int position = 0;
+            private boolean ended = false;
+
+            /**
+             * Reads the next line of the worker, if
+             * the current one was completely read.
+             *
+             * @return {@code false} iff the output ended.
+             * @throws IOException if reading the worker fails.
+             */
+            private synchronized boolean fill() throws IOException {
+                while (this.position == this.line.length) {
+                    if (this.ended) {
+                        return false;
+                    }
+                    final String s;
+                    try {
+                        s = Job.this.worker.stdout.readLine();
+                    } catch (IOException e) {
+                        this.ended = true;
+                        finish(false, 0L);
+                        throw e;
+                    }
+                    if (s == null) {
+                        //the worker died
+                        this.ended = true;
+                        finish(false, 0L);
+                        return false;
+                    } else if (s.startsWith(JOB_END)) {
+                        this.ended = true;
+                        finish(true, memoryBytes(s));
+                        return false;
+                    }
+                    this.line = (s + System.lineSeparator()).getBytes();
+                    this.position = 0;
+                }
+                return true;
+            }
+
+            private long memoryBytes(String jobEndLine) {
+                try {
+                    return Long.parseLong(jobEndLine.substring(JOB_END.length()).trim());
+                } catch (NumberFormatException e) {
+                    //recycles the worker
+                    return Long.MAX_VALUE;
+                }
+            }
+
+            @Override
+            public synchronized int read() throws IOException {
+                if (!fill()) {
+                    return -1;
+                }
+                return this.line[this.position++] & 0xFF;
+            }
+
+            @Override
+            public synchronized int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!fill()) {
+                    return -1;
+                }
+                final int n = Math.min(len, this.line.length - this.position);
+                System.arraycopy(this.line, this.position, b, off, n);
+                this.position += n;
+                return n;
+            }
+        }
+    }
+}
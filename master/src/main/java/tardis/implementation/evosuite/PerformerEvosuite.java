@@ -1,19 +1,17 @@
 package tardis.implementation.evosuite;
 
 import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static tardis.implementation.common.Util.classFileDeclaresMethod;
 import static tardis.implementation.common.Util.getTargets;
 import static tardis.implementation.common.Util.stream;
 import static tardis.implementation.common.Util.stringifyPostFrontierPathCondition;
 
-import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InputStream;
 //import java.io.PrintStream;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -57,14 +55,15 @@ import jbse.mem.exc.FrozenStateException;
 import jbse.mem.exc.HeapMemoryExhaustedException;
 import jbse.val.HistoryPoint;
 import jbse.val.SymbolFactory;
-import sushi.formatters.StateFormatterSushiPathCondition;
 import tardis.Options;
 import tardis.framework.OutputBuffer;
 import tardis.framework.Performer;
 import tardis.framework.PerformerPausableFixedThreadPoolExecutor;
+import tardis.implementation.common.CompilationService;
 import tardis.implementation.common.NoJavaCompilerException;
 //import tardis.implementation.common.Util;
 import tardis.implementation.data.JBSEResultInputOutputBuffer;
+import tardis.implementation.jbse.EvoSuiteWrapperSource;
 import tardis.implementation.jbse.JBSEResult;
 
 /**
@@ -76,16 +75,19 @@ import tardis.implementation.jbse.JBSEResult;
  */
 public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExecutor<JBSEResult, EvosuiteResult> {
     private static final Logger LOGGER = LogManager.getFormatterLogger(PerformerEvosuite.class);
+    private static final String JAVAC_LOG_WRAPPERS = "javac-log-wrappers.txt";
+    private static final String JAVAC_LOG_TESTS = "javac-log-tests.txt";
     
     private final List<List<String>> visibleTargetMethods;
-    private final JavaCompiler compiler;
     private final JBSEResultInputOutputBuffer in;
     private final Options o;
     private final long timeBudgetSeconds;
     private final String classpathEvosuite;
-    private final URL[] classpathTestURLClassLoader;
     private final String classpathCompilationTest;
     private final String classpathCompilationWrapper;
+    private final CompilationService compilationWrappers;
+    private final CompilationService compilationTests;
+    private final EvosuiteWorkerPool workerPool;
     private int testCount;
     private volatile boolean stopForSeeding;
     
@@ -96,8 +98,8 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
     throws NoJavaCompilerException, ClassNotFoundException, MalformedURLException, SecurityException {
     	super("PerformerEvosuite", in, out, o.getNumOfThreadsEvosuite(), o.getNumTargetsEvosuitePerJob(), o.getTimeoutEvosuiteJobCreationDuration() / o.getNumTargetsEvosuitePerJob(), o.getTimeoutEvosuiteJobCreationUnit());
     	this.visibleTargetMethods = getTargets(o);
-        this.compiler = ToolProvider.getSystemJavaCompiler();
-        if (this.compiler == null) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
             throw new NoJavaCompilerException();
         }
         this.in = in;
@@ -105,34 +107,29 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
         this.timeBudgetSeconds = o.getEvosuiteTimeBudgetUnit().toSeconds(o.getEvosuiteTimeBudgetDuration());
         final String classesPathString = String.join(File.pathSeparator, stream(o.getClassesPath()).map(Object::toString).toArray(String[]::new)); 
         this.classpathEvosuite = classesPathString + File.pathSeparator + this.o.getJBSELibraryPath().toString() + File.pathSeparator + this.o.getSushiLibPath().toString();
-        final ArrayList<Path> classpathTestPath = new ArrayList<>(o.getClassesPath());
-        classpathTestPath.add(this.o.getSushiLibPath());
-        classpathTestPath.add(this.o.getTmpBinDirectoryPath());
-        classpathTestPath.add(this.o.getEvosuitePath());
-        try {
-            this.classpathTestURLClassLoader = stream(classpathTestPath).map(PerformerEvosuite::toURL).toArray(URL[]::new);
-        } catch (RuntimeException e) {
-            if (e.getCause() instanceof MalformedURLException) {
-                throw (MalformedURLException) e.getCause();
-            } else {
-                throw e;
-            }
-        }
         this.classpathCompilationTest = this.o.getTmpBinDirectoryPath().toString() + File.pathSeparator + classesPathString + File.pathSeparator + this.o.getJBSELibraryPath().toString() + File.pathSeparator + this.o.getSushiLibPath().toString() + File.pathSeparator + this.o.getEvosuitePath().toString();
         this.classpathCompilationWrapper = classesPathString + File.pathSeparator + this.o.getSushiLibPath().toString();
+        final Path compilationCacheDirectory = (this.o.getCompilationCache() ? this.o.getCompilationCacheDirectoryPath() : null);
+        this.compilationWrappers = new CompilationService(compiler, this.classpathCompilationWrapper, this.o.getTmpBinDirectoryPath(), Arrays.asList("-source", "8", "-target", "8"), this.o.getTmpDirectoryPath().resolve(JAVAC_LOG_WRAPPERS), compilationCacheDirectory);
+        this.compilationTests = new CompilationService(compiler, this.classpathCompilationTest, this.o.getTmpBinDirectoryPath(), Collections.emptyList(), this.o.getTmpTestsDirectoryPath().resolve(JAVAC_LOG_TESTS), compilationCacheDirectory);
+        this.workerPool = (o.getEvosuiteWorkerMaxJobs() == 0 ? null : new EvosuiteWorkerPool(o, o.getNumOfThreadsEvosuite()));
         this.testCount = (o.getInitialTestCase() == null ? 0 : 1);
         this.stopForSeeding = false;
     }
     
-    private static URL toURL(Path path) {
-        try {
-            return path.toUri().toURL();
-        } catch (MalformedURLException e) {
-            LOGGER.error("Internal error while converting path %s to URL", path.toString());
-            throw new RuntimeException(e);
-        }                   
+    @Override
+    protected void onStop() {
+    	if (this.workerPool != null) {
+    		this.workerPool.close();
+    	}
+    	if (this.o.getCompilationCache()) {
+    		LOGGER.info("Compilation cache: %d hits and %d misses for the wrappers, %d hits and %d misses for the tests", 
+    		            this.compilationWrappers.getCacheHits(), this.compilationWrappers.getCacheMisses(), this.compilationTests.getCacheHits(), this.compilationTests.getCacheMisses());
+    	}
+    	this.compilationWrappers.close();
+    	this.compilationTests.close();
     }
-
+    
     @Override
     protected Runnable makeJob(List<JBSEResult> items) {
         while (this.stopForSeeding) ; //ugly spinlocking
@@ -441,6 +438,7 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
         final ArrayList<TestDetector> testDetectors = new ArrayList<>();
         final ArrayList<Thread> threads = new ArrayList<>();
         final ArrayList<Process> processes = new ArrayList<>();
+        final ArrayList<EvosuiteWorkerPool.Job> workerJobs = new ArrayList<>();
         int testCountStart = testCountInitial;
         for (List<JBSEResult> subItems : splitItems) {
             final int testCount = testCountStart; //copy into final variable to keep compiler happy
@@ -449,19 +447,19 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
             //final EvosuiteProcessReport currentReport = new EvosuiteProcessReport(testCount, subItems);
             //LOGGER.info("[generateTestsAndScheduleJBSE] Created a report for test count = %d", testCount);
 
-            //generates and compiles the wrappers
-            final ArrayList<JBSEResult> compiled = new ArrayList<>();
+            //generates the wrappers
+            final ArrayList<JBSEResult> emitted = new ArrayList<>();
+            final ArrayList<Path> emittedPaths = new ArrayList<>();
             int i = testCount;
             for (JBSEResult item : subItems) {
                 try {
-                    emitAndCompileEvoSuiteWrapper(i, item.getInitialState(), item.getPostFrontierState(), item.getStringLiterals(), item.getStringOthers(), item.getForbiddenExpansions());
-                    compiled.add(item);
+                	final EvoSuiteWrapperSource wrapperSource = (item.hasWrapperSource() ? item.getWrapperSource() : 
+                		EvoSuiteWrapperSource.render(item.getInitialState(), item.getPostFrontierState(), item.getStringLiterals(), item.getStringOthers(), item.getForbiddenExpansions()));
+                	emittedPaths.add(emitEvoSuiteWrapper(i, wrapperSource));
+                    emitted.add(item);
                     //currentReport.wrapperNames.add("EvoSuiteWrapper_" + i + ".java");
                     //PerformerEvosuite.evosuiteReport.put(i, currentReport);
                     //LOGGER.info("[generateTestsAndScheduleJBSE] Added EvoSuiteWrapper_%d.java to the report with test count = %d", i, testCount);
-                } catch (CompilationFailedWrapperException e) {
-                    LOGGER.error("Internal error: EvoSuite wrapper %s compilation failed", e.file.toAbsolutePath().toString());
-                    //falls through
                 } catch (IOFileCreationException e) {
                     LOGGER.error("Unexpected I/O error during EvoSuite wrapper creation/compilation while creating file %s", e.file.toAbsolutePath().toString());
                     LOGGER.error("Message: %s", e.toString());
@@ -481,6 +479,27 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
                 }
                 ++i;
             }
+            
+            //compiles the wrappers in one task
+            final ArrayList<JBSEResult> compiled = new ArrayList<>();
+            try {
+            	final List<Path> failed = compileEvoSuiteWrappers(emittedPaths);
+            	for (int k = 0; k < emitted.size(); ++k) {
+            		if (failed.contains(emittedPaths.get(k))) {
+            			LOGGER.error("Internal error: EvoSuite wrapper %s compilation failed", emittedPaths.get(k).toAbsolutePath().toString());
+            		} else {
+            			compiled.add(emitted.get(k));
+            		}
+            	}
+            } catch (IOFileCreationException e) {
+                LOGGER.error("Unexpected I/O error during EvoSuite wrapper compilation while creating file %s", e.file.toAbsolutePath().toString());
+                LOGGER.error("Message: %s", e.toString());
+                LOGGER.error("Stack trace:");
+                for (StackTraceElement elem : e.getStackTrace()) {
+                    LOGGER.error("%s", elem.toString());
+                }
+                //falls through
+            }
 
             //skips to next subitems if failed to compile all
             if (compiled.size() == 0) {
@@ -490,12 +509,23 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
             //builds the EvoSuite command line
             final List<String> evosuiteCommand = buildEvoSuiteCommand(testCount, compiled); 
 
-            //launches EvoSuite
+            //launches EvoSuite, in a process of its own or in a worker
             final Path evosuiteLogFilePath = this.o.getTmpDirectoryPath().resolve("evosuite-log-" + testCount + ".txt");
             final Process evosuiteProcess;
+            final EvosuiteWorkerPool.Job workerJob;
+            final InputStream evosuiteInputStream;
             try {
-                evosuiteProcess = launchProcess(evosuiteCommand);
-                processes.add(evosuiteProcess);
+            	if (this.workerPool == null) {
+            		evosuiteProcess = launchProcess(evosuiteCommand);
+            		workerJob = null;
+            		processes.add(evosuiteProcess);
+            		evosuiteInputStream = evosuiteProcess.getInputStream();
+            	} else {
+            		evosuiteProcess = null;
+            		workerJob = this.workerPool.submit(evosuiteCommand);
+            		workerJobs.add(workerJob);
+            		evosuiteInputStream = workerJob.getInputStream();
+            	}
                 //currentReport.creationTimestamp = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss.SSS").format(new Date());
                 //assert(PerformerEvosuite.evosuiteReport.containsKey(testCount)); 
                 //I don't need to put testCount, since the first wrapper has the same test count
@@ -514,7 +544,7 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
             //launches a thread that waits for tests and schedules 
             //JBSE for exploring them
             try {
-            	final TestDetector tdJBSE = new TestDetector(this, this.o, testCount, subItems, evosuiteProcess.getInputStream(), evosuiteLogFilePath, this.in);
+            	final TestDetector tdJBSE = new TestDetector(this, this.o, testCount, subItems, evosuiteInputStream, evosuiteLogFilePath, this.in);
                 final Thread tJBSE = new Thread(tdJBSE);
                 tJBSE.start();
                 testDetectors.add(tdJBSE);
@@ -528,7 +558,11 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
                 for (StackTraceElement elem : e.getStackTrace()) {
                     LOGGER.error("%s", elem.toString());
                 }
-                evosuiteProcess.destroy();
+                if (evosuiteProcess == null) {
+                	workerJob.destroy();
+                } else {
+                	evosuiteProcess.destroy();
+                }
             }
         }
 
@@ -602,6 +636,24 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
                 }
             }*/
         }
+        
+        //same for worker jobs
+        for (EvosuiteWorkerPool.Job workerJob : workerJobs) {
+        	if (interrupted) {
+        		workerJob.destroy();
+        	} else {
+        		try {
+        			workerJob.waitFor();
+        		} catch (IOException e) {
+        			LOGGER.error("Unexpected I/O error while waiting for an EvoSuite worker job to end");
+        			LOGGER.error("Message: %s", e.toString());
+        			LOGGER.error("Stack trace:");
+        			for (StackTraceElement elem : e.getStackTrace()) {
+        				LOGGER.error("%s", elem.toString());
+        			}
+        		}
+        	}
+        }
     }
 
     /**
@@ -673,46 +725,82 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
      */
     private void emitAndCompileEvoSuiteWrapper(int testCount, State initialState, State finalState, Map<Long, String> stringLiterals, Set<Long> stringOthers, Set<String> forbiddenExpansions) 
     throws FrozenStateException, IOFileCreationException, CompilationFailedWrapperException {
-        final StateFormatterSushiPathCondition fmt = new StateFormatterSushiPathCondition(testCount, () -> initialState, true);
-        fmt.setStringsConstant(stringLiterals);
-        fmt.setStringsNonconstant(stringOthers);
-        if (forbiddenExpansions != null) {
-        	fmt.setForbiddenExpansions(forbiddenExpansions);
+        final EvoSuiteWrapperSource wrapperSource = EvoSuiteWrapperSource.render(initialState, finalState, stringLiterals, stringOthers, forbiddenExpansions);
+        emitAndCompileEvoSuiteWrapper(testCount, wrapperSource);
+    }
+    
+    /**
+     * Emits and compiles an already rendered EvoSuite wrapper.
+     * 
+     * @param testCount an {@code int}, the number used to identify the test.
+     * @param wrapperSource the {@link EvoSuiteWrapperSource} of the wrapper.
+     * @throws IOFileCreationException if some I/O error occurs while creating the wrapper, the directory 
+     *         that must contain it, or the compilation log file.
+     * @throws CompilationFailedWrapperException if the compilation of the wrapper class fails.
+     */
+    private void emitAndCompileEvoSuiteWrapper(int testCount, EvoSuiteWrapperSource wrapperSource) 
+    throws IOFileCreationException, CompilationFailedWrapperException {
+        final Path wrapperFilePath = emitEvoSuiteWrapper(testCount, wrapperSource);
+        if (!compileEvoSuiteWrappers(Collections.singletonList(wrapperFilePath)).isEmpty()) {
+            throw new CompilationFailedWrapperException(wrapperFilePath);
         }
-        fmt.formatPrologue();
-        fmt.formatState(finalState);
-        fmt.formatEpilogue();
-        
-        final Path wrapperFilePath;
-        try { 
-            final String initialCurrentClassName = initialState.getStack().get(0).getMethodClass().getClassName();
-            final int lastSlash = initialCurrentClassName.lastIndexOf('/');
-            final String initialCurrentClassPackageName = (lastSlash == -1 ? "" : initialCurrentClassName.substring(0, lastSlash));
-            final Path wrapperDirectoryPath = this.o.getTmpWrappersDirectoryPath().resolve(initialCurrentClassPackageName);
-            try {
-                Files.createDirectories(wrapperDirectoryPath);
-            } catch (IOException e) {
-                throw new IOFileCreationException(e, wrapperDirectoryPath);
-            }
-            wrapperFilePath = wrapperDirectoryPath.resolve("EvoSuiteWrapper_" + testCount + ".java");
-            try (final BufferedWriter w = Files.newBufferedWriter(wrapperFilePath)) {
-                w.write(fmt.emit());
-            } catch (IOException e) {
-                throw new IOFileCreationException(e, wrapperFilePath);
-            }
-        } finally {
-            fmt.cleanup();
+    }
+    
+    /**
+     * Emits an already rendered EvoSuite wrapper.
+     * 
+     * @param testCount an {@code int}, the number used to identify the test.
+     * @param wrapperSource the {@link EvoSuiteWrapperSource} of the wrapper.
+     * @return the {@link Path} of the source file of the wrapper.
+     * @throws IOFileCreationException if some I/O error occurs while creating the wrapper 
+     *         or the directory that must contain it.
+     */
+    private Path emitEvoSuiteWrapper(int testCount, EvoSuiteWrapperSource wrapperSource) 
+    throws IOFileCreationException {
+        final Path wrapperDirectoryPath = this.o.getTmpWrappersDirectoryPath().resolve(wrapperSource.getPackageName());
+        try {
+            Files.createDirectories(wrapperDirectoryPath);
+        } catch (IOException e) {
+            throw new IOFileCreationException(e, wrapperDirectoryPath);
         }
-
-        final Path javacLogFilePath = this.o.getTmpDirectoryPath().resolve("javac-log-wrapper-" + testCount + ".txt");
-        final String[] javacParameters = { "-cp", this.classpathCompilationWrapper, "-d", this.o.getTmpBinDirectoryPath().toString(), "-source", "8", "-target", "8", wrapperFilePath.toString() };
-        try (final OutputStream w = new BufferedOutputStream(Files.newOutputStream(javacLogFilePath))) {
-            final int success = this.compiler.run(null, w, w, javacParameters);
-            if (success != 0) {
-                throw new CompilationFailedWrapperException(wrapperFilePath);
+        final Path wrapperFilePath = wrapperDirectoryPath.resolve("EvoSuiteWrapper_" + testCount + ".java");
+        try (final BufferedWriter w = Files.newBufferedWriter(wrapperFilePath)) {
+            w.write(wrapperSource.getSource(testCount));
+        } catch (IOException e) {
+            throw new IOFileCreationException(e, wrapperFilePath);
+        }
+        return wrapperFilePath;
+    }
+    
+    /**
+     * Compiles a set of EvoSuite wrappers in one task.
+     * 
+     * @param wrapperFilePaths a {@link List}{@code <}{@link Path}{@code >}, 
+     *        the source files of the wrappers.
+     * @return the {@link List}{@code <}{@link Path}{@code >} of the source 
+     *         files in {@code wrapperFilePaths} whose compilation failed.
+     * @throws IOFileCreationException if some I/O error occurs while writing
+     *         the compilation log file.
+     */
+    private List<Path> compileEvoSuiteWrappers(List<Path> wrapperFilePaths) throws IOFileCreationException {
+        if (wrapperFilePaths.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            final List<Path> failed = this.compilationWrappers.compile(wrapperFilePaths);
+            if (failed.isEmpty() || failed.size() == wrapperFilePaths.size()) {
+                return failed;
             }
+            
+            //javac might not have emitted the class files of
+            //the correct wrappers, thus recompiles them
+            final ArrayList<Path> correct = new ArrayList<>(wrapperFilePaths);
+            correct.removeAll(failed);
+            final ArrayList<Path> retVal = new ArrayList<>(failed);
+            retVal.addAll(this.compilationWrappers.compile(correct));
+            return retVal;
         } catch (IOException e) {
-            throw new IOFileCreationException(e, javacLogFilePath);
+            throw new IOFileCreationException(e, this.o.getTmpDirectoryPath().resolve(JAVAC_LOG_WRAPPERS));
         }
     }
     
@@ -851,19 +939,27 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
     /**
      * Checks that an emitted test class has the {@code test0} method,
      * to filter out the cases where EvoSuite fails but emits the test class.
+     * The check reads the compiled class file and does not load the class, 
+     * that will be loaded by JBSE only if and when it runs the test.
      * 
      * @param className a {@link String}, the name of the test class.
      * @throws NoSuchMethodException if the class {@code className} has not
      *         a {@code void test0()} method.
-     * @throws SecurityException if the method {@code test0} of class 
-     *         {@code className} cannot be accessed. 
-     * @throws NoClassDefFoundError if class {@code className} does not exist.
-     * @throws ClassNotFoundException if class {@code className} does not exist.
+     * @throws ClassNotFoundException if the class file of {@code className} 
+     *         does not exist or cannot be read.
      */
     private void checkTestExists(String className) 
-    throws NoSuchMethodException, SecurityException, NoClassDefFoundError, ClassNotFoundException {
-        final URLClassLoader cloader = URLClassLoader.newInstance(this.classpathTestURLClassLoader); 
-        cloader.loadClass(className.replace('/',  '.')).getDeclaredMethod("test0");
+    throws NoSuchMethodException, ClassNotFoundException {
+        final Path classFile = this.o.getTmpBinDirectoryPath().resolve(className + ".class");
+        final boolean hasTest0;
+        try {
+            hasTest0 = classFileDeclaresMethod(classFile, "test0", "()V");
+        } catch (IOException e) {
+            throw new ClassNotFoundException(className.replace('/', '.'), e);
+        }
+        if (!hasTest0) {
+            throw new NoSuchMethodException(className.replace('/', '.') + ".test0()");
+        }
     }
 
     /**
@@ -897,23 +993,19 @@ public final class PerformerEvosuite extends PerformerPausableFixedThreadPoolExe
             throw new NoTestFileScaffoldingException(testCaseScaff);
         }
 
-        //compiles the generated test
-        final Path javacLogFilePath = this.o.getTmpTestsDirectoryPath().resolve("javac-log-test-" +  testCount + ".txt");
-        final String[] javacParametersTestCase = { "-cp", this.classpathCompilationTest, "-d", this.o.getTmpBinDirectoryPath().toString(), testCase.toString() };
-        try (final OutputStream w = new BufferedOutputStream(Files.newOutputStream(javacLogFilePath))) {
-            if (testCaseScaff != null) {
-                final String[] javacParametersTestScaff = { "-cp", this.classpathCompilationTest, "-d", this.o.getTmpBinDirectoryPath().toString(), testCaseScaff.toString() };
-                final int successTestCaseScaff = this.compiler.run(null, w, w, javacParametersTestScaff);
-                if (successTestCaseScaff != 0) {
-                    throw new CompilationFailedTestScaffoldingException(testCaseScaff);
-                }
-            }
-            final int successTestCase = this.compiler.run(null, w, w, javacParametersTestCase);
-            if (successTestCase != 0) {
-                throw new CompilationFailedTestException(testCase);
-            }
+        //compiles the generated test together with its scaffolding
+        final List<Path> sources = (testCaseScaff == null ? Collections.singletonList(testCase) : Arrays.asList(testCaseScaff, testCase));
+        final List<Path> sourcesFailed;
+        try {
+            sourcesFailed = this.compilationTests.compile(sources);
         } catch (IOException e) {
-            throw new IOFileCreationException(e, javacLogFilePath);
+            throw new IOFileCreationException(e, this.o.getTmpTestsDirectoryPath().resolve(JAVAC_LOG_TESTS));
+        }
+        if (testCaseScaff != null && sourcesFailed.contains(testCaseScaff)) {
+            throw new CompilationFailedTestScaffoldingException(testCaseScaff);
+        }
+        if (!sourcesFailed.isEmpty()) {
+            throw new CompilationFailedTestException(testCase);
         }
 
         //creates the TestCase and schedules it for further exploration
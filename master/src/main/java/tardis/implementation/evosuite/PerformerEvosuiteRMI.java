@@ -2,18 +2,15 @@ package tardis.implementation.evosuite;
 
 import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
 import static shaded.org.evosuite.rmi.UtilsRMI.exportObject;
+import static tardis.implementation.common.Util.classFileDeclaresMethod;
 import static tardis.implementation.common.Util.getTargets;
 import static tardis.implementation.common.Util.stream;
 import static tardis.implementation.common.Util.stringifyPostFrontierPathCondition;
 
-import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -26,12 +23,24 @@ import java.rmi.server.UnicastRemoteObject;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.tools.JavaCompiler;
 import javax.tools.ToolProvider;
@@ -66,12 +75,13 @@ import shaded.org.evosuite.coverage.branch.BranchCoverageTestFitness;
 import shaded.org.evosuite.ga.FitnessFunction;
 import shaded.org.evosuite.rmi.service.EvosuiteRemote;
 import shaded.org.evosuite.rmi.service.TestListenerRemote;
-import sushi.formatters.StateFormatterSushiPathCondition;
 import tardis.Options;
 import tardis.framework.OutputBuffer;
 import tardis.framework.Performer;
+import tardis.implementation.common.CompilationService;
 import tardis.implementation.common.NoJavaCompilerException;
 import tardis.implementation.data.JBSEResultInputOutputBuffer;
+import tardis.implementation.jbse.EvoSuiteWrapperSource;
 import tardis.implementation.jbse.JBSEResult;
 
 /**
@@ -82,39 +92,206 @@ import tardis.implementation.jbse.JBSEResult;
  * @author Pietro Braione
  * @author Lorenzo Benatti
  */
-public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteResult> implements TestListenerRemote {
+public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteResult> {
     private static final Logger LOGGER = LogManager.getFormatterLogger(PerformerEvosuiteRMI.class);
     private static final String TARDIS_RMI_IDENTIFIER = "TARDIS_RMI_IDENTIFIER";
     private static final int RMI_REGISTRY_PORT_BASE = 2000;
     private static final int RMI_REGISTRY_PORT_RANGE = 20000;
+    private static final long REBALANCE_PERIOD_SECONDS = 5;
+    private static final long SUPERVISION_PERIOD_MILLIS = 1000;
+    private static final long STARTUP_TIMEOUT_SECONDS = 120;
+    private static final long RESTART_BACKOFF_BASE_SECONDS = 2;
+    private static final long RESTART_BACKOFF_MAX_SECONDS = 60;
+    private static final String JAVAC_LOG_WRAPPERS = "javac-log-wrappers.txt";
+    private static final String JAVAC_LOG_TESTS = "javac-log-tests.txt";
+    private static final Pattern PATTERN_WRAPPER = Pattern.compile("EvoSuiteWrapper_(\\d+)");
     
-    private final JavaCompiler compiler;
     private final Options o;
 	private final List<List<String>> visibleTargetMethods;
     private final long timeBudgetSeconds;
     private final String classpathEvosuite;
-    private final URL[] classpathTestURLClassLoader;
     private final String classpathCompilationTest;
     private final String classpathCompilationWrapper;
+    private final CompilationService compilationWrappers;
+    private final CompilationService compilationTests;
     private final AtomicInteger testCount = new AtomicInteger(0);
 	private final Map<Integer, JBSEResult> itemsMap = Collections.synchronizedMap(new HashMap<>());
 	private final ArrayList<Process> evosuiteProcesses = new ArrayList<>();
 	private final Map<String, EvosuiteRemote> evosuiteNodes = Collections.synchronizedMap(new HashMap<>());
 	private final Map<String, Integer> evosuiteCapacityCounter = Collections.synchronizedMap(new HashMap<>());
+	private final HashMap<String, NodeStatistics> evosuiteNodeStatistics = new HashMap<>();
+	private final HashMap<Integer, GoalInFlight> goalsInFlight = new HashMap<>();
+	private final HashSet<Integer> goalGroupsSolved = new HashSet<>();
+	private final ScheduledExecutorService rebalancer;
+	private final ThreadPoolExecutor wrapperPreparer;
+	private final AtomicInteger goalsInPreparation = new AtomicInteger(0);
+	private final ThreadPoolExecutor testIngester;
+	private final AtomicInteger testsInIngestion = new AtomicInteger(0);
+	private final ArrayList<EvosuiteNode> evosuiteNodesSupervised = new ArrayList<>();
+	private final ArrayList<GoalInFlight> goalsToRecover = new ArrayList<>();
+	private final long startNanos = System.nanoTime();
+	private List<String> evosuiteCommand = null;
+	private Thread supervisor = null;
 	private Registry registry = null;
     private int registryPort = -1;
-    private boolean terminated = false;
+    private volatile boolean terminated = false;
     private volatile boolean stopUntilFirstEvosuite = true;
     private List<PerformerEvosuiteListener> listeners = new ArrayList<>();
     
+    /**
+     * A path condition goal sent to an EvoSuite node, that
+     * the node did not yet solve or dismiss.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class GoalInFlight {
+    	/** The RMI identifier of the node. */
+    	private final String node;
+    	
+    	/** The goal and the number of its test case. */
+    	private final Pair<JBSEResult, Integer> item;
+    	
+    	/** 
+    	 * The number of the test case of the goal that was
+    	 * originally sent; it is shared by all the copies of 
+    	 * a goal that were reassigned to other nodes. 
+    	 */
+    	private final int group;
+    	
+    	/** When the goal was sent, in nanoseconds. */
+    	private final long sentNanos;
+    	
+    	/** Whether a copy of the goal was reassigned to another node. */
+    	private boolean reassigned = false;
+    	
+    	GoalInFlight(String node, Pair<JBSEResult, Integer> item, int group) {
+    		this.node = node;
+    		this.item = item;
+    		this.group = group;
+    		this.sentNanos = System.nanoTime();
+    	}
+    }
+    
+    /**
+     * The statistics of the goals of an EvoSuite node.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class NodeStatistics {
+    	private int sent = 0;
+    	private int solved = 0;
+    	private int dismissed = 0;
+    	
+    	/**
+    	 * Returns the ratio of the solved goals (Laplace-smoothed,
+    	 * so a node with no history has ratio 1/2).
+    	 * 
+    	 * @return a {@code double}.
+    	 */
+    	double solveRate() {
+    		return (this.solved + 1.0d) / (this.solved + this.dismissed + 2.0d);
+    	}
+    }
+    
+    /**
+     * An EvoSuite process, that is launched, watched and 
+     * relaunched upon crash by the supervisor thread.
+     * A node is down if it has no process, starting if 
+     * it has a process but did not connect back yet, and 
+     * up if it connected back.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class EvosuiteNode {
+    	/** The number of the node. */
+    	private final int index;
+    	
+    	/** 
+    	 * The RMI identifier of the listener of the node, that
+    	 * its processes receive as test_listener_rmi_identifier.
+    	 */
+    	private final String listenerRmiIdentifier;
+    	
+    	/** The listener of the node. */
+    	private EvosuiteNodeListener listener = null;
+    	
+    	/** The process of the node, or {@code null} if the node is down. */
+    	private Process process = null;
+    	
+    	/** The log file of the current process. */
+    	private Path logFilePath = null;
+    	
+    	/** The RMI identifier of the node, or {@code null} if it is not up. */
+    	private String rmiIdentifier = null;
+    	
+    	/** When the current process was launched, in nanoseconds. */
+    	private long launchedNanos = 0;
+    	
+    	/** When the node last gave a sign of life, in nanoseconds. */
+    	private long heartbeatNanos = 0;
+    	
+    	/** The size of the log file when the node last gave a sign of life. */
+    	private long logFileSize = 0;
+    	
+    	/** How many times the node went down. */
+    	private int restarts = 0;
+    	
+    	/** When the node may be (re)launched, in nanoseconds. */
+    	private long relaunchNanos;
+    	
+    	/** Set when the node must not be (re)launched. */
+    	private boolean retired = false;
+    	
+    	EvosuiteNode(int index) {
+    		this.index = index;
+    		this.listenerRmiIdentifier = TARDIS_RMI_IDENTIFIER + "_" + index;
+    		this.relaunchNanos = System.nanoTime();
+    	}
+    }
+    
+    /**
+     * The listener of an EvoSuite node. Every node calls back
+     * its own listener, so a node that connects back is matched
+     * with its process even if many nodes are starting at once.
+     * 
+     * @author Pietro Braione
+     */
+    private final class EvosuiteNodeListener implements TestListenerRemote {
+    	private final EvosuiteNode node;
+    	
+    	EvosuiteNodeListener(EvosuiteNode node) {
+    		this.node = node;
+    	}
+    	
+    	@Override
+    	public void evosuiteServerReady(String evosuiteServerRmiIdentifier) throws RemoteException {
+    		PerformerEvosuiteRMI.this.evosuiteServerReady(this.node, evosuiteServerRmiIdentifier);
+    	}
+    	
+    	@Override
+    	public void generatedTest(String evosuiteServerRmiIdentifier, FitnessFunction<?> goal, String testFileName) throws RemoteException {
+    		PerformerEvosuiteRMI.this.generatedTest(evosuiteServerRmiIdentifier, goal, testFileName);
+    	}
+    	
+    	@Override
+    	public void dismissedFitnessGoal(String evosuiteServerRmiIdentifier, FitnessFunction<?> goal, int iteration, double fitnessValue, int[] updateIterations) throws RemoteException {
+    		PerformerEvosuiteRMI.this.dismissedFitnessGoal(evosuiteServerRmiIdentifier, goal, iteration, fitnessValue, updateIterations);
+    	}
+    	
+    	@Override
+    	public void evosuiteServerShutdown(String evosuiteServerRmiIdentifier) throws RemoteException {
+    		PerformerEvosuiteRMI.this.evosuiteServerShutdown(evosuiteServerRmiIdentifier);
+    	}
+    }
+    
     //public Performer(String name, InputBuffer<I> in, OutputBuffer<O> out, int numTargetsPerJobMax, long timeoutDuration, TimeUnit timeoutTimeUnit) {
 
     public PerformerEvosuiteRMI(Options o, JBSEResultInputOutputBuffer in, OutputBuffer<EvosuiteResult> out) 
     throws NoJavaCompilerException, ClassNotFoundException, MalformedURLException, SecurityException, 
     RemoteException, InterruptedException {
         super("PerformerEvosuiteRMI", in, out, o.getNumTargetsEvosuitePerJob(), o.getTimeoutEvosuiteJobCreationDuration() / o.getNumTargetsEvosuitePerJob(), o.getTimeoutEvosuiteJobCreationUnit());
-        this.compiler = ToolProvider.getSystemJavaCompiler();
-        if (this.compiler == null) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
             throw new NoJavaCompilerException();
         }
         this.o = o;
@@ -122,27 +299,49 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
         this.timeBudgetSeconds = o.getGlobalTimeBudgetUnit().toSeconds(o.getGlobalTimeBudgetDuration()); //EvoSuite must be running for all configured time budget
         final String classesPathString = String.join(File.pathSeparator, stream(o.getClassesPath()).map(Object::toString).toArray(String[]::new)); 
         this.classpathEvosuite = classesPathString + File.pathSeparator + this.o.getJBSELibraryPath().toString() + File.pathSeparator + this.o.getSushiLibPath().toString();
-        final ArrayList<Path> classpathTestPath = new ArrayList<>(o.getClassesPath());
-        classpathTestPath.add(this.o.getSushiLibPath());
-        classpathTestPath.add(this.o.getTmpBinDirectoryPath());
-        classpathTestPath.add(this.o.getEvosuitePath());
-        try {
-            this.classpathTestURLClassLoader = stream(classpathTestPath).map(PerformerEvosuiteRMI::toURL).toArray(URL[]::new);
-        } catch (RuntimeException e) {
-            if (e.getCause() instanceof MalformedURLException) {
-                throw (MalformedURLException) e.getCause();
-            } else {
-                throw e;
-            }
-        }
         this.classpathCompilationTest = this.o.getTmpBinDirectoryPath().toString() + File.pathSeparator + classesPathString + File.pathSeparator + this.o.getJBSELibraryPath().toString() + File.pathSeparator + this.o.getSushiLibPath().toString() + File.pathSeparator + this.o.getEvosuitePath().toString();
         this.classpathCompilationWrapper = classesPathString + File.pathSeparator + this.o.getSushiLibPath().toString();
+        final Path compilationCacheDirectory = (this.o.getCompilationCache() ? this.o.getCompilationCacheDirectoryPath() : null);
+        this.compilationWrappers = new CompilationService(compiler, this.classpathCompilationWrapper, this.o.getTmpBinDirectoryPath(), Arrays.asList("-source", "8", "-target", "8"), this.o.getTmpDirectoryPath().resolve(JAVAC_LOG_WRAPPERS), compilationCacheDirectory);
+        this.compilationTests = new CompilationService(compiler, this.classpathCompilationTest, this.o.getTmpBinDirectoryPath(), Collections.emptyList(), this.o.getTmpTestsDirectoryPath().resolve(JAVAC_LOG_TESTS), compilationCacheDirectory);
+        
+        //the pool that prepares the wrappers; when its queue is full
+        //the dispatcher prepares the wrappers by itself, so it slows down
+        final AtomicInteger wrapperPreparerThreads = new AtomicInteger(0);
+        this.wrapperPreparer = new ThreadPoolExecutor(o.getNumOfThreadsEvosuiteWrappers(), o.getNumOfThreadsEvosuiteWrappers(), 0L, TimeUnit.MILLISECONDS, 
+                                                      new ArrayBlockingQueue<>(o.getNumOfThreadsEvosuiteWrappers() * o.getNumTargetsEvosuitePerJob()), r -> {
+                                                    	  final Thread t = new Thread(r, "PerformerEvosuiteRMI-wrapper-" + wrapperPreparerThreads.getAndIncrement());
+                                                    	  t.setDaemon(true);
+                                                    	  return t;
+                                                      }, new ThreadPoolExecutor.CallerRunsPolicy());
+        
+        //the pool that ingests the tests generated by EvoSuite; its queue
+        //is unbounded because the RMI callbacks must never block
+        final AtomicInteger testIngesterThreads = new AtomicInteger(0);
+        this.testIngester = new ThreadPoolExecutor(o.getNumOfThreadsEvosuiteTests(), o.getNumOfThreadsEvosuiteTests(), 0L, TimeUnit.MILLISECONDS, 
+                                                   new LinkedBlockingQueue<>(), r -> {
+                                                	   final Thread t = new Thread(r, "PerformerEvosuiteRMI-tests-" + testIngesterThreads.getAndIncrement());
+                                                	   t.setDaemon(true);
+                                                	   return t;
+                                                   });
         
         //creates the RMI registry, exports this object and binds it to the registry
         startRMI();
         
         //creates the EvoSuite instances
         createEvosuiteNodes();
+        
+        //periodically reassigns the stalled goals to the idle nodes
+        if (o.getEvosuiteStalledGoalSeconds() > 0) {
+        	this.rebalancer = Executors.newSingleThreadScheduledExecutor(r -> {
+        		final Thread t = new Thread(r, "PerformerEvosuiteRMI-rebalancer");
+        		t.setDaemon(true);
+        		return t;
+        	});
+        	this.rebalancer.scheduleWithFixedDelay(this::reassignStalledGoals, REBALANCE_PERIOD_SECONDS, REBALANCE_PERIOD_SECONDS, TimeUnit.SECONDS);
+        } else {
+        	this.rebalancer = null;
+        }
     }
     
     public void registerListener(PerformerEvosuiteListener l) {
@@ -157,15 +356,6 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
     	}
     }
     
-    private static URL toURL(Path path) {
-        try {
-            return path.toUri().toURL();
-        } catch (MalformedURLException e) {
-            LOGGER.error("Internal error while converting path %s to URL", path.toString());
-            throw new RuntimeException(e);
-        }                   
-    }
-
 	private void startRMI() throws RemoteException {
 		final int port = RMI_REGISTRY_PORT_BASE + ThreadLocalRandom.current().nextInt(RMI_REGISTRY_PORT_RANGE);
 		final int attempts = 100;
@@ -184,22 +374,205 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
 			throw exc;
 		}
 		LOGGER.info("Started RMI registry on port %d", this.registryPort);
-		
-		final TestListenerRemote stub = (TestListenerRemote) exportObject(this);
-		this.registry.rebind(TARDIS_RMI_IDENTIFIER, stub);
-		LOGGER.info("PerformerEvosuiteRMI exported and bound to RMI registry");
 	}
 	
-	private void createEvosuiteNodes() throws ClassNotFoundException, MalformedURLException, SecurityException, InterruptedException {
-        final List<String> evosuiteCommand = buildEvoSuiteCommand(); 
+	private void createEvosuiteNodes() throws ClassNotFoundException, MalformedURLException, SecurityException, RemoteException, InterruptedException {
+        this.evosuiteCommand = buildEvoSuiteCommand(); 
+        
+        //exports the listeners of the nodes and binds them to the registry
         for (int i = 0; i < this.o.getNumOfThreadsEvosuite(); ++i) {
-            final Path evosuiteLogFilePath = this.o.getTmpDirectoryPath().resolve("evosuite-log-" + i + ".txt");
-        	launchEvosuite(evosuiteCommand, evosuiteLogFilePath);
+        	final EvosuiteNode node = new EvosuiteNode(i);
+        	node.listener = new EvosuiteNodeListener(node);
+        	final TestListenerRemote stub = (TestListenerRemote) exportObject(node.listener);
+        	this.registry.rebind(node.listenerRmiIdentifier, stub);
+        	this.evosuiteNodesSupervised.add(node);
         }
+        LOGGER.info("Listeners of %d Evosuite nodes exported and bound to RMI registry", this.evosuiteNodesSupervised.size());
+        
+        //the supervisor launches the nodes
+        this.supervisor = new Thread(this::superviseEvosuiteNodes, "PerformerEvosuiteRMI-supervisor");
+        this.supervisor.setDaemon(true);
+        this.supervisor.start();
         
         //waits for at least one EvoSuite instance to connect back
         //(ugly spinlock)
-        while (this.stopUntilFirstEvosuite) ;
+        while (this.stopUntilFirstEvosuite && !this.terminated) ;
+	}
+	
+	/**
+	 * The body of the supervisor thread. It launches all the EvoSuite 
+	 * nodes at once; every node calls back its own listener, so it is
+	 * matched with its process. Then it watches the nodes: A node is considered 
+	 * crashed when its process dies, and hung when it neither writes to
+	 * its log file nor invokes this performer for too long. A crashed 
+	 * or hung node is killed and relaunched with exponential backoff, 
+	 * and its goals in flight are sent again to the nodes that are up.
+	 */
+	private void superviseEvosuiteNodes() {
+		try {
+			while (!this.terminated) {
+				final Map<String, List<Pair<JBSEResult, Integer>>> recovered = superviseEvosuiteNodesStep();
+				for (Map.Entry<String, List<Pair<JBSEResult, Integer>>> e : recovered.entrySet()) {
+					LOGGER.info("Sending %d goals of crashed Evosuite servers to Evosuite server %s", e.getValue().size(), e.getKey());
+					sendGoalsToEvosuite(e.getKey(), e.getValue());
+				}
+				Thread.sleep(SUPERVISION_PERIOD_MILLIS);
+			}
+		} catch (InterruptedException e) {
+			//stopped
+		}
+	}
+	
+	private synchronized Map<String, List<Pair<JBSEResult, Integer>>> superviseEvosuiteNodesStep() {
+		final long now = System.nanoTime();
+		final long hangNanos = TimeUnit.SECONDS.toNanos(this.o.getEvosuiteNodeHangSeconds());
+		
+		//detects the crashed and hung nodes
+		for (EvosuiteNode node : this.evosuiteNodesSupervised) {
+			if (node.retired || node.process == null) {
+				continue;
+			}
+			if (!node.process.isAlive()) {
+				LOGGER.error("Evosuite process %d (RMI identifier %s) crashed with exit value %d, see log file %s", node.index, node.rmiIdentifier, node.process.exitValue(), node.logFilePath.toString());
+				evosuiteNodeDown(node, now);
+			} else if (node.rmiIdentifier == null) {
+				if (now - node.launchedNanos > TimeUnit.SECONDS.toNanos(STARTUP_TIMEOUT_SECONDS)) {
+					LOGGER.error("Evosuite process %d did not connect back in %d seconds, killing it", node.index, STARTUP_TIMEOUT_SECONDS);
+					node.process.destroyForcibly();
+					evosuiteNodeDown(node, now);
+				}
+			} else if (hangNanos > 0) {
+				final long logFileSize = node.logFilePath.toFile().length();
+				if (logFileSize != node.logFileSize) {
+					node.logFileSize = logFileSize;
+					node.heartbeatNanos = now;
+				} else if (now - node.heartbeatNanos > hangNanos) {
+					LOGGER.error("Evosuite process %d (RMI identifier %s) gave no sign of life for %d seconds, killing it", node.index, node.rmiIdentifier, this.o.getEvosuiteNodeHangSeconds());
+					node.process.destroyForcibly();
+					evosuiteNodeDown(node, now);
+				}
+			}
+		}
+		
+		//(re)launches all the nodes that are down and 
+		//whose backoff expired
+		for (EvosuiteNode node : this.evosuiteNodesSupervised) {
+			if (!node.retired && node.process == null && now >= node.relaunchNanos) {
+				launchEvosuiteNode(node, now);
+			}
+		}
+		
+		checkAllEvosuiteTerminated();
+		
+		//allocates the goals of the crashed nodes to the nodes that are up
+		if (this.terminated || this.evosuiteNodes.isEmpty() || this.goalsToRecover.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		final ArrayList<Pair<JBSEResult, Integer>> items = new ArrayList<>();
+		final ArrayList<Integer> groups = new ArrayList<>();
+		for (GoalInFlight g : this.goalsToRecover) {
+			if (!this.goalGroupsSolved.contains(g.group)) {
+				items.add(g.item);
+				groups.add(g.group);
+			}
+		}
+		this.goalsToRecover.clear();
+		return allocateGoalsToEvosuiteNodes(items, groups);
+	}
+	
+	private long remainingBudgetSeconds() {
+		return this.timeBudgetSeconds - TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - this.startNanos);
+	}
+	
+	private void launchEvosuiteNode(EvosuiteNode node, long now) {
+		//a relaunched node must end with the others
+		final long remainingBudgetSeconds = remainingBudgetSeconds();
+		if (remainingBudgetSeconds <= 0) {
+			node.retired = true;
+			return;
+		}
+		final ArrayList<String> command = new ArrayList<>(this.evosuiteCommand);
+		command.replaceAll(arg -> (arg.startsWith("-Dsearch_budget=") ? "-Dsearch_budget=" + remainingBudgetSeconds : 
+		                           arg.startsWith("-Dtest_listener_rmi_identifier=") ? "-Dtest_listener_rmi_identifier=" + node.listenerRmiIdentifier : arg));
+		
+		//preserves the log files of the crashed processes
+		node.logFilePath = this.o.getTmpDirectoryPath().resolve("evosuite-log-" + node.index + (node.restarts == 0 ? "" : "-" + node.restarts) + ".txt");
+		node.process = launchEvosuite(command, node.logFilePath);
+		if (node.process == null) {
+			evosuiteNodeDown(node, now);
+		} else {
+			node.launchedNanos = now;
+			node.heartbeatNanos = now;
+			node.logFileSize = 0;
+		}
+	}
+	
+	private void evosuiteNodeDown(EvosuiteNode node, long now) {
+		final String rmiIdentifier = node.rmiIdentifier;
+		node.process = null;
+		node.rmiIdentifier = null;
+		if (rmiIdentifier != null) {
+			this.evosuiteNodes.remove(rmiIdentifier);
+			this.evosuiteCapacityCounter.remove(rmiIdentifier);
+			
+			//the goals in flight on the node must be recovered
+			for (Iterator<GoalInFlight> it = this.goalsInFlight.values().iterator(); it.hasNext(); ) {
+				final GoalInFlight g = it.next();
+				if (g.node.equals(rmiIdentifier)) {
+					it.remove();
+					if (!this.goalGroupsSolved.contains(g.group)) {
+						this.goalsToRecover.add(g);
+					}
+				}
+			}
+		}
+		if (node.restarts >= this.o.getEvosuiteNodeMaxRestarts() || remainingBudgetSeconds() <= 0) {
+			node.retired = true;
+			LOGGER.error("Evosuite process %d will not be relaunched", node.index);
+		} else {
+			final long backoffSeconds = Math.min(RESTART_BACKOFF_MAX_SECONDS, RESTART_BACKOFF_BASE_SECONDS << node.restarts);
+			++node.restarts;
+			node.relaunchNanos = now + TimeUnit.SECONDS.toNanos(backoffSeconds);
+			LOGGER.info("Evosuite process %d will be relaunched in %d seconds", node.index, backoffSeconds);
+		}
+	}
+	
+	private EvosuiteNode findEvosuiteNode(String evosuiteServerRmiIdentifier) {
+		for (EvosuiteNode node : this.evosuiteNodesSupervised) {
+			if (evosuiteServerRmiIdentifier.equals(node.rmiIdentifier)) {
+				return node;
+			}
+		}
+		return null;
+	}
+	
+	private void heartbeat(String evosuiteServerRmiIdentifier) {
+		final EvosuiteNode node = findEvosuiteNode(evosuiteServerRmiIdentifier);
+		if (node != null) {
+			node.heartbeatNanos = System.nanoTime();
+		}
+	}
+	
+	private void releaseCapacity(String evosuiteServerRmiIdentifier) {
+		//the node might have been declared down
+		final Integer old = this.evosuiteCapacityCounter.get(evosuiteServerRmiIdentifier);
+		if (old != null) {
+			this.evosuiteCapacityCounter.put(evosuiteServerRmiIdentifier, Integer.valueOf(old + 1));
+		}
+	}
+	
+	private void checkAllEvosuiteTerminated() {
+		if (this.terminated || !this.evosuiteNodes.isEmpty()) {
+			return;
+		}
+		for (EvosuiteNode node : this.evosuiteNodesSupervised) {
+			if (!node.retired) {
+				return;
+			}
+		}
+		LOGGER.info("All Evosuite servers down");
+		this.terminated = true;
+		this.notifyAllEvosuiteTerminated();
 	}
     
     /**
@@ -278,7 +651,7 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
         retVal.add("-Dalgorithm=DYNAMOSA");
         retVal.add("-generateMOSuite");
         retVal.add("-Dexternal_rmi_registry_port=" + this.registryPort);
-        retVal.add("-Dtest_listener_rmi_identifier=" + TARDIS_RMI_IDENTIFIER);
+        retVal.add("-Dtest_listener_rmi_identifier=" + TARDIS_RMI_IDENTIFIER); //each node gets the identifier of its own listener
         retVal.add("-Dinjected_path_conditions_checking_rate=50");
         retVal.add("-Ddismiss_path_conditions_no_improve_iterations=" + this.o.getMaxEvosuiteItersPerPathCondition());
         retVal.add("-Dcriterion=PATHCONDITION:BRANCH");             
@@ -289,10 +662,12 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
         return retVal;
     }
     
-    private void launchEvosuite(final List<String> evosuiteCommand, Path evosuiteLogFilePath) {
+    private Process launchEvosuite(final List<String> evosuiteCommand, Path evosuiteLogFilePath) {
         try {
-            this.evosuiteProcesses.add(launchProcess(evosuiteCommand, evosuiteLogFilePath));
+        	final Process process = launchProcess(evosuiteCommand, evosuiteLogFilePath);
+            this.evosuiteProcesses.add(process);
             LOGGER.info("Launched EvoSuite process, command line: %s", evosuiteCommand.stream().reduce("", (s1, s2) -> { return s1 + " " + s2; }));
+            return process;
         } catch (IOException e) {
             LOGGER.error("Unexpected I/O error while running EvoSuite process");
             LOGGER.error("Message: %s", e.toString());
@@ -300,6 +675,7 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
             for (StackTraceElement elem : e.getStackTrace()) {
                 LOGGER.error("%s", elem.toString());
             }
+            return null;
         }
 	}
 
@@ -321,33 +697,93 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
 
     @Override
     protected void executeJob(List<JBSEResult> items) {
-    	ArrayList<Pair<JBSEResult, Integer>> compiled = generateWrappers(items);
-    	String workerKey = allocateGoalsToSomeEvosuite(compiled);
+    	//prepares the goals in parallel, by splitting them in one
+    	//chunk per preparer thread so the wrappers of a chunk are
+    	//compiled in one javac task, and sends the goals of a chunk
+    	//to EvoSuite as soon as their wrappers are compiled
+    	this.goalsInPreparation.addAndGet(items.size());
+    	final int numChunks = Math.min(items.size(), this.o.getNumOfThreadsEvosuiteWrappers());
+    	for (int i = 0; i < numChunks; ++i) {
+    		final List<JBSEResult> chunk = items.subList(i * items.size() / numChunks, (i + 1) * items.size() / numChunks);
+    		this.wrapperPreparer.execute(() -> {
+    			try {
+    				prepareAndSendGoals(chunk);
+    			} finally {
+    				this.goalsInPreparation.addAndGet(-chunk.size());
+    			}
+    		});
+    	}
+    }
+    
+    /**
+     * Generates the wrappers for a list of {@link JBSEResult}s, 
+     * and sends them as goals to the EvoSuite instances.
+     * 
+     * @param items a {@link List}{@code <}{@link JBSEResult}{@code >}.
+     */
+    private void prepareAndSendGoals(List<JBSEResult> items) {
+    	final ArrayList<Pair<JBSEResult, Integer>> compiled = generateWrappers(items);
+    	final Map<String, List<Pair<JBSEResult, Integer>>> allocation = allocateGoalsToEvosuiteNodes(compiled, null);
     	if (this.terminated) {
     		LOGGER.info("All Evosuite instances terminated, Evosuite job ignored");
-    	} else if (workerKey != null) {
-    		sendGoalsToEvosuite(workerKey, compiled);
+    	} else {
+    		for (Map.Entry<String, List<Pair<JBSEResult, Integer>>> e : allocation.entrySet()) {
+    			sendGoalsToEvosuite(e.getKey(), e.getValue());
+    		}
     	}
     }
     
     @Override
     protected void onStop() {
-		for (Process process : this.evosuiteProcesses) {
+    	this.wrapperPreparer.shutdownNow();
+    	if (this.rebalancer != null) {
+    		this.rebalancer.shutdownNow();
+    	}
+    	if (this.supervisor != null) {
+    		this.supervisor.interrupt();
+    	}
+    	synchronized (this) {
+    		for (Map.Entry<String, NodeStatistics> e : this.evosuiteNodeStatistics.entrySet()) {
+    			final NodeStatistics stats = e.getValue();
+    			LOGGER.info("Evosuite server %s: %d goals sent, %d solved, %d dismissed", e.getKey(), stats.sent, stats.solved, stats.dismissed);
+    		}
+    	}
+		final ArrayList<Process> processes;
+		synchronized (this) {
+			processes = new ArrayList<>(this.evosuiteProcesses);
+		}
+		for (Process process : processes) {
 			try {
 				process.waitFor();
 			} catch (InterruptedException e) {
 				//nevermind and continue
 			}
 		}
+		
+		//ingests the tests still in the queue
+		this.testIngester.shutdown();
 		try {
-			this.registry.unbind(TARDIS_RMI_IDENTIFIER);
-		} catch (RemoteException | NotBoundException e) {
-			//just ignore
+			this.testIngester.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+		} catch (InterruptedException e) {
+			//nevermind and continue
 		}
-		try {
-			UnicastRemoteObject.unexportObject(this, false);
-		} catch (NoSuchObjectException e) {
-			//just ignore
+		if (this.o.getCompilationCache()) {
+			LOGGER.info("Compilation cache: %d hits and %d misses for the wrappers, %d hits and %d misses for the tests", 
+			            this.compilationWrappers.getCacheHits(), this.compilationWrappers.getCacheMisses(), this.compilationTests.getCacheHits(), this.compilationTests.getCacheMisses());
+		}
+		this.compilationWrappers.close();
+		this.compilationTests.close();
+		for (EvosuiteNode node : this.evosuiteNodesSupervised) {
+			try {
+				this.registry.unbind(node.listenerRmiIdentifier);
+			} catch (RemoteException | NotBoundException e) {
+				//just ignore
+			}
+			try {
+				UnicastRemoteObject.unexportObject(node.listener, false);
+			} catch (NoSuchObjectException e) {
+				//just ignore
+			}
 		}
     }
     
@@ -357,21 +793,33 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
     	for (Map.Entry<String, Integer> e : this.evosuiteCapacityCounter.entrySet()) {
     		availableCapacity += e.getValue();
     	}
+    	
+    	//the goals whose wrappers are in preparation will take capacity
+    	availableCapacity -= this.goalsInPreparation.get();
     	return availableCapacity >= numTargets * this.o.getThrottleFactorEvosuite();
     }
     
     @Override
     protected final boolean areWorkersIdle() {
-    	return this.terminated;
+    	return this.terminated && this.testsInIngestion.get() == 0;
     }    
 
-    @Override
-	public synchronized void evosuiteServerReady(String evosuiteServerRmiIdentifier) throws RemoteException {
-		LOGGER.info("Evosuite server is ready, RMI identifier is %s", evosuiteServerRmiIdentifier);
+	private synchronized void evosuiteServerReady(EvosuiteNode node, String evosuiteServerRmiIdentifier) throws RemoteException {
+		LOGGER.info("Evosuite process %d is ready, RMI identifier is %s", node.index, evosuiteServerRmiIdentifier);
+		
+		//matches the node with its process, unless the
+		//process was meanwhile declared down
+		if (node.retired || node.process == null || node.rmiIdentifier != null) {
+			LOGGER.warn("Evosuite process %d with RMI identifier %s connected back when not starting, ignored", node.index, evosuiteServerRmiIdentifier);
+			return;
+		}
+		node.rmiIdentifier = evosuiteServerRmiIdentifier;
+		node.heartbeatNanos = System.nanoTime();
 		try {
 			final EvosuiteRemote remote = (EvosuiteRemote) this.registry.lookup(evosuiteServerRmiIdentifier);
 			this.evosuiteNodes.put(evosuiteServerRmiIdentifier, remote);
-			this.evosuiteCapacityCounter.put(evosuiteServerRmiIdentifier, Integer.valueOf(this.o.getNumTargetsEvosuitePerJob() + this.o.getNumTargetsEvosuiteOverloaded()));
+			this.evosuiteCapacityCounter.put(evosuiteServerRmiIdentifier, Integer.valueOf(nodeCapacity()));
+			this.evosuiteNodeStatistics.putIfAbsent(evosuiteServerRmiIdentifier, new NodeStatistics());
 			
 			//at least one EvoSuite server is ready: unlock spinlock
 			this.stopUntilFirstEvosuite = false;
@@ -386,12 +834,61 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
 		LOGGER.info("Connected to Evosuite process with RMI identifier %s", evosuiteServerRmiIdentifier);
 	}
     
-	@Override
-	public synchronized void generatedTest(String evosuiteServerRmiIdentifier, FitnessFunction<?> goal, String testFileName) throws RemoteException {
+	private void generatedTest(String evosuiteServerRmiIdentifier, FitnessFunction<?> goal, String testFileName) throws RemoteException {
 		LOGGER.info("Evosuite server communicated new test %s for goal %s", testFileName, goal);
 		
+		//does the bookkeeping
+		final Integer testCount;
+		synchronized (this) {
+			heartbeat(evosuiteServerRmiIdentifier);
+			if (goal instanceof BranchCoverageTestFitness) {
+				testCount = null;
+			} else {
+				//the goal is a path condition
+				releaseCapacity(evosuiteServerRmiIdentifier);
+				final String[] testFileNameSplit = testFileName.split("_");
+				testCount = Integer.valueOf(testFileNameSplit[testFileNameSplit.length - 2]);
+				final NodeStatistics stats = this.evosuiteNodeStatistics.get(evosuiteServerRmiIdentifier);
+				if (stats != null) {
+					++stats.solved;
+				}
+
+				//if another node already solved a copy of the 
+				//goal, the test case is a duplicate
+				final GoalInFlight goalInFlight = this.goalsInFlight.remove(testCount);
+				final int group = (goalInFlight == null ? testCount.intValue() : goalInFlight.group);
+				if (!this.goalGroupsSolved.add(group)) {
+					LOGGER.info("Test %s is for a goal already solved by another Evosuite server, ignored", testFileName);
+					return;
+				}
+			}
+		}
+		
+		//splits, compiles and checks the test asynchronously,
+		//so EvoSuite does not wait for it
+		this.testsInIngestion.incrementAndGet();
+		this.testIngester.execute(() -> {
+			try {
+				ingestTest(testFileName, testCount);
+			} finally {
+				this.testsInIngestion.decrementAndGet();
+			}
+		});
+	}
+	
+	/**
+	 * Ingests a test generated by EvoSuite by (possibly) splitting it,
+	 * compiling it, checking it and scheduling JBSE on it. 
+	 * 
+	 * @param testFileName a {@link String}, the name of the file of the test.
+	 * @param testCount an {@link Integer}, the number of the test if it was 
+	 *        generated for a path condition goal, or {@code null} if it
+	 *        was generated for a branch goal (in which case the test
+	 *        is split).
+	 */
+	private void ingestTest(String testFileName, Integer testCount) {
     	final List<Pair<JBSEResult, Integer>> items;
-		if (goal instanceof BranchCoverageTestFitness) {
+		if (testCount == null) {
 			//the goal is a branch, i.e., no path condition:
 	    	//splits the test
     		final String targetClass = (this.o.getTargetClass() == null ? this.o.getTargetMethod().get(0) : this.o.getTargetClass());
@@ -423,10 +920,6 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
 	    	}
 		} else {
 			//the goal is a path condition
-			final int old = this.evosuiteCapacityCounter.get(evosuiteServerRmiIdentifier);  
-			this.evosuiteCapacityCounter.put(evosuiteServerRmiIdentifier, Integer.valueOf(old + 1));
-			final String[] testFileNameSplit = testFileName.split("_");
-			final int testCount = Integer.parseInt(testFileNameSplit[testFileNameSplit.length - 2]);
 			final JBSEResult jbseResult = this.itemsMap.get(testCount);
 			items = Collections.singletonList(new Pair<>(jbseResult, testCount));
 		}
@@ -470,24 +963,34 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
     	}
 	}
 
-	@Override
-	public synchronized void dismissedFitnessGoal(String evosuiteServerRmiIdentifier, FitnessFunction<?> goal, int iteration, double fitnessValue, int[] updateIterations) throws RemoteException {
+	private synchronized void dismissedFitnessGoal(String evosuiteServerRmiIdentifier, FitnessFunction<?> goal, int iteration, double fitnessValue, int[] updateIterations) throws RemoteException {
 		LOGGER.info("Evosuite server %s communicated dismissed goal %s, iteration is %d, fitness is %f, with updates at iterations %s", evosuiteServerRmiIdentifier, goal, iteration, fitnessValue, Arrays.toString(updateIterations));
-		final int old = this.evosuiteCapacityCounter.get(evosuiteServerRmiIdentifier);  
-		this.evosuiteCapacityCounter.put(evosuiteServerRmiIdentifier, Integer.valueOf(old + 1));
+		heartbeat(evosuiteServerRmiIdentifier);
+		releaseCapacity(evosuiteServerRmiIdentifier);
+		final NodeStatistics stats = this.evosuiteNodeStatistics.get(evosuiteServerRmiIdentifier);
+		if (stats != null) {
+			++stats.dismissed;
+		}
+		
+		//the goal is no longer in flight (if it is identifiable)
+		final Matcher matcherWrapper = PATTERN_WRAPPER.matcher(goal.toString());
+		if (matcherWrapper.find()) {
+			this.goalsInFlight.remove(Integer.parseInt(matcherWrapper.group(1)));
+		}
 	}
 	
 
-	@Override
-	public synchronized void evosuiteServerShutdown(String evosuiteServerRmiIdentifier) throws RemoteException {
+	private synchronized void evosuiteServerShutdown(String evosuiteServerRmiIdentifier) throws RemoteException {
 		LOGGER.info("Evosuite server %s communicated shutdown", evosuiteServerRmiIdentifier);
 		this.evosuiteNodes.remove(evosuiteServerRmiIdentifier);
-		this.evosuiteCapacityCounter.put(evosuiteServerRmiIdentifier, Integer.valueOf(this.o.getNumTargetsEvosuitePerJob() + this.o.getNumTargetsEvosuiteOverloaded()));//TODO: Check with Pietro
-		if (this.evosuiteNodes.isEmpty()) {
-			LOGGER.info("All Evosuite servers down");
-			this.terminated = true;
-			this.notifyAllEvosuiteTerminated();
+		this.evosuiteCapacityCounter.put(evosuiteServerRmiIdentifier, Integer.valueOf(nodeCapacity()));//TODO: Check with Pietro
+		
+		//an orderly shut down node must not be relaunched
+		final EvosuiteNode node = findEvosuiteNode(evosuiteServerRmiIdentifier);
+		if (node != null) {
+			node.retired = true;
 		}
+		checkAllEvosuiteTerminated();
 	}
 
     /**
@@ -522,23 +1025,19 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
         }
         
 
-        //compiles the generated test
-        final Path javacLogFilePath = this.o.getTmpTestsDirectoryPath().resolve("javac-log-test-" +  testCount + ".txt");
-        final String[] javacParametersTestCase = { "-cp", this.classpathCompilationTest, "-d", this.o.getTmpBinDirectoryPath().toString(), testCase.toString() };
-        try (final OutputStream w = new BufferedOutputStream(Files.newOutputStream(javacLogFilePath))) {
-            if (testCaseScaff != null) {
-                final String[] javacParametersTestScaff = { "-cp", this.classpathCompilationTest, "-d", this.o.getTmpBinDirectoryPath().toString(), testCaseScaff.toString() };
-                final int successTestCaseScaff = this.compiler.run(null, w, w, javacParametersTestScaff);
-                if (successTestCaseScaff != 0) {
-                    throw new CompilationFailedTestScaffoldingException(testCaseScaff);
-                }
-            }
-            final int successTestCase = this.compiler.run(null, w, w, javacParametersTestCase);
-            if (successTestCase != 0) {
-                throw new CompilationFailedTestException(testCase);
-            }
+        //compiles the generated test together with its scaffolding
+        final List<Path> sources = (testCaseScaff == null ? Collections.singletonList(testCase) : Arrays.asList(testCaseScaff, testCase));
+        final List<Path> sourcesFailed;
+        try {
+            sourcesFailed = this.compilationTests.compile(sources);
         } catch (IOException e) {
-            throw new IOFileCreationException(e, javacLogFilePath);
+            throw new IOFileCreationException(e, this.o.getTmpTestsDirectoryPath().resolve(JAVAC_LOG_TESTS));
+        }
+        if (testCaseScaff != null && sourcesFailed.contains(testCaseScaff)) {
+            throw new CompilationFailedTestScaffoldingException(testCaseScaff);
+        }
+        if (!sourcesFailed.isEmpty()) {
+            throw new CompilationFailedTestException(testCase);
         }
         
 
@@ -579,19 +1078,27 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
     /**
      * Checks that an emitted test class has the {@code test0} method,
      * to filter out the cases where EvoSuite fails but emits the test class.
+     * The check reads the compiled class file and does not load the class, 
+     * that will be loaded by JBSE only if and when it runs the test.
      * 
      * @param className a {@link String}, the name of the test class.
      * @throws NoSuchMethodException if the class {@code className} has not
      *         a {@code void test0()} method.
-     * @throws SecurityException if the method {@code test0} of class 
-     *         {@code className} cannot be accessed. 
-     * @throws NoClassDefFoundError if class {@code className} does not exist.
-     * @throws ClassNotFoundException if class {@code className} does not exist.
+     * @throws ClassNotFoundException if the class file of {@code className} 
+     *         does not exist or cannot be read.
      */
     private void checkTestExists(String className) 
-    throws NoSuchMethodException, SecurityException, NoClassDefFoundError, ClassNotFoundException {
-        final URLClassLoader cloader = URLClassLoader.newInstance(this.classpathTestURLClassLoader); 
-        cloader.loadClass(className.replace('/',  '.')).getDeclaredMethod("test0");
+    throws NoSuchMethodException, ClassNotFoundException {
+        final Path classFile = this.o.getTmpBinDirectoryPath().resolve(className + ".class");
+        final boolean hasTest0;
+        try {
+            hasTest0 = classFileDeclaresMethod(classFile, "test0", "()V");
+        } catch (IOException e) {
+            throw new ClassNotFoundException(className.replace('/', '.'), e);
+        }
+        if (!hasTest0) {
+            throw new NoSuchMethodException(className.replace('/', '.') + ".test0()");
+        }
     }
     
     /**
@@ -603,25 +1110,20 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
      *        where each {@link JBSEResult} is the result of symbolic execution.
      */
     private ArrayList<Pair<JBSEResult, Integer>> generateWrappers(List<JBSEResult> items) {
-    	//generates and compiles the wrappers
-    	final ArrayList<Pair<JBSEResult, Integer>> compiled = new ArrayList<>();
+    	//emits the wrappers
+    	final ArrayList<Pair<JBSEResult, Integer>> emitted = new ArrayList<>();
+    	final ArrayList<Path> wrapperFilePaths = new ArrayList<>();
         for (JBSEResult item : items) {
             final int testCount = this.testCount.getAndIncrement();
             try {
-            	//emits and compiles the wrapper
             	if (item.isSeed()) {
-            		emitAndCompileEvoSuiteWrapperSeed(testCount, item.getTargetMethodClassName(), item.getTargetMethodDescriptor(), item.getTargetMethodName());
+            		wrapperFilePaths.add(emitEvoSuiteWrapperSeed(testCount, item.getTargetMethodClassName(), item.getTargetMethodDescriptor(), item.getTargetMethodName()));
+            	} else if (item.hasWrapperSource()) {
+            		wrapperFilePaths.add(emitEvoSuiteWrapper(testCount, item.getWrapperSource()));
             	} else {
-            		emitAndCompileEvoSuiteWrapper(testCount, item.getInitialState(), item.getPostFrontierState(), item.getStringLiterals(), item.getStringOthers(), item.getForbiddenExpansions());
+            		wrapperFilePaths.add(emitEvoSuiteWrapper(testCount, item.getInitialState(), item.getPostFrontierState(), item.getStringLiterals(), item.getStringOthers(), item.getForbiddenExpansions()));
             	}
-            	
-            	//if emitting the wrapper had success, adds the item to
-            	//the list of the compiled items
-                compiled.add(new Pair<>(item, testCount));
-                this.itemsMap.put(testCount, item);
-            } catch (CompilationFailedWrapperException e) {
-                LOGGER.error("Internal error: EvoSuite wrapper %s compilation failed", e.file.toAbsolutePath().toString());
-                //falls through
+                emitted.add(new Pair<>(item, testCount));
             } catch (IOFileCreationException e) {
                 LOGGER.error("Unexpected I/O error during EvoSuite wrapper creation/compilation while creating file %s", e.file.toAbsolutePath().toString());
                 LOGGER.error("Message: %s", e.toString());
@@ -641,11 +1143,39 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
             }
         }
         
+        //compiles the wrappers in one task
+        final List<Path> failed;
+        try {
+        	failed = compileEvoSuiteWrappers(wrapperFilePaths);
+        } catch (IOFileCreationException e) {
+            LOGGER.error("Unexpected I/O error during EvoSuite wrapper creation/compilation while creating file %s", e.file.toAbsolutePath().toString());
+            LOGGER.error("Message: %s", e.toString());
+            LOGGER.error("Stack trace:");
+            for (StackTraceElement elem : e.getStackTrace()) {
+                LOGGER.error("%s", elem.toString());
+            }
+            return new ArrayList<>();
+        }
+        
+        //adds the items whose wrapper was compiled with
+        //success to the list of the compiled items
+    	final ArrayList<Pair<JBSEResult, Integer>> compiled = new ArrayList<>();
+        for (int i = 0; i < emitted.size(); ++i) {
+        	final Path wrapperFilePath = wrapperFilePaths.get(i);
+        	if (failed.contains(wrapperFilePath)) {
+                LOGGER.error("Internal error: EvoSuite wrapper %s compilation failed", wrapperFilePath.toAbsolutePath().toString());
+        	} else {
+        		final Pair<JBSEResult, Integer> item = emitted.get(i);
+        		compiled.add(item);
+        		this.itemsMap.put(item.second(), item.first());
+        	}
+        }
+        
         return compiled;
     }
 
     /**
-     * Emits and compiles the EvoSuite wrapper for the path condition of some state
+     * Emits the EvoSuite wrapper for the path condition of some state
      * (only for seed tests, and in the case the target is a method).
      * 
      * @param testCount an {@code int}, the number used to identify the test.
@@ -655,14 +1185,14 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
      *        of the target method.
      * @param targetMethodName a {@link String}, the name of 
      *        the target method.
-     * @throws IOFileCreationException if some I/O error occurs while creating the wrapper, the directory 
-     *         that must contain it, or the compilation log file.
-     * @throws CompilationFailedWrapperException if the compilation of the wrapper class fails.
+     * @return the {@link Path} of the source file of the wrapper.
+     * @throws IOFileCreationException if some I/O error occurs while creating the wrapper 
+     *         or the directory that must contain it.
      * @throws UnexpectedJBSELibFailureException if some exception was raised while using the
      *         JBSE library to create the wrapper.
      */
-    private void emitAndCompileEvoSuiteWrapperSeed(int testCount, String targetMethodClassName, String targetMethodDescriptor, String targetMethodName) 
-    throws IOFileCreationException, CompilationFailedWrapperException, UnexpectedJBSELibFailureException {
+    private Path emitEvoSuiteWrapperSeed(int testCount, String targetMethodClassName, String targetMethodDescriptor, String targetMethodName) 
+    throws IOFileCreationException, UnexpectedJBSELibFailureException {
     	try {
     	//makes a wrapper for the "true" path condition corresponding to the 
     	//entry point of the method
@@ -678,7 +1208,7 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
         final State finalState = initialState.clone();
         final Map<Long, String> stringLiterals = Collections.emptyMap();
         final Set<Long> stringOthers = Collections.emptySet();
-        emitAndCompileEvoSuiteWrapper(testCount, initialState, finalState, stringLiterals, stringOthers, null);
+        return emitEvoSuiteWrapper(testCount, initialState, finalState, stringLiterals, stringOthers, null);
     	} catch (IOException | InvalidClassFileFactoryClassException | InvalidInputException | ClassFileNotFoundException |
     	        ClassFileIllFormedException | ClassFileNotAccessibleException | IncompatibleClassFileException |
     	        PleaseLoadClassException | BadClassFileVersionException | RenameUnsupportedException | WrongClassNameException |
@@ -688,7 +1218,7 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
     }
     
     /**
-     * Emits and compiles the EvoSuite wrapper for the path condition of some state.
+     * Emits the EvoSuite wrapper for the path condition of some state.
      * 
      * @param testCount an {@code int}, the number used to identify the test.
      * @param initialState a {@link State}; must be the initial state in the execution 
@@ -700,95 +1230,215 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
      *        corresponding value of the literal.
      * @param stringOthers a {@link List}{@code <}{@link Long}{@code >}, 
      *        listing the heap positions of the nonconstant {@link String}s.
-     * @throws IOFileCreationException if some I/O error occurs while creating the wrapper, the directory 
-     *         that must contain it, or the compilation log file.
-     * @throws CompilationFailedWrapperException if the compilation of the wrapper class fails.
+     * @return the {@link Path} of the source file of the wrapper.
+     * @throws IOFileCreationException if some I/O error occurs while creating the wrapper 
+     *         or the directory that must contain it.
      * @throws UnexpectedJBSELibFailureException if some exception was raised while using the
      *         JBSE library to create the wrapper.
      */
-    private void emitAndCompileEvoSuiteWrapper(int testCount, State initialState, State finalState, Map<Long, String> stringLiterals, Set<Long> stringOthers, Set<String> forbiddenExpansions) 
-    throws IOFileCreationException, CompilationFailedWrapperException, UnexpectedJBSELibFailureException {
-        final StateFormatterSushiPathCondition fmt = new StateFormatterSushiPathCondition(testCount, () -> initialState, true);
-        fmt.setStringsConstant(stringLiterals);
-        fmt.setStringsNonconstant(stringOthers);
-        if (forbiddenExpansions != null) {
-        	fmt.setForbiddenExpansions(forbiddenExpansions);
-        }
-        fmt.formatPrologue();
-        fmt.formatState(finalState);
-        fmt.formatEpilogue();
-        
-        final Path wrapperFilePath;
+    private Path emitEvoSuiteWrapper(int testCount, State initialState, State finalState, Map<Long, String> stringLiterals, Set<Long> stringOthers, Set<String> forbiddenExpansions) 
+    throws IOFileCreationException, UnexpectedJBSELibFailureException {
+        final EvoSuiteWrapperSource wrapperSource;
         try { 
-            final String initialCurrentClassName = initialState.getStack().get(0).getMethodClass().getClassName();
-            final int lastSlash = initialCurrentClassName.lastIndexOf('/');
-            final String initialCurrentClassPackageName = (lastSlash == -1 ? "" : initialCurrentClassName.substring(0, lastSlash));
-            final Path wrapperDirectoryPath = this.o.getTmpWrappersDirectoryPath().resolve(initialCurrentClassPackageName);
-            try {
-                Files.createDirectories(wrapperDirectoryPath);
-            } catch (IOException e) {
-                throw new IOFileCreationException(e, wrapperDirectoryPath);
-            }
-            wrapperFilePath = wrapperDirectoryPath.resolve("EvoSuiteWrapper_" + testCount + ".java");
-            try (final BufferedWriter w = Files.newBufferedWriter(wrapperFilePath)) {
-                w.write(fmt.emit());
-            } catch (IOException e) {
-                throw new IOFileCreationException(e, wrapperFilePath);
-            }
+            wrapperSource = EvoSuiteWrapperSource.render(initialState, finalState, stringLiterals, stringOthers, forbiddenExpansions);
         } catch (FrozenStateException e) {
         	throw new UnexpectedJBSELibFailureException(e);
-        } finally {
-            fmt.cleanup();
         }
-
-        final Path javacLogFilePath = this.o.getTmpDirectoryPath().resolve("javac-log-wrapper-" + testCount + ".txt");
-        final String[] javacParameters = { "-cp", this.classpathCompilationWrapper, "-d", this.o.getTmpBinDirectoryPath().toString(), "-source", "8", "-target", "8", wrapperFilePath.toString() };
-        try (final OutputStream w = new BufferedOutputStream(Files.newOutputStream(javacLogFilePath))) {
-            final int success = this.compiler.run(null, w, w, javacParameters);
-            if (success != 0) {
-                throw new CompilationFailedWrapperException(wrapperFilePath);
+        return emitEvoSuiteWrapper(testCount, wrapperSource);
+    }
+    
+    /**
+     * Emits an already rendered EvoSuite wrapper.
+     * 
+     * @param testCount an {@code int}, the number used to identify the test.
+     * @param wrapperSource the {@link EvoSuiteWrapperSource} of the wrapper.
+     * @return the {@link Path} of the source file of the wrapper.
+     * @throws IOFileCreationException if some I/O error occurs while creating the wrapper 
+     *         or the directory that must contain it.
+     */
+    private Path emitEvoSuiteWrapper(int testCount, EvoSuiteWrapperSource wrapperSource) 
+    throws IOFileCreationException {
+        final Path wrapperDirectoryPath = this.o.getTmpWrappersDirectoryPath().resolve(wrapperSource.getPackageName());
+        try {
+            Files.createDirectories(wrapperDirectoryPath);
+        } catch (IOException e) {
+            throw new IOFileCreationException(e, wrapperDirectoryPath);
+        }
+        final Path wrapperFilePath = wrapperDirectoryPath.resolve("EvoSuiteWrapper_" + testCount + ".java");
+        try (final BufferedWriter w = Files.newBufferedWriter(wrapperFilePath)) {
+            w.write(wrapperSource.getSource(testCount));
+        } catch (IOException e) {
+            throw new IOFileCreationException(e, wrapperFilePath);
+        }
+        return wrapperFilePath;
+    }
+    
+    /**
+     * Compiles a set of EvoSuite wrappers in one task. Note that the 
+     * {@link CompilationService} keeps a file manager per thread, thus 
+     * the classpath is indexed once per wrapper preparer thread.
+     * 
+     * @param wrapperFilePaths a {@link List}{@code <}{@link Path}{@code >}, 
+     *        the source files of the wrappers.
+     * @return the {@link List}{@code <}{@link Path}{@code >} of the source 
+     *         files in {@code wrapperFilePaths} whose compilation failed.
+     * @throws IOFileCreationException if some I/O error occurs while writing
+     *         the compilation log file.
+     */
+    private List<Path> compileEvoSuiteWrappers(List<Path> wrapperFilePaths) throws IOFileCreationException {
+        if (wrapperFilePaths.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            final List<Path> failed = this.compilationWrappers.compile(wrapperFilePaths);
+            if (failed.isEmpty() || failed.size() == wrapperFilePaths.size()) {
+                return failed;
             }
+            
+            //javac might not have emitted the class files of
+            //the correct wrappers, thus recompiles them
+            final ArrayList<Path> correct = new ArrayList<>(wrapperFilePaths);
+            correct.removeAll(failed);
+            final ArrayList<Path> retVal = new ArrayList<>(failed);
+            retVal.addAll(this.compilationWrappers.compile(correct));
+            return retVal;
         } catch (IOException e) {
-            throw new IOFileCreationException(e, javacLogFilePath);
+            throw new IOFileCreationException(e, this.o.getTmpDirectoryPath().resolve(JAVAC_LOG_WRAPPERS));
         }
     }
     
     /**
-     * Selects an instance of EvoSuite and runs it on a set of {@link JBSEResult}s for which 
-     * the wrappers are available. 
+     * Returns the number of goals that an EvoSuite node
+     * may have in flight at once.
+     * 
+     * @return an {@code int}.
+     */
+    private int nodeCapacity() {
+    	return this.o.getNumTargetsEvosuitePerJob() + this.o.getNumTargetsEvosuiteOverloaded();
+    }
+    
+    /**
+     * Splits a set of {@link JBSEResult}s, for which the wrappers are available,
+     * across the instances of EvoSuite. Every goal goes to the instance with the 
+     * most free capacity at that moment (breaking ties in favor of the instance 
+     * that solves more goals), thus the goals are split proportionally to the free 
+     * capacity of the instances. When no instance has free capacity the goals
+     * overload the instances evenly.
      * 
      * @param items a {@link List}{@code <}{@link Pair}{@code <}{@link JBSEResult}{@code , }{@link Integer}{@code >>}.
      *        where each {@link JBSEResult} is the result of symbolic execution and its paired {@link Integer} is the
      *        identifier of the corresponding test case (if it will be generated).
-     * @return 
+     * @param groups a {@link List}{@code <}{@link Integer}{@code >}, the groups of the goals in {@code items}
+     *        (see {@link GoalInFlight#group}), or {@code null} if every goal is a group of its own.
+     * @return a {@link Map}{@code <}{@link String}{@code , }{@link List}{@code <}{@link Pair}{@code <}{@link JBSEResult}{@code , }{@link Integer}{@code >>>}
+     *         mapping the RMI identifiers of the EvoSuite instances to the goals allocated to them.
      */
-    private synchronized String allocateGoalsToSomeEvosuite(List<Pair<JBSEResult, Integer>> items) {
+    private synchronized Map<String, List<Pair<JBSEResult, Integer>>> allocateGoalsToEvosuiteNodes(List<Pair<JBSEResult, Integer>> items, List<Integer> groups) {
+    	final LinkedHashMap<String, List<Pair<JBSEResult, Integer>>> retVal = new LinkedHashMap<>();
     	if (items.size() == 0) {
-    		return null;
+    		return retVal;
     	}
+    	
+    	for (int i = 0; i < items.size(); ++i) {
+    		final Pair<JBSEResult, Integer> item = items.get(i);
+    		String nodeBest = null;
+    		int nodeBestCapacity = 0;
+    		double nodeBestSolveRate = 0.0d;
+    		for (Map.Entry<String, Integer> e : this.evosuiteCapacityCounter.entrySet()) {
+    			if (this.evosuiteNodes.containsKey(e.getKey())) {
+    				final int capacity = e.getValue();
+    				final NodeStatistics stats = this.evosuiteNodeStatistics.get(e.getKey());
+    				final double solveRate = (stats == null ? 0.0d : stats.solveRate());
+    				if (nodeBest == null || capacity > nodeBestCapacity || (capacity == nodeBestCapacity && solveRate > nodeBestSolveRate)) {
+    					nodeBest = e.getKey();
+    					nodeBestCapacity = capacity;
+    					nodeBestSolveRate = solveRate;
+    				}
+    			}
+    		}
 
-    	//splits items between the EvoSuite instances, until all targets in items 
-    	//have been assigned to some EvoSuite
-    	//TODO
-    	Map.Entry<String, Integer> eBest = null;
-    	int eBestAvailability = 0;
-    	for (Map.Entry<String, Integer> e : this.evosuiteCapacityCounter.entrySet()) {
-    		if (this.evosuiteNodes.containsKey(e.getKey())) {
-    			final int eAvailability = e.getValue();
-    			if (eBest == null || eAvailability > eBest.getValue()) {
-    				eBest = e;
-    				eBestAvailability = eAvailability;
+    		if (nodeBest == null) {
+    			LOGGER.error("Failed sending new goal to Evosuite: Failed search of Evosuite instance with best availability");
+    			break;
+    		}
+    		this.evosuiteCapacityCounter.put(nodeBest, Integer.valueOf(nodeBestCapacity - 1));
+    		retVal.computeIfAbsent(nodeBest, k -> new ArrayList<>()).add(item);
+    		goalSent(nodeBest, item, (groups == null ? item.second() : groups.get(i).intValue()));
+    	}
+    	
+    	return retVal;
+    }
+    
+    private void goalSent(String node, Pair<JBSEResult, Integer> item, int group) {
+    	this.goalsInFlight.put(item.second(), new GoalInFlight(node, item, group));
+    	final NodeStatistics stats = this.evosuiteNodeStatistics.get(node);
+    	if (stats != null) {
+    		++stats.sent;
+    	}
+    }
+    
+    /**
+     * Reassigns the goals that have been in flight for too long on
+     * a node to the idle nodes, i.e., those with no goals in flight. 
+     * Since EvoSuite cannot withdraw a goal, a copy of the goal (with 
+     * its own wrapper) is sent to the idle node, and whichever node 
+     * solves the goal first wins. Every goal is reassigned at most once.
+     */
+    private void reassignStalledGoals() {
+    	//selects the stalled goals and the idle nodes, and 
+    	//reserves the capacity of the latter
+    	final ArrayList<GoalInFlight> stalled = new ArrayList<>();
+    	final ArrayList<String> stalledDestinations = new ArrayList<>();
+    	synchronized (this) {
+    		if (this.terminated) {
+    			return;
+    		}
+    		final long stallNanos = TimeUnit.SECONDS.toNanos(this.o.getEvosuiteStalledGoalSeconds());
+    		final long now = System.nanoTime();
+    		final ArrayList<GoalInFlight> candidates = new ArrayList<>();
+    		for (GoalInFlight g : this.goalsInFlight.values()) {
+    			if (!g.reassigned && !this.goalGroupsSolved.contains(g.group) && now - g.sentNanos >= stallNanos) {
+    				candidates.add(g);
     			}
     		}
+    		candidates.sort(Comparator.comparingLong(g -> g.sentNanos));
+    		int next = 0;
+    		for (Map.Entry<String, Integer> e : this.evosuiteCapacityCounter.entrySet()) {
+    			final String node = e.getKey();
+    			int capacity = e.getValue();
+    			if (!this.evosuiteNodes.containsKey(node) || capacity < nodeCapacity()) {
+    				continue; //not idle
+    			}
+    			while (capacity > 0 && next < candidates.size()) {
+    				final GoalInFlight g = candidates.get(next++);
+    				if (g.node.equals(node)) {
+    					continue;
+    				}
+    				g.reassigned = true;
+    				stalled.add(g);
+    				stalledDestinations.add(node);
+    				--capacity;
+    			}
+    			e.setValue(Integer.valueOf(capacity));
+    		}
     	}
     	
-    	//all failed: sends to the less overloaded EvoSuite
-    	if (eBest == null) {
-    		LOGGER.error("Failed sending new goal to Evosuite: Failed search of Evosuite instance with best availability");
-    		return null;
-    	}   
-		eBest.setValue(Integer.valueOf(eBestAvailability - items.size()));
-		return eBest.getKey();
+    	//sends the copies of the stalled goals
+    	for (int i = 0; i < stalled.size(); ++i) {
+    		final GoalInFlight g = stalled.get(i);
+    		final String node = stalledDestinations.get(i);
+    		final ArrayList<Pair<JBSEResult, Integer>> compiled = generateWrappers(Collections.singletonList(g.item.first()));
+    		synchronized (this) {
+    			if (compiled.isEmpty()) {
+    				//gives back the reserved capacity
+    				releaseCapacity(node);
+    				continue;
+    			}
+    			goalSent(node, compiled.get(0), g.group);
+    		}
+    		LOGGER.info("Reassigning stalled goal EvoSuiteWrapper_%d from Evosuite server %s to idle Evosuite server %s as EvoSuiteWrapper_%d", g.item.second(), g.node, node, compiled.get(0).second());
+    		sendGoalsToEvosuite(node, compiled);
+    	}
     }
     
     
@@ -805,6 +1455,11 @@ public final class PerformerEvosuiteRMI extends Performer<JBSEResult, EvosuiteRe
     private void sendGoalsToEvosuite(String evosuiteServerRmiIdentifier, List<Pair<JBSEResult, Integer>> items) {
     	try {
     		final EvosuiteRemote evosuiteRemote = this.evosuiteNodes.get(evosuiteServerRmiIdentifier);
+    		if (evosuiteRemote == null) {
+    			//the node went down, and the supervisor 
+    			//will recover the goals
+    			return;
+    		}
     		for (Pair<JBSEResult, Integer> item : items) {
         		final JBSEResult aJBSEResult = item.first();
         		final String targetClass = aJBSEResult.getTargetMethodClassName().replace('/', '.');
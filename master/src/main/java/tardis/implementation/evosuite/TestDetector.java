@@ -174,12 +174,12 @@ final class TestDetector implements Runnable {
                 TestDetector.groundTruthingEvosuiteFail(item);*/
                 
                 //learns for update of indices
-                if (this.o.getUseIndexInfeasibility() && item.getPostFrontierState() != null) { //NB: item.getFinalState() == null for seed items when target is method
+                if (this.o.getUseIndexInfeasibility() && !item.isSeed()) {
                 	this.in.learnPathConditionForIndexInfeasibility(item.getTargetMethodSignature(), item.getPathConditionGenerated(), false);
                 }
 
                 //TODO possibly lazier updates of index
-                if (this.o.getUseIndexInfeasibility() && item.getPostFrontierState() != null) {
+                if (this.o.getUseIndexInfeasibility() && !item.isSeed()) {
                 	this.in.updateIndexInfeasibilityAndReclassify();
                 }
             }
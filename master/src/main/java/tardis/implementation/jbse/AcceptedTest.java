@@ -0,0 +1,42 @@
+package tardis.implementation.jbse;
+
+import java.util.Set;
+
+import tardis.implementation.evosuite.EvosuiteResult;
+
+/**
+ * A work item produced by the JBSE performer and consumed
+ * by the test emitter performer. It represents a test case that
+ * covers something new, and that thus must be copied to the
+ * output directory. It is immutable.
+ *
+ * @author Pietro Braione
+ */
+public final class AcceptedTest {
+    /** The {@link EvosuiteResult} of the test case. */
+    private final EvosuiteResult item;
+
+    /** The branches newly covered by the test case. */
+    private final Set<String> newCoveredBranches;
+
+    /** The number of the newly covered target branches. */
+    private final int branchCoverageTargetNew;
+
+    AcceptedTest(EvosuiteResult item, Set<String> newCoveredBranches, int branchCoverageTargetNew) {
+        this.item = item;
+        this.newCoveredBranches = newCoveredBranches;
+        this.branchCoverageTargetNew = branchCoverageTargetNew;
+    }
+
+    public EvosuiteResult getItem() {
+        return this.item;
+    }
+
+    public Set<String> getNewCoveredBranches() {
+        return this.newCoveredBranches;
+    }
+
+    public int getBranchCoverageTargetNew() {
+        return this.branchCoverageTargetNew;
+    }
+}
@@ -0,0 +1,281 @@
+package tardis.implementation.jbse;
+
+import static tardis.implementation.jbse.ConcreteTraceWorker.READY;
+import static tardis.implementation.jbse.ConcreteTraceWorker.RESULT;
+import static tardis.implementation.jbse.ConcreteTraceWorker.SEPARATOR;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.ClassReader;
+
+import tardis.Options;
+import tardis.implementation.evosuite.EvosuiteResult;
+import tardis.implementation.evosuite.TestCase;
+
+/**
+ * A cheap filter that detects the test cases that are redundant
+ * before they are symbolically executed. It runs a test case once,
+ * concretely and in a worker JVM (see {@link ConcreteTraceWorker}),
+ * in a class loader that instruments the classes under test to record
+ * the sequence of the basic blocks they execute, and calculates a
+ * fingerprint of the sequence. A test case whose fingerprint is equal
+ * to that of a test case that was already symbolically executed follows
+ * the same path, thus it can be skipped. The workers are reused across
+ * test cases, and a worker whose test case does not terminate in due
+ * time is killed. Note that the filter is not exact: two test cases
+ * with the same trace may still yield different path conditions when
+ * they differ in the shape of their input heaps (e.g., in aliasing)
+ * without affecting control flow.
+ *
+ * @author Pietro Braione
+ */
+final class ConcreteTraceFilter implements AutoCloseable {
+    /** The maximum time a test case may run before its fingerprint is given up. */
+    private static final long TIMEOUT_MILLIS = 2000;
+
+    /** The command line that launches a worker. */
+    private final ArrayList<String> workerCommandLine;
+
+    /** Kills the workers whose test case runs for too long. */
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    /** The idle workers. */
+    private final ArrayDeque<Worker> idle = new ArrayDeque<>();
+
+    /** The workers that are running a test case. */
+    private final Set<Worker> busy = ConcurrentHashMap.newKeySet();
+
+    /** Set when the filter is closed. */
+    private volatile boolean closed = false;
+
+    /**
+     * The fingerprints of the traces of the test cases that were
+     * symbolically executed, prefixed by their target method.
+     */
+    private final Set<String> explored = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     *
+     * @param o the {@link Options}.
+     */
+    ConcreteTraceFilter(Options o) {
+        final LinkedHashSet<String> workerClasspath = new LinkedHashSet<>();
+        workerClasspath.add(codeSource(ConcreteTraceWorker.class));
+        workerClasspath.add(codeSource(ClassReader.class));
+        final ArrayList<String> classesPath = new ArrayList<>();
+        for (Path p : o.getClassesPath()) {
+            classesPath.add(p.toString());
+        }
+        this.workerCommandLine = new ArrayList<>();
+        this.workerCommandLine.add(o.getJava8Command());
+        this.workerCommandLine.add("-cp");
+        this.workerCommandLine.add(String.join(File.pathSeparator, workerClasspath));
+        this.workerCommandLine.add(ConcreteTraceWorker.class.getName());
+        this.workerCommandLine.add(String.join(File.pathSeparator, classesPath));
+        this.workerCommandLine.add(o.getEvosuitePath().toString());
+        this.workerCommandLine.add(o.getTmpBinDirectoryPath().toString());
+        this.watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread t = new Thread(r, "ConcreteTraceFilter-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        this.watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    private static String codeSource(Class<?> c) {
+        try {
+            return Paths.get(c.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            //this should never happen
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Calculates the fingerprint of the trace of a test case.
+     *
+     * @param item an {@link EvosuiteResult}.
+     * @return a {@link String}, the fingerprint of the trace of the test
+     *         case of {@code item}, or {@code null} if the test case
+     *         cannot be run or does not terminate in due time.
+     */
+    String fingerprint(EvosuiteResult item) {
+        final TestCase tc = item.getTestCase();
+        Worker worker;
+        synchronized (this.idle) {
+            if (this.closed) {
+                return null;
+            }
+            worker = this.idle.poll();
+        }
+        if (worker == null) {
+            try {
+                worker = new Worker();
+            } catch (IOException e) {
+                //the worker cannot be launched
+                return null;
+            }
+        }
+        this.busy.add(worker);
+        final ScheduledFuture<?> kill;
+        try {
+            kill = this.watchdog.schedule(worker::dispose, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            //the filter was closed meanwhile
+            this.busy.remove(worker);
+            worker.dispose();
+            return null;
+        }
+        String retVal;
+        boolean healthy;
+        try {
+            retVal = worker.run(tc);
+            healthy = true;
+        } catch (IOException e) {
+            //the test case possibly diverges and the
+            //watchdog killed the worker, or the worker
+            //died while running it
+            retVal = null;
+            healthy = false;
+        }
+        //if the watchdog already fired the worker is dead
+        healthy = kill.cancel(false) && healthy;
+        this.busy.remove(worker);
+        synchronized (this.idle) {
+            if (healthy && !this.closed) {
+                this.idle.push(worker);
+                worker = null;
+            }
+        }
+        if (worker != null) {
+            worker.dispose();
+        }
+        return retVal;
+    }
+
+    /**
+     * Checks whether a test case with a given fingerprint
+     * was already symbolically executed.
+     *
+     * @param item an {@link EvosuiteResult}.
+     * @param fingerprint a {@link String}, the fingerprint of
+     *        the trace of the test case of {@code item}.
+     * @return {@code true} iff a test case for the same target
+     *         method of {@code item} and with the same fingerprint
+     *         was marked as explored.
+     */
+    boolean isExplored(EvosuiteResult item, String fingerprint) {
+        return this.explored.contains(item.getTargetMethodSignature() + "@" + fingerprint);
+    }
+
+    /**
+     * Marks a test case as symbolically executed.
+     *
+     * @param item an {@link EvosuiteResult}.
+     * @param fingerprint a {@link String}, the fingerprint of
+     *        the trace of the test case of {@code item}.
+     */
+    void markExplored(EvosuiteResult item, String fingerprint) {
+        this.explored.add(item.getTargetMethodSignature() + "@" + fingerprint);
+    }
+
+    /**
+     * Closes this filter by killing all the workers,
+     * including those that are running a test case.
+     */
+    @Override
+    public void close() {
+        final ArrayList<Worker> toDispose;
+        synchronized (this.idle) {
+            this.closed = true;
+            toDispose = new ArrayList<>(this.idle);
+            this.idle.clear();
+        }
+        toDispose.addAll(this.busy);
+        for (Worker worker : toDispose) {
+            worker.dispose();
+        }
+        this.watchdog.shutdownNow();
+    }
+
+    /**
+     * A worker JVM.
+     *
+     * @author Pietro Braione
+     */
+    private final class Worker {
+        private final Process process;
+        private final BufferedWriter stdin;
+        private final BufferedReader stdout;
+
+        Worker() throws IOException {
+            this.process = new ProcessBuilder(ConcreteTraceFilter.this.workerCommandLine).redirectErrorStream(true).start();
+            this.stdin = new BufferedWriter(new OutputStreamWriter(this.process.getOutputStream()));
+            this.stdout = new BufferedReader(new InputStreamReader(this.process.getInputStream()));
+            try {
+                readLine(READY);
+            } catch (IOException e) {
+                dispose();
+                throw e;
+            }
+        }
+
+        /**
+         * Runs a test case in this worker.
+         *
+         * @param tc a {@link TestCase}.
+         * @return a {@link String}, the fingerprint of the
+         *         trace of {@code tc}, or {@code null} if
+         *         {@code tc} cannot be run.
+         * @throws IOException if the worker died.
+         */
+        String run(TestCase tc) throws IOException {
+            this.stdin.write(tc.getClassName() + SEPARATOR + tc.getMethodName());
+            this.stdin.newLine();
+            this.stdin.flush();
+            final String fingerprint = readLine(RESULT).substring(RESULT.length()).trim();
+            return (fingerprint.isEmpty() ? null : fingerprint);
+        }
+
+        /**
+         * Reads the output of this worker up to a line with
+         * a given prefix, skipping the output of the test
+         * cases.
+         *
+         * @param prefix a {@link String}.
+         * @return the first line starting with {@code prefix}.
+         * @throws IOException if the worker died.
+         */
+        private String readLine(String prefix) throws IOException {
+            String s;
+            while ((s = this.stdout.readLine()) != null) {
+                if (s.startsWith(prefix)) {
+                    return s;
+                }
+            }
+            throw new IOException("The concrete trace worker died.");
+        }
+
+        void dispose() {
+            this.process.destroyForcibly();
+        }
+    }
+}
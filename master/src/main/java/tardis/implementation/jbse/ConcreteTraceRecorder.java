@@ -0,0 +1,57 @@
+package tardis.implementation.jbse;
+
+/**
+ * Records the fingerprint of the trace of a concrete execution. The
+ * classes instrumented by {@link ConcreteTraceWorker} invoke
+ * {@link #visit(int)} at the start of every basic block, and the
+ * fingerprint is a hash of the sequence of the visited blocks. Only
+ * the thread that started the recording is traced.
+ *
+ * @author Pietro Braione
+ */
+public final class ConcreteTraceRecorder {
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    /** The hash and the length of the trace of the current thread. */
+    private static final ThreadLocal<long[]> TRACE = new ThreadLocal<>();
+
+    /**
+     * Records the visit of a basic block. Invoked by
+     * the instrumented code.
+     *
+     * @param blockId an {@code int}, the identifier of the
+     *        basic block.
+     */
+    public static void visit(int blockId) {
+        final long[] trace = TRACE.get();
+        if (trace != null) {
+            trace[0] = (trace[0] ^ blockId) * FNV_PRIME;
+            ++trace[1];
+        }
+    }
+
+    /**
+     * Starts recording the trace of the current thread.
+     */
+    static void start() {
+        TRACE.set(new long[] { FNV_OFFSET_BASIS, 0L });
+    }
+
+    /**
+     * Stops recording the trace of the current thread.
+     *
+     * @return a {@link String}, the fingerprint of the
+     *         recorded trace.
+     */
+    static String stop() {
+        final long[] trace = TRACE.get();
+        TRACE.remove();
+        return Long.toHexString(trace[0]) + ":" + trace[1];
+    }
+
+    /**
+     * Do not instantiate!
+     */
+    private ConcreteTraceRecorder() { }
+}
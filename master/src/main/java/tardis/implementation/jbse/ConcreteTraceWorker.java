@@ -0,0 +1,418 @@
+package tardis.implementation.jbse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * The main class of a worker JVM that calculates the fingerprints of
+ * the traces of the test cases for {@link ConcreteTraceFilter}. It
+ * reads from its standard input one test case per line, i.e., the
+ * name of the test class and the name of the test method separated
+ * by a tab, and runs the test case in a class loader that instruments
+ * the classes under test to record the sequence of the basic blocks
+ * they execute. The test case is run as JUnit would, i.e., between
+ * the {@code @BeforeClass}, {@code @Before}, {@code @After} and
+ * {@code @AfterClass} methods of the test class and of its superclasses,
+ * so the scaffolding of EvoSuite sets up its sandbox; only the test
+ * method is traced. After every test case the worker prints a line
+ * starting with {@link #RESULT} followed by the fingerprint, or by
+ * nothing if the test case cannot be run. The worker ends when its
+ * standard input is closed. Its arguments are the classpath of the
+ * classes under test, the path of the EvoSuite jar, and the path
+ * of the compiled test cases. Note that it must depend only on the
+ * JDK and on ASM.
+ *
+ * @author Pietro Braione
+ */
+public final class ConcreteTraceWorker {
+    /** The line printed when the worker is ready. */
+    static final String READY = "* TARDIS CONCRETE TRACE WORKER READY";
+
+    /** The prefix of the line with the fingerprint of a test case. */
+    static final String RESULT = "* TARDIS CONCRETE TRACE WORKER RESULT";
+
+    /** The separator of the test class and of the test method in a line. */
+    static final String SEPARATOR = "\t";
+
+    /** Finds the class files of the classes under test. */
+    private final URLClassLoader classesUnderTest;
+
+    /** Finds the class files of the EvoSuite runtime. */
+    private final URLClassLoader classesEvosuite;
+
+    /** Finds the class files of the test cases. */
+    private final URLClassLoader classesTests;
+
+    /**
+     * Caches the class files of the classes under test (instrumented)
+     * and of the EvoSuite runtime. The class files of the test cases
+     * are not cached because every test case is seen once.
+     */
+    private final ConcurrentHashMap<String, byte[]> classFiles = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws IOException {
+        //the test cases might redirect System.out while running
+        final PrintStream out = System.out;
+        final ConcreteTraceWorker worker = new ConcreteTraceWorker(args[0], args[1], args[2]);
+        final BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        out.println(READY);
+        out.flush();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            final String[] test = line.split(SEPARATOR);
+            String fingerprint;
+            try {
+                fingerprint = worker.run(test[0], test[1]);
+            } catch (Throwable e) {
+                //the test case cannot be run concretely
+                fingerprint = "";
+            }
+            out.println(RESULT + " " + fingerprint);
+            out.flush();
+        }
+    }
+
+    private ConcreteTraceWorker(String classesPath, String evosuitePath, String testsPath) throws IOException {
+        final ArrayList<URL> urlsClassesUnderTest = new ArrayList<>();
+        for (String p : classesPath.split(File.pathSeparator)) {
+            urlsClassesUnderTest.add(Paths.get(p).toUri().toURL());
+        }
+        this.classesUnderTest = new URLClassLoader(urlsClassesUnderTest.toArray(new URL[0]), null);
+        this.classesEvosuite = new URLClassLoader(new URL[] { Paths.get(evosuitePath).toUri().toURL() }, null);
+        this.classesTests = new URLClassLoader(new URL[] { Paths.get(testsPath).toUri().toURL() }, null);
+    }
+
+    private String run(String testClassName, String testMethodName) throws ReflectiveOperationException {
+        final InstrumentingClassLoader loader = new InstrumentingClassLoader();
+        Thread.currentThread().setContextClassLoader(loader);
+        final Class<?> testClass = Class.forName(testClassName.replace('/', '.'), true, loader);
+        final Method testMethod = testClass.getMethod(testMethodName);
+        final List<Method> beforeClass = lifecycleMethods(testClass, loader, "org.junit.BeforeClass", true);
+        final List<Method> before = lifecycleMethods(testClass, loader, "org.junit.Before", false);
+        final List<Method> after = lifecycleMethods(testClass, loader, "org.junit.After", false);
+        final List<Method> afterClass = lifecycleMethods(testClass, loader, "org.junit.AfterClass", true);
+        final String retVal;
+        try {
+            invokeAll(beforeClass, null, true);
+            final Object test = testClass.getDeclaredConstructor().newInstance();
+            try {
+                invokeAll(before, test, true);
+                ConcreteTraceRecorder.start();
+                try {
+                    testMethod.invoke(test);
+                } catch (InvocationTargetException e) {
+                    //the test case raised an exception: the
+                    //trace is nonetheless meaningful
+                } finally {
+                    retVal = ConcreteTraceRecorder.stop();
+                }
+            } finally {
+                Collections.reverse(after);
+                invokeAll(after, test, false);
+            }
+        } finally {
+            Collections.reverse(afterClass);
+            invokeAll(afterClass, null, false);
+        }
+        return retVal;
+    }
+
+    /**
+     * Finds the public lifecycle methods with a given annotation
+     * of a test class and of its superclasses, as JUnit does.
+     *
+     * @param testClass the test {@link Class}.
+     * @param loader the {@link ClassLoader} of {@code testClass}.
+     * @param annotationName a {@link String}, the name of the
+     *        annotation of the lifecycle methods.
+     * @param isStatic a {@code boolean}, whether the lifecycle
+     *        methods are static.
+     * @return a {@link List}{@code <}{@link Method}{@code >}, the
+     *         lifecycle methods ordered from those of the topmost
+     *         superclass to those of {@code testClass}, without
+     *         the methods that are shadowed by a subclass.
+     * @throws ClassNotFoundException if the annotation is not found.
+     */
+    private static List<Method> lifecycleMethods(Class<?> testClass, ClassLoader loader, String annotationName, boolean isStatic) throws ClassNotFoundException {
+        @SuppressWarnings("unchecked")
+        final Class<? extends Annotation> annotation = (Class<? extends Annotation>) Class.forName(annotationName, false, loader);
+        final ArrayList<Method> retVal = new ArrayList<>();
+        final HashSet<String> seen = new HashSet<>();
+        for (Class<?> c = testClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            final ArrayList<Method> declared = new ArrayList<>();
+            for (Method m : c.getDeclaredMethods()) {
+                final String signature = m.getName() + Arrays.toString(m.getParameterTypes());
+                if (m.isAnnotationPresent(annotation) && Modifier.isPublic(m.getModifiers()) &&
+                    Modifier.isStatic(m.getModifiers()) == isStatic && seen.add(signature)) {
+                    declared.add(m);
+                }
+            }
+            retVal.addAll(0, declared);
+        }
+        return retVal;
+    }
+
+    private static void invokeAll(List<Method> methods, Object target, boolean stopAtFailure) throws ReflectiveOperationException {
+        for (Method m : methods) {
+            try {
+                m.invoke(target);
+            } catch (InvocationTargetException e) {
+                if (stopAtFailure) {
+                    throw e;
+                }
+                //the later cleanups must nonetheless run
+            }
+        }
+    }
+
+    private static byte[] readClassFile(URLClassLoader finder, String className) throws IOException {
+        try (final InputStream is = finder.getResourceAsStream(className.replace('.', '/') + ".class")) {
+            if (is == null) {
+                return null;
+            }
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                bytes.write(buffer, 0, n);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    private static byte[] instrument(byte[] classFile) {
+        final ClassReader cr = new ClassReader(classFile);
+        //the probes do not change the stack at the frames,
+        //so it is enough to recompute the maximums
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cr.accept(new ClassVisitor(Opcodes.ASM5, cw) {
+            private String className;
+
+            @Override
+            public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+                this.className = name;
+                super.visit(version, access, name, signature, superName, interfaces);
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+                final MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+                return (mv == null ? null : new ProbeInserter(mv, (this.className + "." + name + desc).hashCode()));
+            }
+        }, 0);
+        return cw.toByteArray();
+    }
+
+    /**
+     * Inserts an invocation of {@link ConcreteTraceRecorder#visit(int)}
+     * before the first instruction of the method and before the
+     * first instruction after every label, i.e., at the start of
+     * every (possibly) basic block. The probes are inserted after
+     * the stack map frames, that must immediately follow the labels.
+     *
+     * @author Pietro Braione
+     */
+    private static final class ProbeInserter extends MethodVisitor {
+        private static final String RECORDER = ConcreteTraceRecorder.class.getName().replace('.', '/');
+        private final int methodId;
+        private int blockCount = 0;
+        private boolean probePending = false;
+
+        ProbeInserter(MethodVisitor mv, int methodId) {
+            super(Opcodes.ASM5, mv);
+            this.methodId = methodId;
+        }
+
+        private void possiblyInsertProbe() {
+            if (this.probePending) {
+                this.probePending = false;
+                super.visitLdcInsn(Integer.valueOf(this.methodId * 31 + this.blockCount++));
+                super.visitMethodInsn(Opcodes.INVOKESTATIC, RECORDER, "visit", "(I)V", false);
+            }
+        }
+
+        @Override
+        public void visitCode() {
+            super.visitCode();
+            this.probePending = true;
+        }
+
+        @Override
+        public void visitLabel(Label label) {
+            super.visitLabel(label);
+            this.probePending = true;
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            possiblyInsertProbe();
+            super.visitInsn(opcode);
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+            possiblyInsertProbe();
+            super.visitIntInsn(opcode, operand);
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int var) {
+            possiblyInsertProbe();
+            super.visitVarInsn(opcode, var);
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            possiblyInsertProbe();
+            super.visitTypeInsn(opcode, type);
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String desc) {
+            possiblyInsertProbe();
+            super.visitFieldInsn(opcode, owner, name, desc);
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+            possiblyInsertProbe();
+            super.visitMethodInsn(opcode, owner, name, desc, itf);
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String desc, Handle bsm, Object... bsmArgs) {
+            possiblyInsertProbe();
+            super.visitInvokeDynamicInsn(name, desc, bsm, bsmArgs);
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+            possiblyInsertProbe();
+            super.visitJumpInsn(opcode, label);
+            //the fall-through of a conditional jump starts a block
+            this.probePending = (opcode != Opcodes.GOTO && opcode != Opcodes.JSR);
+        }
+
+        @Override
+        public void visitLdcInsn(Object cst) {
+            possiblyInsertProbe();
+            super.visitLdcInsn(cst);
+        }
+
+        @Override
+        public void visitIincInsn(int var, int increment) {
+            possiblyInsertProbe();
+            super.visitIincInsn(var, increment);
+        }
+
+        @Override
+        public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+            possiblyInsertProbe();
+            super.visitTableSwitchInsn(min, max, dflt, labels);
+        }
+
+        @Override
+        public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+            possiblyInsertProbe();
+            super.visitLookupSwitchInsn(dflt, keys, labels);
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String desc, int dims) {
+            possiblyInsertProbe();
+            super.visitMultiANewArrayInsn(desc, dims);
+        }
+    }
+
+    /**
+     * A class loader that isolates a run of a test case, and
+     * instruments the classes under test. It delegates to the
+     * bootstrap class loader, with the exception of
+     * {@link ConcreteTraceRecorder} that is shared with the worker.
+     *
+     * @author Pietro Braione
+     */
+    private final class InstrumentingClassLoader extends ClassLoader {
+        InstrumentingClassLoader() {
+            super(null);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (ConcreteTraceRecorder.class.getName().equals(name)) {
+                return ConcreteTraceRecorder.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            try {
+                byte[] classFile = ConcreteTraceWorker.this.classFiles.get(name);
+                if (classFile == null) {
+                    classFile = readClassFile(ConcreteTraceWorker.this.classesUnderTest, name);
+                    if (classFile != null) {
+                        classFile = instrument(classFile);
+                        ConcreteTraceWorker.this.classFiles.put(name, classFile);
+                    }
+                }
+                if (classFile == null) {
+                    classFile = readClassFile(ConcreteTraceWorker.this.classesEvosuite, name);
+                    if (classFile != null) {
+                        ConcreteTraceWorker.this.classFiles.put(name, classFile);
+                    }
+                }
+                if (classFile == null) {
+                    classFile = readClassFile(ConcreteTraceWorker.this.classesTests, name);
+                }
+                if (classFile == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                return defineClass(name, classFile, 0, classFile.length);
+            } catch (IOException | RuntimeException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+
+        @Override
+        protected URL findResource(String name) {
+            URL retVal = ConcreteTraceWorker.this.classesUnderTest.getResource(name);
+            if (retVal == null) {
+                retVal = ConcreteTraceWorker.this.classesEvosuite.getResource(name);
+            }
+            if (retVal == null) {
+                retVal = ConcreteTraceWorker.this.classesTests.getResource(name);
+            }
+            return retVal;
+        }
+    }
+}
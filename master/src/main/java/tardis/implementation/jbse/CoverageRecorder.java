@@ -0,0 +1,264 @@
+package tardis.implementation.jbse;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import jbse.bc.Signature;
+
+/**
+ * Records the branches covered by a JBSE runner. A branch is
+ * recorded as a packed {@code long} made of an identifier of its
+ * method and of its source and target program counters, so recording
+ * an already covered branch does not allocate memory. The branches
+ * are converted to their {@link String} names,
+ * {@code <method signature>:<from pc>:<to pc>}, only when the
+ * coverage is read, and only once per distinct branch. The coverage
+ * is read as an immutable view of the names converted so far, that
+ * are only appended and never copied, so reading the coverage costs 
+ * only the conversion of the branches recorded since the last read.
+ *
+ * @author Pietro Braione
+ */
+final class CoverageRecorder {
+    /** Marks the empty slots in {@link #table}. */
+    private static final long EMPTY = 0L;
+
+    /** The identifiers of the methods, starting from 1 so no branch is {@link #EMPTY}. */
+    private final IdentityHashMap<Signature, Integer> methodIds = new IdentityHashMap<>();
+
+    /** The methods, the one with identifier {@code i} at position {@code i - 1}. */
+    private final ArrayList<Signature> methods = new ArrayList<>();
+
+    /** The last method recorded. */
+    private Signature methodLast = null;
+
+    /** The identifier of {@link #methodLast}. */
+    private long methodLastId = 0L;
+
+    /** The open addressing hash table of the recorded branches. */
+    private long[] table = new long[64];
+
+    /** The recorded branches, in order of recording. */
+    private long[] branches = new long[32];
+
+    /** The number of the recorded branches. */
+    private int size = 0;
+
+    /** The names of the branches covered before the recording started. */
+    private final Set<String> branchesInitial;
+
+    /**
+     * The names of the first {@link #branchesNamed} recorded branches 
+     * that are not in {@link #branchesInitial}, in order of recording.
+     * The names are only appended, and when the array grows it is 
+     * replaced, so the returned views are not affected.
+     */
+    private String[] branchNames = new String[32];
+
+    /** The number of the names in {@link #branchNames}. */
+    private int branchNamesCount = 0;
+
+    /** The number of the recorded branches whose names were converted. */
+    private int branchesNamed = 0;
+
+    /** The last view returned by {@link #getBranches()}, or {@code null}. */
+    private Branches branchesLast = null;
+
+    /**
+     * Constructor.
+     */
+    CoverageRecorder() {
+        this(Collections.emptySet());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param branchesInitial a {@link Set}{@code <}{@link String}{@code >},
+     *        the names of the branches covered before the recording 
+     *        started. They are included in the coverage. It is not 
+     *        copied, thus it must not be modified afterwards, as the
+     *        sets returned by {@link #getBranches()}.
+     */
+    CoverageRecorder(Set<String> branchesInitial) {
+        this.branchesInitial = branchesInitial;
+    }
+
+    /**
+     * Records a covered branch.
+     *
+     * @param method the {@link Signature} of the method of the branch.
+     * @param pcFrom an {@code int}, the program counter of the jump bytecode.
+     * @param pcTo an {@code int}, the program counter after the jump.
+     */
+    void record(Signature method, int pcFrom, int pcTo) {
+        if (method != this.methodLast) {
+            Integer id = this.methodIds.get(method);
+            if (id == null) {
+                this.methods.add(method);
+                id = this.methods.size();
+                this.methodIds.put(method, id);
+            }
+            this.methodLast = method;
+            this.methodLastId = id.longValue();
+        }
+
+        //program counters fit in 16 bits
+        add((this.methodLastId << 32) | ((pcFrom & 0xFFFFL) << 16) | (pcTo & 0xFFFFL));
+    }
+
+    /**
+     * Records the entry in a method.
+     *
+     * @param method the {@link Signature} of the method.
+     */
+    void recordEntry(Signature method) {
+        record(method, 0, 0);
+    }
+
+    private void add(long branch) {
+        final int mask = this.table.length - 1;
+        int i = slot(branch, mask);
+        while (this.table[i] != EMPTY) {
+            if (this.table[i] == branch) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        this.table[i] = branch;
+        if (this.size == this.branches.length) {
+            final long[] branchesNew = new long[this.branches.length * 2];
+            System.arraycopy(this.branches, 0, branchesNew, 0, this.size);
+            this.branches = branchesNew;
+        }
+        this.branches[this.size++] = branch;
+        if (this.size * 2 > this.table.length) {
+            rehash();
+        }
+    }
+
+    private static int slot(long branch, int mask) {
+        final long h = branch * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        this.table = new long[this.table.length * 2];
+        final int mask = this.table.length - 1;
+        for (int j = 0; j < this.size; ++j) {
+            final long branch = this.branches[j];
+            int i = slot(branch, mask);
+            while (this.table[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            this.table[i] = branch;
+        }
+    }
+
+    /**
+     * Returns the covered branches.
+     *
+     * @return an unmodifiable {@link Set}{@code <}{@link String}{@code >}
+     *         containing the names of all the branches recorded so far,
+     *         and of the initial branches. It is not affected by the 
+     *         branches recorded afterwards, and once published it can
+     *         be read by other threads.
+     */
+    Set<String> getBranches() {
+        if (this.branchesNamed < this.size) {
+            for (int j = this.branchesNamed; j < this.size; ++j) {
+                final long branch = this.branches[j];
+                final Signature method = this.methods.get((int) (branch >>> 32) - 1);
+                final String branchName = method.toString() + ":" + ((branch >>> 16) & 0xFFFFL) + ":" + (branch & 0xFFFFL);
+                if (this.branchesInitial.contains(branchName)) {
+                    continue;
+                }
+                if (this.branchNamesCount == this.branchNames.length) {
+                    this.branchNames = Arrays.copyOf(this.branchNames, this.branchNames.length * 2);
+                }
+                this.branchNames[this.branchNamesCount++] = branchName;
+            }
+            this.branchesNamed = this.size;
+        }
+        if (this.branchesLast == null || this.branchesLast.count < this.branchNamesCount) {
+            this.branchesLast = new Branches(this.branchesInitial, this.branchNames, this.branchNamesCount);
+        }
+        return this.branchesLast;
+    }
+
+    /**
+     * An immutable view of the covered branches, made of the
+     * initial branches and of a prefix of the recorded ones.
+     *
+     * @author Pietro Braione
+     */
+    private static final class Branches extends AbstractSet<String> {
+        /** The names of the initial branches. */
+        private final Set<String> branchesInitial;
+
+        /** The names of the recorded branches, the first {@link #count} are in the view. */
+        private final String[] branchNames;
+
+        /** The number of the recorded branches in the view. */
+        private final int count;
+
+        /**
+         * The names of all the branches in the view, built
+         * at the first membership test, or {@code null}.
+         */
+        private volatile HashSet<String> index = null;
+
+        Branches(Set<String> branchesInitial, String[] branchNames, int count) {
+            this.branchesInitial = branchesInitial;
+            this.branchNames = branchNames;
+            this.count = count;
+        }
+
+        @Override
+        public int size() {
+            return this.branchesInitial.size() + this.count;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            //races are harmless, at worst the index is built twice
+            HashSet<String> index = this.index;
+            if (index == null) {
+                index = new HashSet<>(this);
+                this.index = index;
+            }
+            return index.contains(o);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private final Iterator<String> itInitial = Branches.this.branchesInitial.iterator();
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return this.itInitial.hasNext() || this.next < Branches.this.count;
+                }
+
+                @Override
+                public String next() {
+                    if (this.itInitial.hasNext()) {
+                        return this.itInitial.next();
+                    }
+                    if (this.next < Branches.this.count) {
+                        return Branches.this.branchNames[this.next++];
+                    }
+                    throw new NoSuchElementException();
+                }
+            };
+        }
+    }
+}
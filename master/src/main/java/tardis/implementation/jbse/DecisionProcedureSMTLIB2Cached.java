@@ -0,0 +1,108 @@
+package tardis.implementation.jbse;
+
+import java.util.List;
+
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.DecisionProcedure;
+import jbse.dec.DecisionProcedureSMTLIB2_AUFNIRA;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
+import jbse.val.Expression;
+
+/**
+ * A {@link DecisionProcedureSMTLIB2_AUFNIRA} that asks a
+ * {@link FastPathSolver} first, then looks up the answers
+ * of the solver in a {@link SMTQueryCache} before
+ * querying it, and stores them afterwards.
+ *
+ * @author Pietro Braione
+ */
+class DecisionProcedureSMTLIB2Cached extends DecisionProcedureSMTLIB2_AUFNIRA {
+    /** The cache, or {@code null} if the answers are not cached. */
+    private final SMTQueryCache cache;
+
+    /** The fast path solver, or {@code null} if there is none. */
+    private final FastPathSolver fastPath;
+
+    /**
+     * The time after which the solver gives up on a query,
+     * answering unknown.
+     */
+    private final long timeoutNanos;
+
+    /**
+     * The signature of the target method of the runner
+     * that uses this decision procedure, that scopes 
+     * the cached answers.
+     */
+    private String cacheScope = "";
+
+    /**
+     * Constructor.
+     *
+     * @param next the next {@link DecisionProcedure} in the chain.
+     * @param solverCommandLine a {@link List}{@code <}{@link String}{@code >},
+     *        the command line to launch the solver.
+     * @param solverTimeoutMillis a {@code long}, the timeout of the solver
+     *        in milliseconds as set by {@code solverCommandLine}.
+     * @param cache a {@link SMTQueryCache}, or {@code null} if the
+     *        answers must not be cached.
+     * @param fastPath a {@link FastPathSolver}, or {@code null} if
+     *        all the queries must be sent to the solver.
+     * @throws InvalidInputException if the solver command line is invalid.
+     * @throws DecisionException if the solver process cannot be launched.
+     */
+    DecisionProcedureSMTLIB2Cached(DecisionProcedure next, List<String> solverCommandLine, long solverTimeoutMillis, SMTQueryCache cache, FastPathSolver fastPath)
+    throws InvalidInputException, DecisionException {
+        super(next, solverCommandLine);
+        this.cache = cache;
+        this.fastPath = fastPath;
+        this.timeoutNanos = solverTimeoutMillis * 1_000_000L;
+    }
+
+    /**
+     * Sets the signature of the target method of the 
+     * runner that uses this decision procedure, that 
+     * scopes the cached answers.
+     *
+     * @param cacheScope a {@link String}.
+     */
+    void setCacheScope(String cacheScope) {
+        this.cacheScope = cacheScope;
+    }
+
+    @Override
+    protected boolean isSatLocal(Expression exp, Expression expSimpl) throws DecisionException {
+        if (this.fastPath != null) {
+            final List<Clause> assumptions = getAssumptions();
+            final Boolean decision = this.fastPath.isSat(assumptions, expSimpl);
+            if (decision == null) {
+                //falls through
+            } else if (this.fastPath.isCheck()) {
+                final boolean decisionSolver = super.isSatLocal(exp, expSimpl);
+                this.fastPath.check(assumptions, expSimpl, decision.booleanValue(), decisionSolver);
+                return decisionSolver;
+            } else {
+                return decision.booleanValue();
+            }
+        }
+        if (this.cache == null) {
+            return super.isSatLocal(exp, expSimpl);
+        }
+        final String key = SMTQueryCache.key(this.cacheScope, getAssumptions(), expSimpl);
+        if (key == null) {
+            return super.isSatLocal(exp, expSimpl);
+        }
+        final Boolean cached = this.cache.get(key);
+        if (cached != null) {
+            return cached.booleanValue();
+        }
+
+        //the solver answers unknown (thus sat) on timeout
+        final long start = System.nanoTime();
+        final boolean retVal = super.isSatLocal(exp, expSimpl);
+        final boolean possiblyTimeout = (retVal && System.nanoTime() - start >= this.timeoutNanos);
+        this.cache.put(key, retVal, possiblyTimeout);
+        return retVal;
+    }
+}
@@ -0,0 +1,204 @@
+package tardis.implementation.jbse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.dec.exc.DecisionException;
+import jbse.rewr.CalculatorRewriting;
+
+/**
+ * A pool of {@link DecisionProcedureSMTLIB2Cached}s, each
+ * backed by a long-lived solver process. The JBSE runners lease
+ * a decision procedure from the pool instead of spawning
+ * a new solver process; when the runner's engine is closed
+ * the decision procedure is reset and returned to the pool.
+ * A decision procedure that fails to reset, or that was leased
+ * too many times, is disposed of, and so is its solver process.
+ * The pool does not bound the number of live solver processes:
+ * {@link #lease()} never blocks, and launches a new solver process
+ * whenever no idle one is available, thus the pool grows with the 
+ * number of the runners that concurrently hold a decision procedure
+ * (a JBSE job may hold more than one, e.g., its pre-frontier and 
+ * post-frontier runners, while the frontier threads hold their own).
+ * Only the idle solver processes are bounded, and the ones exceeding
+ * the bound are disposed of when returned. Blocking instead would 
+ * deadlock a job waiting for its second decision procedure while 
+ * all the others are held by jobs doing the same.
+ *
+ * @author Pietro Braione
+ */
+final class DecisionProcedureSMTLIB2Pool implements AutoCloseable {
+    /** The command line of the solver. */
+    private final ArrayList<String> solverCommandLine;
+
+    /** The timeout of the solver in milliseconds. */
+    private final long solverTimeoutMillis;
+
+    /** The cache of the solver answers, or {@code null}. */
+    private final SMTQueryCache cache;
+
+    /** The fast path solver, or {@code null}. */
+    private final FastPathSolver fastPath;
+
+    /** The maximum number of idle decision procedures that are kept. */
+    private final int maxIdle;
+
+    /**
+     * The maximum number of times a decision procedure
+     * is leased before it is disposed of.
+     */
+    private final int maxLeases;
+
+    /** The idle decision procedures. */
+    private final ArrayDeque<Pooled> idle = new ArrayDeque<>();
+
+    /** Set when the pool is closed. */
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param solverCommandLine a {@link List}{@code <}{@link String}{@code >},
+     *        the command line to launch the solver.
+     * @param solverTimeoutMillis a {@code long}, the timeout of the solver
+     *        in milliseconds as set by {@code solverCommandLine}.
+     * @param cache a {@link SMTQueryCache} shared by the pooled decision
+     *        procedures, or {@code null} if the answers must not be cached.
+     * @param fastPath a {@link FastPathSolver} shared by the pooled decision
+     *        procedures, or {@code null} if all the queries must be sent
+     *        to the solver.
+     * @param maxIdle an {@code int}, the maximum number of idle decision
+     *        procedures kept by the pool. Usually it is the number
+     *        of runners that may concurrently run JBSE. It does not
+     *        bound the number of the leased decision procedures.
+     * @param maxLeases a positive {@code int}, the maximum number of times
+     *        a decision procedure is leased before it is disposed of.
+     */
+    DecisionProcedureSMTLIB2Pool(List<String> solverCommandLine, long solverTimeoutMillis, SMTQueryCache cache, FastPathSolver fastPath, int maxIdle, int maxLeases) {
+        this.solverCommandLine = new ArrayList<>(solverCommandLine);
+        this.solverTimeoutMillis = solverTimeoutMillis;
+        this.cache = cache;
+        this.fastPath = fastPath;
+        this.maxIdle = maxIdle;
+        this.maxLeases = maxLeases;
+    }
+
+    /**
+     * Leases a decision procedure. The decision procedure is returned
+     * to the pool when it is closed, thus it must not be used after
+     * it is closed. Note that the decision procedure has its own
+     * calculator, that the runner leasing it should use.
+     *
+     * @return a {@link Pooled} decision procedure, either an idle
+     *         one or a new one, backed by a new solver process, if 
+     *         no idle one is available. It never blocks.
+     * @throws InvalidInputException if the solver command line is invalid.
+     * @throws DecisionException if the solver process cannot be launched.
+     */
+    Pooled lease() throws InvalidInputException, DecisionException {
+        Pooled retVal;
+        synchronized (this) {
+            retVal = this.idle.poll();
+        }
+        if (retVal == null) {
+            retVal = new Pooled(RunnerPath.makeCalculator(), this.solverCommandLine, this.solverTimeoutMillis, this.cache, this.fastPath);
+        }
+        retVal.leased = true;
+        ++retVal.leases;
+        return retVal;
+    }
+
+    private void release(Pooled dec) throws DecisionException {
+        //health check: resets the decision procedure, and
+        //if the solver process does not respond disposes of it
+        boolean healthy;
+        try {
+            dec.stopFastAndImprecise();
+            dec.clearAssumptions();
+            healthy = true;
+        } catch (DecisionException e) {
+            healthy = false;
+        }
+
+        //puts the decision procedure back in the pool
+        //if it is healthy and not worn out
+        synchronized (this) {
+            if (healthy && !this.closed && dec.leases < this.maxLeases && this.idle.size() < this.maxIdle) {
+                this.idle.push(dec);
+                return;
+            }
+        }
+        dec.dispose();
+    }
+
+    /**
+     * Closes this pool by disposing of all the idle
+     * decision procedures. The decision procedures
+     * currently leased are disposed of as soon as
+     * they are closed.
+     */
+    @Override
+    public void close() {
+        final ArrayList<Pooled> toDispose;
+        synchronized (this) {
+            this.closed = true;
+            toDispose = new ArrayList<>(this.idle);
+            this.idle.clear();
+        }
+        for (Pooled dec : toDispose) {
+            try {
+                dec.dispose();
+            } catch (DecisionException e) {
+                //nothing we can do, continue
+            }
+        }
+    }
+
+    /**
+     * A {@link DecisionProcedureSMTLIB2Cached} that is
+     * returned to its pool when closed.
+     *
+     * @author Pietro Braione
+     */
+    final class Pooled extends DecisionProcedureSMTLIB2Cached {
+        /** The calculator of this decision procedure. */
+        private final CalculatorRewriting calculatorRewriting;
+
+        /** Whether this decision procedure is currently leased. */
+        private boolean leased = false;
+
+        /** How many times this decision procedure was leased. */
+        private int leases = 0;
+
+        private Pooled(CalculatorRewriting calc, List<String> solverCommandLine, long solverTimeoutMillis, SMTQueryCache cache, FastPathSolver fastPath)
+        throws InvalidInputException, DecisionException {
+            super(new DecisionProcedureAlwSat(calc), solverCommandLine, solverTimeoutMillis, cache, fastPath);
+            this.calculatorRewriting = calc;
+        }
+
+        /**
+         * Returns the calculator of this decision procedure.
+         *
+         * @return a {@link CalculatorRewriting}.
+         */
+        CalculatorRewriting getCalculatorRewriting() {
+            return this.calculatorRewriting;
+        }
+
+        @Override
+        protected void closeLocal() throws DecisionException {
+            //the engine may close its decision procedure more than once
+            if (this.leased) {
+                this.leased = false;
+                release(this);
+            }
+        }
+
+        private void dispose() throws DecisionException {
+            super.closeLocal();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package tardis.implementation.jbse;
+
+import java.util.Map;
+import java.util.Set;
+
+import jbse.mem.State;
+import jbse.mem.exc.FrozenStateException;
+import sushi.formatters.StateFormatterSushiPathCondition;
+
+/**
+ * The source code of an EvoSuite wrapper, rendered from the
+ * path condition of a {@link State} but not yet bound to the
+ * number that identifies the test to be generated. It is
+ * immutable.
+ *
+ * @author Pietro Braione
+ */
+public final class EvoSuiteWrapperSource {
+    /**
+     * The number used to identify the test while rendering,
+     * replaced with the actual one by {@link #getSource(int)}.
+     */
+    private static final int TEST_COUNT_PLACEHOLDER = Integer.MAX_VALUE;
+
+    /** The name of the wrapper class as rendered. */
+    private static final String CLASS_NAME_PLACEHOLDER = "EvoSuiteWrapper_" + TEST_COUNT_PLACEHOLDER;
+
+    /**
+     * The name of the package of the wrapper, in
+     * internal (slash-separated) format.
+     */
+    private final String packageName;
+
+    /**
+     * The source code of the wrapper, where the name
+     * of the wrapper class is {@link #CLASS_NAME_PLACEHOLDER}.
+     */
+    private final String source;
+
+    private EvoSuiteWrapperSource(String packageName, String source) {
+        this.packageName = packageName;
+        this.source = source;
+    }
+
+    /**
+     * Renders the EvoSuite wrapper for the path condition of some state.
+     *
+     * @param initialState a {@link State}; must be the initial state in the execution
+     *        for which we want to generate the wrapper.
+     * @param finalState a {@link State}; must be the final state in the execution
+     *        for which we want to generate the wrapper.
+     * @param stringLiterals a {@link Map}{@code <}{@link Long}{@code , }{@link String}{@code >},
+     *        mapping a heap position of a {@link String} literal to the
+     *        corresponding value of the literal.
+     * @param stringOthers a {@link Set}{@code <}{@link Long}{@code >},
+     *        listing the heap positions of the nonconstant {@link String}s.
+     * @param forbiddenExpansions a {@link Set}{@code <}{@link String}{@code >},
+     *        the class names of the forbidden expansions, or {@code null}.
+     * @return the rendered {@link EvoSuiteWrapperSource}.
+     * @throws FrozenStateException if {@code initialState} is frozen.
+     */
+    public static EvoSuiteWrapperSource render(State initialState, State finalState, Map<Long, String> stringLiterals, Set<Long> stringOthers, Set<String> forbiddenExpansions)
+    throws FrozenStateException {
+        final StateFormatterSushiPathCondition fmt = new StateFormatterSushiPathCondition(TEST_COUNT_PLACEHOLDER, () -> initialState, true);
+        try {
+            fmt.setStringsConstant(stringLiterals);
+            fmt.setStringsNonconstant(stringOthers);
+            if (forbiddenExpansions != null) {
+                fmt.setForbiddenExpansions(forbiddenExpansions);
+            }
+            fmt.formatPrologue();
+            fmt.formatState(finalState);
+            fmt.formatEpilogue();
+            final String initialCurrentClassName = initialState.getStack().get(0).getMethodClass().getClassName();
+            final int lastSlash = initialCurrentClassName.lastIndexOf('/');
+            final String initialCurrentClassPackageName = (lastSlash == -1 ? "" : initialCurrentClassName.substring(0, lastSlash));
+            return new EvoSuiteWrapperSource(initialCurrentClassPackageName, fmt.emit());
+        } finally {
+            fmt.cleanup();
+        }
+    }
+
+    /**
+     * Gets the name of the package of the wrapper.
+     *
+     * @return a {@link String}, the name of the package
+     *         in internal (slash-separated) format,
+     *         {@code ""} for the default package.
+     */
+    public String getPackageName() {
+        return this.packageName;
+    }
+
+    /**
+     * Gets the source code of the wrapper.
+     *
+     * @param testCount an {@code int}, the number used to identify the test.
+     * @return a {@link String}, the source code of the wrapper class
+     *         {@code EvoSuiteWrapper_<testCount>}.
+     */
+    public String getSource(int testCount) {
+        return this.source.replace(CLASS_NAME_PLACEHOLDER, "EvoSuiteWrapper_" + testCount);
+    }
+}
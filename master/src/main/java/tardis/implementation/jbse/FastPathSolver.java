@@ -0,0 +1,361 @@
+package tardis.implementation.jbse;
+
+import static jbse.common.Type.BYTE;
+import static jbse.common.Type.CHAR;
+import static jbse.common.Type.INT;
+import static jbse.common.Type.LONG;
+import static jbse.common.Type.SHORT;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.val.Expression;
+import jbse.val.Operator;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolicAtomic;
+import jbse.val.Simplex;
+
+/**
+ * An in-process decision procedure for the trivial queries, that
+ * the {@link DecisionProcedureSMTLIB2Cached}s ask before the solver.
+ * It decides the conjunctions of comparisons between an integral
+ * symbol and a literal by propagating the interval (and the excluded
+ * values) of every symbol. A query is satisfiable if all its
+ * numeric assumptions and the queried expression are such conjunctions,
+ * and no interval is empty. It is unsatisfiable if some interval is empty,
+ * even if other clauses are not conjunctions of comparisons with literals,
+ * because such comparisons are implied by the clauses they are conjuncts of.
+ * Otherwise the query is left to the solver. The assumptions on references
+ * are not considered, since the solver does not consider them either.
+ * In checking mode every decision is compared to that of the solver,
+ * and the mismatches are logged.
+ *
+ * @author Pietro Braione
+ */
+final class FastPathSolver {
+    private static final Logger LOGGER = LogManager.getFormatterLogger(FastPathSolver.class);
+
+    /** Whether the decisions must be checked against the solver. */
+    private final boolean check;
+
+    /** The number of the queries decided. */
+    private final AtomicLong decided = new AtomicLong(0);
+
+    /** The number of the queries left to the solver. */
+    private final AtomicLong undecided = new AtomicLong(0);
+
+    /** The number of the decisions that the solver contradicted. */
+    private final AtomicLong mismatches = new AtomicLong(0);
+
+    /**
+     * Constructor.
+     *
+     * @param check a {@code boolean}, {@code true} iff every decision
+     *        must be checked against the solver.
+     */
+    FastPathSolver(boolean check) {
+        this.check = check;
+    }
+
+    /**
+     * Returns whether the decisions must be checked against the solver.
+     *
+     * @return a {@code boolean}.
+     */
+    boolean isCheck() {
+        return this.check;
+    }
+
+    /**
+     * Decides a query, if it is trivial.
+     *
+     * @param assumptions a {@link Collection}{@code <}{@link Clause}{@code >},
+     *        the current assumptions.
+     * @param exp the queried {@link Expression}.
+     * @return {@link Boolean#TRUE} if the assumptions and {@code exp} are
+     *         satisfiable, {@link Boolean#FALSE} if they are not, {@code null}
+     *         if the query is not trivial and must be left to the solver.
+     */
+    Boolean isSat(Collection<Clause> assumptions, Expression exp) {
+        final Constraints constraints = new Constraints();
+        boolean complete = true;
+        for (Clause c : assumptions) {
+            if (c instanceof ClauseAssume) {
+                complete = constraints.add(((ClauseAssume) c).getCondition(), true) && complete;
+            } //else, the clause is on references
+        }
+        complete = constraints.add(exp, true) && complete;
+
+        if (constraints.isContradictory()) {
+            this.decided.incrementAndGet();
+            return Boolean.FALSE;
+        } else if (complete) {
+            this.decided.incrementAndGet();
+            return Boolean.TRUE;
+        } else {
+            this.undecided.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Checks a decision against that of the solver,
+     * and logs it if they differ.
+     *
+     * @param assumptions a {@link Collection}{@code <}{@link Clause}{@code >},
+     *        the assumptions of the query.
+     * @param exp the queried {@link Expression}.
+     * @param decision a {@code boolean}, the decision as returned by
+     *        {@link #isSat(Collection, Expression)}.
+     * @param decisionSolver a {@code boolean}, the decision of the solver.
+     */
+    void check(Collection<Clause> assumptions, Expression exp, boolean decision, boolean decisionSolver) {
+        //note that the solver answers sat also when it times
+        //out, thus not all the logged mismatches are genuine
+        if (decision != decisionSolver) {
+            this.mismatches.incrementAndGet();
+            LOGGER.error("Fast path decision %s differs from solver decision %s on query %s under assumptions %s",
+                         (decision ? "sat" : "unsat"), (decisionSolver ? "sat" : "unsat"), exp.toString(), assumptions.toString());
+        }
+    }
+
+    long getDecided() {
+        return this.decided.get();
+    }
+
+    long getUndecided() {
+        return this.undecided.get();
+    }
+
+    long getMismatches() {
+        return this.mismatches.get();
+    }
+
+    /**
+     * The intervals of the symbols in a query.
+     *
+     * @author Pietro Braione
+     */
+    private static final class Constraints {
+        /** Maps every constrained symbol to its interval. */
+        private final HashMap<Primitive, Interval> intervals = new HashMap<>();
+
+        /** Set when a clause is the literal false. */
+        private boolean literalFalse = false;
+
+        /**
+         * Adds the comparisons with literals that are implied
+         * by a condition.
+         *
+         * @param condition a {@link Primitive}, the condition.
+         * @param positive a {@code boolean}, {@code false} iff
+         *        the condition is negated.
+         * @return {@code true} iff the added comparisons are
+         *         equivalent to {@code condition}; otherwise they
+         *         are only implied by it.
+         */
+        boolean add(Primitive condition, boolean positive) {
+            if (condition instanceof Simplex) {
+                final Object value = ((Simplex) condition).getActualValue();
+                if (value instanceof Boolean) {
+                    if (((Boolean) value).booleanValue() != positive) {
+                        this.literalFalse = true;
+                    }
+                    return true;
+                }
+                return false;
+            }
+            if (!(condition instanceof Expression)) {
+                return false;
+            }
+            final Expression e = (Expression) condition;
+            final Operator operator = e.getOperator();
+            if (operator == Operator.NOT) {
+                return add(e.getOperand(), !positive);
+            } else if ((operator == Operator.AND && positive) || (operator == Operator.OR && !positive)) {
+                //both conjuncts (possibly by De Morgan)
+                final boolean first = add(e.getFirstOperand(), positive);
+                final boolean second = add(e.getSecondOperand(), positive);
+                return first && second;
+            } else if (isComparison(operator)) {
+                final Operator comparison = (positive ? operator : negate(operator));
+                final Primitive first = e.getFirstOperand();
+                final Primitive second = e.getSecondOperand();
+                if (isIntegralSymbol(first) && second instanceof Simplex) {
+                    return addComparison(first, comparison, (Simplex) second);
+                } else if (first instanceof Simplex && isIntegralSymbol(second)) {
+                    return addComparison(second, flip(comparison), (Simplex) first);
+                }
+            }
+            return false;
+        }
+
+        private boolean addComparison(Primitive symbol, Operator comparison, Simplex literal) {
+            final Object value = literal.getActualValue();
+            final long v;
+            if (value instanceof Character) {
+                v = ((Character) value).charValue();
+            } else if (value instanceof Number && !(value instanceof Float || value instanceof Double)) {
+                v = ((Number) value).longValue();
+            } else {
+                return false;
+            }
+            Interval interval = this.intervals.get(symbol);
+            if (interval == null) {
+                interval = new Interval(symbol.getType());
+                this.intervals.put(symbol, interval);
+            }
+            interval.add(comparison, v);
+            return true;
+        }
+
+        boolean isContradictory() {
+            if (this.literalFalse) {
+                return true;
+            }
+            for (Interval interval : this.intervals.values()) {
+                if (interval.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The values that a symbol may assume: An
+     * interval minus a set of excluded values.
+     *
+     * @author Pietro Braione
+     */
+    private static final class Interval {
+        private long min;
+        private long max;
+        private final HashSet<Long> excluded = new HashSet<>();
+
+        Interval(char type) {
+            switch (type) {
+            case BYTE:
+                this.min = Byte.MIN_VALUE;
+                this.max = Byte.MAX_VALUE;
+                break;
+            case SHORT:
+                this.min = Short.MIN_VALUE;
+                this.max = Short.MAX_VALUE;
+                break;
+            case CHAR:
+                this.min = Character.MIN_VALUE;
+                this.max = Character.MAX_VALUE;
+                break;
+            case INT:
+                this.min = Integer.MIN_VALUE;
+                this.max = Integer.MAX_VALUE;
+                break;
+            default: //LONG
+                this.min = Long.MIN_VALUE;
+                this.max = Long.MAX_VALUE;
+            }
+        }
+
+        void add(Operator comparison, long v) {
+            switch (comparison) {
+            case EQ:
+                this.min = Math.max(this.min, v);
+                this.max = Math.min(this.max, v);
+                break;
+            case NE:
+                this.excluded.add(v);
+                break;
+            case LT:
+                if (v == Long.MIN_VALUE) {
+                    setEmpty();
+                } else {
+                    this.max = Math.min(this.max, v - 1);
+                }
+                break;
+            case LE:
+                this.max = Math.min(this.max, v);
+                break;
+            case GT:
+                if (v == Long.MAX_VALUE) {
+                    setEmpty();
+                } else {
+                    this.min = Math.max(this.min, v + 1);
+                }
+                break;
+            case GE:
+                this.min = Math.max(this.min, v);
+                break;
+            default:
+                //this should never happen
+                throw new AssertionError("Attempted to add a non-comparison operator " + comparison + " to an interval.");
+            }
+        }
+
+        private void setEmpty() {
+            this.min = 1;
+            this.max = 0;
+        }
+
+        boolean isEmpty() {
+            if (this.min > this.max) {
+                return true;
+            }
+            //the interval is empty if all its values are
+            //excluded; if its width overflows it is huge
+            final long width = this.max - this.min;
+            if (width < 0 || width >= this.excluded.size()) {
+                return false;
+            }
+            int excludedInInterval = 0;
+            for (long v : this.excluded) {
+                if (this.min <= v && v <= this.max) {
+                    ++excludedInInterval;
+                }
+            }
+            return excludedInInterval > width;
+        }
+    }
+
+    private static boolean isIntegralSymbol(Primitive p) {
+        if (!(p instanceof PrimitiveSymbolicAtomic)) {
+            return false;
+        }
+        final char type = p.getType();
+        return type == BYTE || type == SHORT || type == CHAR || type == INT || type == LONG;
+    }
+
+    private static boolean isComparison(Operator operator) {
+        return operator == Operator.EQ || operator == Operator.NE ||
+               operator == Operator.LT || operator == Operator.LE ||
+               operator == Operator.GT || operator == Operator.GE;
+    }
+
+    private static Operator negate(Operator comparison) {
+        switch (comparison) {
+        case EQ: return Operator.NE;
+        case NE: return Operator.EQ;
+        case LT: return Operator.GE;
+        case LE: return Operator.GT;
+        case GT: return Operator.LE;
+        default: return Operator.LT; //GE
+        }
+    }
+
+    private static Operator flip(Operator comparison) {
+        switch (comparison) {
+        case LT: return Operator.GT;
+        case LE: return Operator.GE;
+        case GT: return Operator.LT;
+        case GE: return Operator.LE;
+        default: return comparison; //EQ, NE
+        }
+    }
+}
@@ -13,7 +13,9 @@ import jbse.mem.State;
 /**
  * A work item produced by the JBSE performer and 
  * consumed by the Evosuite performer. It represents a 
- * path to a frontier. It is immutable.
+ * path to a frontier. It is immutable. The {@link State}s
+ * it refers to are not cloned, and are possibly shared with 
+ * other {@link JBSEResult}s, thus they must not be modified.
  * 
  * @author Pietro Braione
  */
@@ -48,12 +50,6 @@ public final class JBSEResult {
      */
     private final State initialState;
     
-    /**
-     * The pre-frontier {@link State} of the path, or {@code null}
-     * if this {@link JBSEResult} is a seed item.
-     */
-    private final State preState;
-    
     /**
      * The final (post-frontier) {@link State} of the path, or 
      * {@code null} if this {@link JBSEResult} is a seed item.
@@ -109,6 +105,14 @@ public final class JBSEResult {
      * is an expands clause.
      */
     private final HashSet<String> forbiddenExpansions;
+    
+    /**
+     * The source code of the EvoSuite wrapper for the path, 
+     * rendered by the JBSE performer, or {@code null} if
+     * the wrapper was not rendered eagerly or this 
+     * {@link JBSEResult} is a seed item.
+     */
+    private final EvoSuiteWrapperSource wrapperSource;
 
     /**
      * Constructor for seed item (target method).
@@ -125,7 +129,6 @@ public final class JBSEResult {
         this.targetMethodDescriptor = targetMethod.get(1);
         this.targetMethodName = targetMethod.get(2);
         this.initialState = null;
-        this.preState = null;
         this.postState = null;
         this.pathConditionGenerated = null;
         this.atJump = false;
@@ -134,6 +137,7 @@ public final class JBSEResult {
         this.stringOthers = null;
         this.depth = 0;
         this.forbiddenExpansions = null;
+        this.wrapperSource = null;
     }
 
     /**
@@ -147,7 +151,6 @@ public final class JBSEResult {
         this.targetMethodDescriptor = null;
         this.targetMethodName = null;
         this.initialState = null;
-        this.preState = null;
         this.postState = null;
         this.pathConditionGenerated = null;
         this.atJump = false;
@@ -156,6 +159,7 @@ public final class JBSEResult {
         this.stringOthers = null;
         this.depth = 0;
         this.forbiddenExpansions = null;
+        this.wrapperSource = null;
     }
 
     /**
@@ -168,9 +172,11 @@ public final class JBSEResult {
      * @param targetMethodName a {@link String}, the name 
      *        of the target method.
      * @param initialState the initial {@link State} of the path.
-     * @param preState the pre-frontier {@link State} of the path.
+     *        It is not cloned, and can be shared with other
+     *        {@link JBSEResult}s with the same target method.
      * @param postState the post-frontier (final) {@link State} 
-     *        of the path.
+     *        of the path. It is not cloned, thus the caller must
+     *        not modify it after construction.
      * @param pathConditionGenerated the post-frontier (final) 
      *        path condition, produced from
      *        {@code postState}'s path condition.
@@ -189,15 +195,14 @@ public final class JBSEResult {
      *        to the frontier.
      */
     public JBSEResult(String targetMethodClassName, String targetMethodDescriptor, String targetMethodName, State initialState, 
-                      State preState, State postState, List<Clause> pathConditionGenerated, boolean atJump, String targetBranch, Map<Long, String> stringLiterals, 
+                      State postState, List<Clause> pathConditionGenerated, boolean atJump, String targetBranch, Map<Long, String> stringLiterals, 
                       Set<Long> stringOthers, int depth) {
         this.targetClassName = null;
         this.targetMethodClassName = targetMethodClassName;
         this.targetMethodDescriptor = targetMethodDescriptor;
         this.targetMethodName = targetMethodName;
-        this.initialState = initialState.clone();
-        this.preState = preState.clone();
-        this.postState = postState.clone();
+        this.initialState = initialState; //no safety clone, shared
+        this.postState = postState;       //no safety clone, owned
         this.pathConditionGenerated = new ArrayList<>(pathConditionGenerated); //safety copy
         this.atJump = atJump;
         this.targetBranch = (atJump ? targetBranch : null);
@@ -205,6 +210,7 @@ public final class JBSEResult {
         this.stringOthers = new HashSet<>(stringOthers);     //safety copy
         this.depth = depth;
         this.forbiddenExpansions = null;
+        this.wrapperSource = null;
     }
 
     /**
@@ -217,9 +223,11 @@ public final class JBSEResult {
      * @param targetMethodName a {@link String}, the name 
      *        of the target method.
      * @param initialState the initial {@link State} of the path.
-     * @param preState the pre-frontier {@link State} of the path.
+     *        It is not cloned, and can be shared with other
+     *        {@link JBSEResult}s with the same target method.
      * @param postState the post-frontier (final) {@link State} 
-     *        of the path.
+     *        of the path. It is not cloned, thus the caller must
+     *        not modify it after construction.
      * @param pathConditionGenerated the post-frontier (final) 
      *        path condition, produced from
      *        {@code postState}'s path condition.
@@ -242,15 +250,14 @@ public final class JBSEResult {
      *        is an expands clause.
      */
     public JBSEResult(String targetMethodClassName, String targetMethodDescriptor, String targetMethodName, State initialState, 
-                      State preState, State postState, List<Clause> pathConditionGenerated, boolean atJump, String targetBranch, Map<Long, String> stringLiterals, 
+                      State postState, List<Clause> pathConditionGenerated, boolean atJump, String targetBranch, Map<Long, String> stringLiterals, 
                       Set<Long> stringOthers, int depth, Set<String> forbiddenExpansions) {
         this.targetClassName = null;
         this.targetMethodClassName = targetMethodClassName;
         this.targetMethodDescriptor = targetMethodDescriptor;
         this.targetMethodName = targetMethodName;
-        this.initialState = initialState.clone();
-        this.preState = preState.clone();
-        this.postState = postState.clone();
+        this.initialState = initialState; //no safety clone, shared
+        this.postState = postState;       //no safety clone, owned
         this.pathConditionGenerated = new ArrayList<>(pathConditionGenerated); //safety copy
         this.atJump = atJump;
         this.targetBranch = (atJump ? targetBranch : null);
@@ -258,6 +265,51 @@ public final class JBSEResult {
         this.stringOthers = new HashSet<>(stringOthers);     //safety copy
         this.depth = depth;
         this.forbiddenExpansions = new HashSet<>(forbiddenExpansions); //safety copy
+        this.wrapperSource = null;
+    }
+
+    /**
+     * Constructor for non-seed item (target method only) whose
+     * EvoSuite wrapper was already rendered. It does not refer 
+     * to any {@link State}. 
+     * 
+     * @param targetMethodClassName a {@link String}, 
+     *        the name of the class of the target method.
+     * @param targetMethodDescriptor a {@link String}, the 
+     *        descriptor of the target method.
+     * @param targetMethodName a {@link String}, the name 
+     *        of the target method.
+     * @param wrapperSource the {@link EvoSuiteWrapperSource} 
+     *        rendered from the post-frontier (final) state
+     *        of the path.
+     * @param pathConditionGenerated the post-frontier (final) 
+     *        path condition, produced from the post-frontier
+     *        state's path condition.
+     * @param atJump a {@code boolean}, set to {@code true} iff 
+     *        the frontier is a jump bytecode.
+     * @param targetBranch a {@link String} that identifies the target
+     *        branch. If {@code atJump == false} it is irrelevant.
+     * @param depth a positive {@code int}, the depth of the path 
+     *        to the frontier.
+     * @param forbiddenExpansions a {@link List}{@code <}{@link String}{@code >}, 
+     *        containing the class names of the expansions that are forbidden. 
+     */
+    public JBSEResult(String targetMethodClassName, String targetMethodDescriptor, String targetMethodName, EvoSuiteWrapperSource wrapperSource, 
+                      List<Clause> pathConditionGenerated, boolean atJump, String targetBranch, int depth, Set<String> forbiddenExpansions) {
+        this.targetClassName = null;
+        this.targetMethodClassName = targetMethodClassName;
+        this.targetMethodDescriptor = targetMethodDescriptor;
+        this.targetMethodName = targetMethodName;
+        this.initialState = null;
+        this.postState = null;
+        this.pathConditionGenerated = new ArrayList<>(pathConditionGenerated); //safety copy
+        this.atJump = atJump;
+        this.targetBranch = (atJump ? targetBranch : null);
+        this.stringLiterals = new HashMap<>();
+        this.stringOthers = new HashSet<>();
+        this.depth = depth;
+        this.forbiddenExpansions = new HashSet<>(forbiddenExpansions); //safety copy
+        this.wrapperSource = wrapperSource;
     }
     
     /**
@@ -266,7 +318,20 @@ public final class JBSEResult {
      * @return {@code true} iff this is a seed item.
      */
     public boolean isSeed() {
-        return this.initialState == null;
+        return this.pathConditionGenerated == null;
+    }
+    
+    /**
+     * Checks whether the EvoSuite wrapper for
+     * this item was already rendered.
+     * 
+     * @return {@code true} iff {@link #getWrapperSource() getWrapperSource}{@code () != null}.
+     *         In this case {@link #getInitialState() getInitialState}{@code ()} and 
+     *         {@link #getPostFrontierState() getPostFrontierState}{@code ()} 
+     *         return {@code null}.
+     */
+    public boolean hasWrapperSource() {
+        return this.wrapperSource != null;
     }
     
     /**
@@ -345,16 +410,6 @@ public final class JBSEResult {
         return this.initialState;
     }
 
-    /**
-     * Gets the pre-frontier {@link State} of the path.
-     * 
-     * @return a {@link State}, or {@code null}
-     *         if {@link #isSeed() isSeed}{@code () == true}.
-     */
-    public State getPreFrontierState() {
-        return this.preState;
-    }
-    
     /**
      * Gets the post-frontier (final) {@link State} of the path.
      * 
@@ -441,4 +496,15 @@ public final class JBSEResult {
     public Set<String> getForbiddenExpansions() {
     	return this.forbiddenExpansions;
     }
+    
+    /**
+     * Gets the rendered source code of the 
+     * EvoSuite wrapper for the path.
+     * 
+     * @return an {@link EvoSuiteWrapperSource}, or {@code null}
+     *         if the wrapper was not rendered eagerly.
+     */
+    public EvoSuiteWrapperSource getWrapperSource() {
+    	return this.wrapperSource;
+    }
 }
@@ -0,0 +1,66 @@
+package tardis.implementation.jbse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The budget of a JBSE job, in wall-clock time and in 
+ * steps. It is consumed by all the runners of the job,
+ * that must invoke {@link #step()} at each step.
+ * 
+ * @author Pietro Braione
+ */
+final class JobBudget {
+    /** How many steps must be done before the clock is checked again. */
+    private static final int CLOCK_CHECK_PERIOD = 1024;
+    
+    /** The time the job started. */
+    private final long start = System.nanoTime();
+    
+    /** The time budget in nanoseconds, 0 for no time budget. */
+    private final long durationNanos;
+    
+    /** The step budget, 0 for no step budget. */
+    private final long maxSteps;
+    
+    /** The steps done by the runners of the job. */
+    private final AtomicLong steps = new AtomicLong(0);
+    
+    /**
+     * Constructor.
+     * 
+     * @param duration a {@code long}, the duration of the
+     *        time budget, 0 for no time budget.
+     * @param unit the {@link TimeUnit} of {@code duration}.
+     * @param maxSteps a {@code long}, the step budget, 
+     *        0 for no step budget.
+     */
+    JobBudget(long duration, TimeUnit unit, long maxSteps) {
+        this.durationNanos = unit.toNanos(duration);
+        this.maxSteps = maxSteps;
+    }
+    
+    /**
+     * Consumes one step of budget.
+     * 
+     * @throws JobBudgetExhaustedException if the 
+     *         budget is exhausted.
+     */
+    void step() {
+        final long stepsDone = this.steps.incrementAndGet();
+        if (this.maxSteps > 0 && stepsDone > this.maxSteps) {
+            throw new JobBudgetExhaustedException("exhausted the budget of " + this.maxSteps + " steps");
+        }
+        if (this.durationNanos > 0 && stepsDone % CLOCK_CHECK_PERIOD == 0 && getElapsedNanos() > this.durationNanos) {
+            throw new JobBudgetExhaustedException("exhausted the time budget after " + stepsDone + " steps");
+        }
+    }
+    
+    long getSteps() {
+        return this.steps.get();
+    }
+    
+    long getElapsedNanos() {
+        return System.nanoTime() - this.start;
+    }
+}
@@ -0,0 +1,20 @@
+package tardis.implementation.jbse;
+
+/**
+ * Exception thrown by the runners of a JBSE job 
+ * when the {@link JobBudget} of the job is exhausted.
+ * 
+ * @author Pietro Braione
+ *
+ */
+final class JobBudgetExhaustedException extends RuntimeException {
+
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 2469705373658215794L;
+    
+    public JobBudgetExhaustedException(String message) {
+        super(message);
+    }
+}
@@ -6,18 +6,19 @@ import static tardis.implementation.common.Util.shorten;
 import static tardis.implementation.common.Util.stringifyPostFrontierPathCondition;
 import static tardis.implementation.common.Util.stringifyTestPathCondition;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.LogManager;
@@ -47,9 +48,11 @@ import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.val.ReferenceSymbolic;
 import tardis.Coverage;
 import tardis.Options;
-import tardis.framework.InputBuffer;
+import tardis.framework.PausableFixedThreadPoolExecutor;
+import tardis.framework.OutputBuffer;
 import tardis.framework.Performer;
 import tardis.framework.PerformerPausableFixedThreadPoolExecutor;
+import tardis.implementation.data.EvosuiteResultInputOutputBuffer;
 import tardis.implementation.data.JBSEResultInputOutputBuffer;
 import tardis.implementation.data.TreePath;
 import tardis.implementation.evosuite.EvosuiteResult;
@@ -67,44 +70,197 @@ public final class PerformerJBSE extends PerformerPausableFixedThreadPoolExecuto
 implements PerformerEvosuiteListener {
     private static final Logger LOGGER = LogManager.getFormatterLogger(PerformerJBSE.class);
     
-    private static final int NUM_INPUTS_PER_JOB = 1;
+    /** 
+     * The maximum time the jobs that are running upon 
+     * stop are waited for, in seconds.
+     */
+    private static final long TIMEOUT_JOBS_TERMINATION_SECONDS = 60;
     
     private final Options o;
+    private final EvosuiteResultInputOutputBuffer in;
     private final JBSEResultInputOutputBuffer out;
+    private final OutputBuffer<AcceptedTest> accepted;
     private final TreePath treePath;
-    private final ConcurrentHashMap<String, State> initialStateCache = new ConcurrentHashMap<>();
+    private final StateStore stateStore = new StateStore();
+    private final ConcurrentHashMap<String, Requeued> requeued = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, BudgetStatistics> budgetStatistics = new ConcurrentHashMap<>();
     private final AtomicLong pathCoverage = new AtomicLong(0);
     private final ConcurrentHashMap<MethodPathConditon, Set<String>> freshObjectsExpansions = new ConcurrentHashMap<>();
+    private final PausableFixedThreadPoolExecutor frontierPool;
+    private final SMTQueryCache smtCache;
+    private final FastPathSolver fastPath;
+    private final DecisionProcedureSMTLIB2Pool z3Pool;
+    private final ConcreteTraceFilter traceFilter;
     private boolean testGeneratorTerminated = false;
     
-    public PerformerJBSE(Options o, InputBuffer<EvosuiteResult> in, JBSEResultInputOutputBuffer out, TreePath treePath) {
-        super("PerformerJBSE", in, out, o.getNumOfThreadsJBSE(), NUM_INPUTS_PER_JOB, o.getTimeoutJBSEJobCreationDuration() / NUM_INPUTS_PER_JOB, o.getTimeoutJBSEJobCreationUnit());
+    /**
+     * The frontiers still to be expanded from a test case, that
+     * was requeued because its job exhausted the budget.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class Requeued {
+    	/** The depth of the first frontier that was not expanded. */
+    	private final int depthStart;
+    	
+    	/** The depth window of the next run. */
+    	private final int depthWindow;
+    	
+    	/** The depth of the last frontier in the range of the previous run. */
+    	private final int depthFinal;
+    	
+    	Requeued(int depthStart, int depthWindow, int depthFinal) {
+    		this.depthStart = depthStart;
+    		this.depthWindow = depthWindow;
+    		this.depthFinal = depthFinal;
+    	}
+    }
+    
+    /**
+     * The budget consumed by the jobs for a target method.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class BudgetStatistics {
+    	private long jobs = 0;
+    	private long jobsExhausted = 0;
+    	private long steps = 0;
+    	private long nanos = 0;
+    	private long nanosMax = 0;
+    	
+    	synchronized void record(JobBudget budget, boolean exhausted) {
+    		final long elapsedNanos = budget.getElapsedNanos();
+    		++this.jobs;
+    		if (exhausted) {
+    			++this.jobsExhausted;
+    		}
+    		this.steps += budget.getSteps();
+    		this.nanos += elapsedNanos;
+    		this.nanosMax = Math.max(this.nanosMax, elapsedNanos);
+    	}
+    	
+    	synchronized void log(String targetMethodSignature) {
+    		LOGGER.info("JBSE jobs for target %s: %d job%s, %d exhausted their budget, %d steps and %d ms on average, %d ms at most", 
+    		            targetMethodSignature, this.jobs, (this.jobs == 1 ? "" : "s"), this.jobsExhausted, 
+    		            this.steps / this.jobs, TimeUnit.NANOSECONDS.toMillis(this.nanos / this.jobs), TimeUnit.NANOSECONDS.toMillis(this.nanosMax));
+    	}
+    }
+    
+    public PerformerJBSE(Options o, EvosuiteResultInputOutputBuffer in, JBSEResultInputOutputBuffer out, OutputBuffer<AcceptedTest> accepted, TreePath treePath) {
+        super("PerformerJBSE", in, out, o.getNumOfThreadsJBSE(), o.getNumOfTestsPerJBSEJob(), o.getTimeoutJBSEJobCreationDuration(), o.getTimeoutJBSEJobCreationUnit());
         this.o = o.clone();
+        this.in = in;
         this.out = out;
+        this.accepted = accepted;
         this.treePath = treePath;
+        this.frontierPool = (o.getNumOfThreadsJBSEFrontier() == 0 ? null : new PausableFixedThreadPoolExecutor("PerformerJBSE-frontier", o.getNumOfThreadsJBSEFrontier()));
+        this.smtCache = (o.getSMTCacheSize() == 0 ? null : new SMTQueryCache(o.getSMTCacheSize()));
+        this.fastPath = (o.getSMTFastPath() ? new FastPathSolver(o.getSMTFastPathCheck()) : null);
+        //every job may hold a pre-frontier and a post-frontier runner at once;
+        //this bounds only the idle solver processes, the pool launches more
+        //if more runners hold one at the same time
+        this.z3Pool = (o.getZ3MaxLeases() == 0 ? null : 
+                       new DecisionProcedureSMTLIB2Pool(RunnerPath.makeZ3CommandLine(o.getZ3Path().toString()), RunnerPath.Z3_TIMEOUT_MILLIS, this.smtCache, this.fastPath, 
+                                                        2 * o.getNumOfThreadsJBSE() + o.getNumOfThreadsJBSEFrontier(), o.getZ3MaxLeases()));
+        this.traceFilter = (o.getConcreteTraceFilter() ? new ConcreteTraceFilter(o) : null);
+    }
+    
+    @Override
+    protected void onStop() {
+    	//waits for the jobs that were interrupted by the shutdown,
+    	//that might still accept some test, so the test emitter
+    	//(that is stopped afterwards) copies them
+    	try {
+    		if (!awaitWorkersTermination(TIMEOUT_JOBS_TERMINATION_SECONDS, TimeUnit.SECONDS)) {
+    			LOGGER.warn("Some JBSE jobs did not end within %d seconds after stop, the tests they accept might not be emitted", TIMEOUT_JOBS_TERMINATION_SECONDS);
+    		}
+    	} catch (InterruptedException e) {
+    		//gives up waiting
+    		Thread.currentThread().interrupt();
+    	}
+    	if (this.frontierPool != null) {
+    		this.frontierPool.shutdownNow();
+    	}
+    	if (this.z3Pool != null) {
+    		this.z3Pool.close();
+    	}
+    	if (this.traceFilter != null) {
+    		this.traceFilter.close();
+    	}
+    	if (this.smtCache != null) {
+    		LOGGER.info("SMT query cache: %d hits, %d misses", this.smtCache.getHits(), this.smtCache.getMisses());
+    	}
+    	if (this.fastPath != null) {
+    		LOGGER.info("SMT fast path: %d queries decided, %d left to the solver, %d mismatches with the solver", this.fastPath.getDecided(), this.fastPath.getUndecided(), this.fastPath.getMismatches());
+    	}
+    	for (Map.Entry<String, BudgetStatistics> e : this.budgetStatistics.entrySet()) {
+    		e.getValue().log(e.getKey());
+    	}
     }
 
     @Override
     protected Runnable makeJob(List<EvosuiteResult> items) {
         final Runnable job = () -> {
-        	final EvosuiteResult item = items.get(0);
-            explore(item, item.getStartDepth());
+        	//groups the test cases by target method, so the
+        	//test cases with the same target share the setup
+        	final LinkedHashMap<String, List<EvosuiteResult>> itemsByTarget = new LinkedHashMap<>();
+        	for (EvosuiteResult item : items) {
+        		itemsByTarget.computeIfAbsent(item.getTargetMethodSignature(), k -> new ArrayList<>()).add(item);
+        	}
+        	for (List<EvosuiteResult> itemsSameTarget : itemsByTarget.values()) {
+        		RunnerPath.Setup setup = null;
+        		for (EvosuiteResult item : itemsSameTarget) {
+        			if (Thread.currentThread().isInterrupted()) {
+        				//the performer shut down
+        				return;
+        			}
+        			
+        			//until the initial state (and the entry snapshot, if
+        			//requested) is cached the setup is rebuilt, so it 
+        			//picks it as soon as it is
+        			if (setup == null || !setup.hasInitialState() || (this.o.getEntryStateCache() && !setup.hasEntry())) {
+        				setup = new RunnerPath.Setup(this.o, item, possiblyGetInitialStateCached(item), this.stateStore.getEntrySnapshot(item.getTargetMethodSignature()));
+        			}
+        			explore(setup, item);
+        		}
+        	}
         };
         return job;
     }
 
     /**
      * Executes a test case and generates tests for all the alternative branches
-     * starting from some depth up to some maximum depth.
+     * starting from some depth up to some maximum depth. If the job exhausts its
+     * budget while generating tests, the test case is requeued with a narrower 
+     * depth window, starting from the first frontier it did not expand.
      * 
+     * @param setup the {@link RunnerPath.Setup} for the target method of {@code item}.
      * @param item a {@link EvosuiteResult}.
-     * @param depthStart the depth to which generation of tests must be started.
      */
-    private void explore(EvosuiteResult item, int depthStart) {
+    private void explore(RunnerPath.Setup setup, EvosuiteResult item) {
         if (this.o.getMaxDepth() <= 0) {
             return;
         }
-        try (final RunnerPath rp = new RunnerPath(this.o, item, possiblyGetInitialStateCached(item))) {
+        final String testKey = testKey(item);
+        final Requeued requeued = this.requeued.remove(testKey);
+        
+        //skips the test case if it concretely follows the same
+        //trace of an already explored one (unless it is requeued,
+        //because then the explored one is the test case itself)
+        final String traceFingerprint = (this.traceFilter == null || requeued != null ? null : this.traceFilter.fingerprint(item));
+        if (traceFingerprint != null && this.traceFilter.isExplored(item, traceFingerprint)) {
+            LOGGER.info("Test case %s has the same concrete trace of an already run test case, skipped", item.getTestCase().getClassName());
+            return;
+        }
+        
+        final JobBudget budget = new JobBudget(this.o.getJBSEJobBudgetDuration(), this.o.getJBSEJobBudgetUnit(), this.o.getJBSEJobBudgetSteps());
+        final int depthStart = (requeued == null ? item.getStartDepth() : requeued.depthStart);
+        final int depthWindow = (requeued == null ? this.o.getMaxTestCaseDepth() : requeued.depthWindow);
+        final Set<Integer> depthsExplored = ConcurrentHashMap.newKeySet();
+        int depthFinal = depthStart;
+        boolean frontiersStarted = false;
+        boolean exhausted = false;
+        try (final RunnerPath rp = new RunnerPath(this.o, setup, item, this.z3Pool, this.smtCache, this.fastPath, budget)) {
             final TestCase tc = item.getTestCase();
             
             //runs the test case up to the final state, and takes the 
@@ -123,6 +279,9 @@ implements PerformerEvosuiteListener {
             }
             final String entryPoint = item.getTargetMethodSignature();
             final List<Clause> pathConditionFinal = stateFinal.getPathCondition();
+            if (traceFingerprint != null) {
+                this.traceFilter.markExplored(item, traceFingerprint);
+            }
 
             //prints some feedback
             LOGGER.info("Run test case %s, path condition %s:%s", tc.getClassName(), entryPoint, stringifyTestPathCondition(pathConditionFinal));
@@ -134,54 +293,85 @@ implements PerformerEvosuiteListener {
             }            
             
             //skips the test case if its path was already covered,
-            //otherwise records its path and calculates coverage
+            //otherwise records its path and calculates coverage; a
+            //requeued test case was recorded by its first run
             final Set<String> coveredBranches = rp.getCoverage();
             final Set<String> newCoveredBranches;
-            final int branchCoverage;
-            final int branchCoverageTarget;
-            final int branchCoverageUnsafe;
-            synchronized (this.treePath) {
-                if (this.treePath.containsPath(entryPoint, pathConditionFinal, true)) {
-                    LOGGER.info("Test case %s redundant, skipped", tc.getClassName());
-                    return;
-                }
-                newCoveredBranches = this.treePath.insertPath(entryPoint, pathConditionFinal, coveredBranches, Collections.emptySet(), true);
-        		branchCoverage = this.treePath.totalCovered();
-        		branchCoverageTarget = this.treePath.totalCovered(this.o.patternBranchesTarget());
-        		branchCoverageUnsafe = this.treePath.totalCovered(this.o.patternBranchesUnsafe());
-            }
-        	final long pathCoverage = this.pathCoverage.incrementAndGet();
+            if (requeued == null) {
+            	final int branchCoverage;
+            	final int branchCoverageTarget;
+            	final int branchCoverageUnsafe;
+            	synchronized (this.treePath) {
+            		if (this.treePath.containsPath(entryPoint, pathConditionFinal, true)) {
+            			LOGGER.info("Test case %s redundant, skipped", tc.getClassName());
+            			return;
+            		}
+            		newCoveredBranches = this.treePath.insertPath(entryPoint, pathConditionFinal, coveredBranches, Collections.emptySet(), true);
+            		branchCoverage = this.treePath.totalCovered();
+            		branchCoverageTarget = this.treePath.totalCovered(this.o.patternBranchesTarget());
+            		branchCoverageUnsafe = this.treePath.totalCovered(this.o.patternBranchesUnsafe());
+            	}
+            	final long pathCoverage = this.pathCoverage.incrementAndGet();
 
-            //emits coverage feedback
-        	LOGGER.info("Current coverage: %d path%s, %d branch%s (total), %d branch%s (target), %d failed assertion%s", pathCoverage, (pathCoverage == 1 ? "" : "s"), branchCoverage, (branchCoverage == 1 ? "" : "es"), branchCoverageTarget, (branchCoverageTarget == 1 ? "" : "es"), branchCoverageUnsafe, (branchCoverageUnsafe == 1 ? "" : "s"));
-            
-            //possibly caches the initial state
-            final State stateInitial = rp.getStateInitial();
-            possiblySetInitialStateCached(item, stateInitial);
+            	//emits coverage feedback
+            	LOGGER.info("Current coverage: %d path%s, %d branch%s (total), %d branch%s (target), %d failed assertion%s", pathCoverage, (pathCoverage == 1 ? "" : "s"), branchCoverage, (branchCoverage == 1 ? "" : "es"), branchCoverageTarget, (branchCoverageTarget == 1 ? "" : "es"), branchCoverageUnsafe, (branchCoverageUnsafe == 1 ? "" : "s"));
+
+            	//emits the test if it covers something new
+            	emitTestIfCoversSomethingNew(item, newCoveredBranches);
+            } else {
+            	newCoveredBranches = Collections.emptySet();
+            	LOGGER.info("Test case %s was requeued, generating path conditions from depth %d", tc.getClassName(), depthStart);
+            }
             
-            //emits the test if it covers something new
-            emitTestIfCoversSomethingNew(item, newCoveredBranches);
+            //possibly caches the initial state, and from now on
+            //uses the cached one, that is shared by all the output jobs
+            final State stateInitial = possiblySetInitialStateCached(item, rp.getStateInitial());
+            this.stateStore.storeEntrySnapshot(entryPoint, rp.getEntrySnapshot());
             
             if (testGeneratorTerminated) {
             	return;
             }
             
-            //learns the new data for future update of indices
-            learnDataForIndices(newCoveredBranches, coveredBranches, entryPoint, pathConditionFinal);
-            
-            //updates all indices and reclassifies all the items in output buffer
-            //TODO possibly do it more lazily!
-            updateIndicesAndReclassify();
+            if (requeued == null) {
+            	//learns the new data for future update of indices
+            	learnDataForIndices(newCoveredBranches, coveredBranches, entryPoint, pathConditionFinal);
+
+            	//updates all indices and reclassifies all the items in output buffer
+            	//TODO possibly do it more lazily!
+            	updateIndicesAndReclassify();
+            }
 
             //reruns the test case at all the depths in the range, generates all the modified 
-            //path conditions and puts all the output jobs in the output queue
-            final int depthFinal = Math.min(depthStart + this.o.getMaxTestCaseDepth(), stateFinal.getDepth());
+            //path conditions and puts all the output jobs in the output queue; a requeued 
+            //test case does not go beyond the range of the run that requeued it
+            depthFinal = Math.min(depthStart + depthWindow, stateFinal.getDepth());
+            if (requeued != null) {
+            	depthFinal = Math.min(depthFinal, requeued.depthFinal);
+            }
+            frontiersStarted = true;
             try {
-				createOutputJobsForFrontiersAtAllDepths(rp, item, tc, stateInitial, stateFinal, depthStart, depthFinal);
+				createOutputJobsForFrontiersAtAllDepths(rp, item, tc, stateInitial, stateFinal, depthStart, depthFinal, depthsExplored);
 			} catch (InterruptedException e) {
 				//the performer shut down
 				return;
 			}
+        } catch (JobBudgetExhaustedException e) {
+        	exhausted = true;
+        	int depthUnexplored = depthStart;
+        	while (depthUnexplored <= depthFinal && depthsExplored.contains(depthUnexplored)) {
+        		++depthUnexplored;
+        	}
+        	if (!frontiersStarted) {
+        		LOGGER.warn("Run test case %s, the job %s before arriving at the final state, skipped", item.getTestCase().getClassName(), e.getMessage());
+        	} else if (depthWindow == 0 || depthUnexplored > depthFinal) {
+        		LOGGER.warn("From test case %s the job %s while generating path conditions, skipped", item.getTestCase().getClassName(), e.getMessage());
+        	} else {
+        		//requeues the test case with lowest priority, starting 
+        		//from the first frontier that was not expanded
+        		this.requeued.put(testKey, new Requeued(depthUnexplored, depthWindow / 2, depthFinal));
+        		this.in.addLast(item);
+        		LOGGER.info("From test case %s the job %s while generating path conditions, requeued from depth %d with depth window %d", item.getTestCase().getClassName(), e.getMessage(), depthUnexplored, depthWindow / 2);
+        	}
         } catch (NoTargetHitException e) {
             //prints some feedback
             LOGGER.warn("Run test case %s, does not reach the target method %s", item.getTestCase().getClassName(), item.getTargetMethodSignature());
@@ -196,9 +386,24 @@ implements PerformerEvosuiteListener {
             for (StackTraceElement elem : e.getStackTrace()) {
                 LOGGER.error("%s", elem.toString());
             }
+		} finally {
+			this.budgetStatistics.computeIfAbsent(item.getTargetMethodSignature(), k -> new BudgetStatistics()).record(budget, exhausted);
 		}
     }
     
+    /**
+     * Returns the key under which the data about the 
+     * exploration of a test are recorded.
+     * 
+     * @param item an {@link EvosuiteResult}.
+     * @return a {@link String}, made of the test case and of
+     *         the target method of {@code item}.
+     */
+    private static String testKey(EvosuiteResult item) {
+        final TestCase tc = item.getTestCase();
+        return tc.getClassName() + ":" + tc.getMethodDescriptor() + ":" + tc.getMethodName() + "->" + item.getTargetMethodSignature();
+    }
+    
     private static boolean refines(List<Clause> possiblyRefining, List<Clause> possiblyRefined) {
         if (possiblyRefined == null) {
         	return true;
@@ -235,18 +440,11 @@ implements PerformerEvosuiteListener {
     }
     
     private State possiblyGetInitialStateCached(EvosuiteResult item) {
-        final String key = item.getTargetMethodSignature();
-        final State value = this.initialStateCache.get(key);
-        return (value == null ? null : value.clone());
+        return this.stateStore.getInitialStateCopy(item.getTargetMethodSignature());
     }
     
-    private synchronized void possiblySetInitialStateCached(EvosuiteResult item, State initialState) {
-        final String key = item.getTargetMethodSignature();
-        if (this.initialStateCache.containsKey(key)) {
-            return;
-        } else {
-            this.initialStateCache.put(key, initialState.clone());
-        }
+    private State possiblySetInitialStateCached(EvosuiteResult item, State initialState) {
+        return this.stateStore.shareInitialState(item.getTargetMethodSignature(), initialState);
     }
     
     private void learnDataForIndices(Set<String> newCoveredBranches, Set<String> coveredBranches, String entryPoint, List<Clause> pathConditionFinal) {
@@ -271,74 +469,107 @@ implements PerformerEvosuiteListener {
         if (this.o.getUseIndexInfeasibility()) {
         	this.out.updateIndexInfeasibilityAndReclassify();
         }
+        
+        //the scores of the queued test cases depend on
+        //the indices of improvability and novelty
+        if (this.o.getUseIndexImprovability() || this.o.getUseIndexNovelty()) {
+        	this.in.invalidateScores();
+        }
     }
     
     private void emitTestIfCoversSomethingNew(EvosuiteResult item, Set<String> newCoveredBranches) {
-        final TestCase tc = item.getTestCase();
         final Coverage coverageType = this.o.getCoverage();
         final int branchCoverageTargetNew = filterOnPattern(newCoveredBranches, this.o.patternBranchesTarget()).size();            
         final int branchCoverageUnsafeNew = filterOnPattern(newCoveredBranches, this.o.patternBranchesUnsafe()).size();
         if (coverageType == Coverage.PATHS || 
         (coverageType == Coverage.BRANCHES && branchCoverageTargetNew > 0) ||
         (coverageType == Coverage.UNSAFE && branchCoverageUnsafeNew > 0)) {
-            //more feedback
-            if (coverageType == Coverage.BRANCHES) {
-                LOGGER.info("Test case %s covered branch%s %s", tc.getClassName(), (branchCoverageTargetNew == 1 ? " " : "es"), String.join(", ", newCoveredBranches));
-            }
-            //copies the test in out
-            try {
-                //gets the source and destination paths of the test source file
-                final Path source = item.getTestCase().getSourcePath();
-                final Path destination = this.o.getOutDirectory().resolve(item.getTestCase().getClassName() + ".java");
-                
-                //creates the intermediate package directories if they do not exist
-                final int lastSlash = item.getTestCase().getClassName().lastIndexOf('/');
-                if (lastSlash != -1) {
-                    final String dirs = item.getTestCase().getClassName().substring(0, lastSlash);
-                    final Path destinationDir = this.o.getOutDirectory().resolve(dirs);
-                    Files.createDirectories(destinationDir);
-                }
-                
-                //copies the test file
-                Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
-
-                //possibly copies the scaffolding file
-                final Path sourceScaffolding = item.getTestCase().getScaffoldingPath();
-                if (sourceScaffolding != null) {
-                    final Path destinationScaffolding = this.o.getOutDirectory().resolve(item.getTestCase().getClassName() + "_scaffolding.java");
-                    Files.copy(sourceScaffolding, destinationScaffolding, StandardCopyOption.REPLACE_EXISTING);
-                }
-            } catch (IOException e) {
-                LOGGER.error("Unexpected I/O error while attempting to copy test case %s or its scaffolding to its destination directory", tc.getClassName());
-                LOGGER.error("Message: %s", e.toString());
-                LOGGER.error("Stack trace:");
-                for (StackTraceElement elem : e.getStackTrace()) {
-                    LOGGER.error("%s", elem.toString());
-                }
-                //falls through
-            }
+            //the test emitter copies the test in out
+            this.accepted.add(new AcceptedTest(item, newCoveredBranches, branchCoverageTargetNew));
         }
     }
     
-    private void createOutputJobsForFrontiersAtAllDepths(RunnerPath rp, EvosuiteResult item, TestCase tc, State stateInitial, State stateFinal, int depthStart, int depthFinal) 
+    private void createOutputJobsForFrontiersAtAllDepths(RunnerPath rp, EvosuiteResult item, TestCase tc, State stateInitial, State stateFinal, int depthStart, int depthFinal, Set<Integer> depthsExplored) 
     throws DecisionException, CannotBuildEngineException, InitializationException, InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, 
     ClasspathException, CannotBacktrackException, CannotManageStateException, ThreadStackEmptyException, ContradictionException, EngineStuckException, 
     FailureException, InterruptedException, FrozenStateException {
         boolean noOutputJobGenerated = true;
-        for (int depthCurrent = depthStart; depthCurrent <= depthFinal; ++depthCurrent) {
-        	try {
-        		final List<State> statesPostFrontier = rp.runProgram(depthCurrent);
+        final ArrayList<FrontierExploration> explorations = new ArrayList<>();
+        final ArrayList<Future<Boolean>> futures = new ArrayList<>();
+        try {
+        	final String entryPoint = item.getTargetMethodSignature();
+        	for (int depthCurrent = depthStart; depthCurrent <= depthFinal; ++depthCurrent) {
+        		//if the pre-frontier state was snapshotted, skips the
+        		//frontier when an earlier test already expanded it
+        		final RunnerPreFrontier.Snapshot snapshot = rp.getSnapshot(depthCurrent);
+        		if (snapshot != null && this.treePath.isFrontierExpanded(entryPoint, snapshot.getPreFrontierState().getPathCondition(), depthCurrent)) {
+        			LOGGER.info("From test case %s skipping frontier at depth %d because already expanded", tc.getClassName(), depthCurrent);
+        			depthsExplored.add(depthCurrent);
+        			continue;
+        		}
+        		
+        		//if the pre-frontier state was snapshotted, explores
+        		//the frontier in parallel
+        		if (snapshot != null && this.frontierPool != null) {
+        			final int depth = depthCurrent; //copy into final variable to keep compiler happy
+        			final FrontierExploration exploration = new FrontierExploration(() -> {
+        				final boolean retVal = createOutputJobsForFrontierFromSnapshot(rp, snapshot, item, tc, stateInitial, stateFinal, depth);
+        				depthsExplored.add(depth);
+        				return retVal;
+        			});
+        			explorations.add(exploration);
+        			futures.add(this.frontierPool.submit(exploration));
+        			continue;
+        		}
+        		
+        		//otherwise, explores the frontier on this thread,
+        		//creating the output jobs as soon as it can
+        		final FrontierOutputJobs outputJobs = new FrontierOutputJobs(item, tc, stateInitial, stateFinal, depthCurrent);
+        		try {
+        			final List<State> statesPostFrontier = rp.runProgram(depthCurrent, outputJobs);
 
-        		//checks shutdown of the performer
-        		if (Thread.interrupted()) {
-        			throw new InterruptedException();
+        			//checks shutdown of the performer
+        			if (Thread.interrupted()) {
+        				throw new InterruptedException();
+        			}
+
+        			noOutputJobGenerated = outputJobs.finish(rp.getFrontier(statesPostFrontier)) && noOutputJobGenerated;
+        			depthsExplored.add(depthCurrent);
+        		} catch (UninterpretedNoContextException e) {
+        			LOGGER.info("From test case %s stopping generation of path conditions at depth %d because of invocation of an uninterpreted function in the context of a model", tc.getClassName(), depthCurrent);
+        			break;
+        		} finally {
+        			outputJobs.finishIfAborted();
         		}
+        	}
 
-        		//creates all the output jobs
-        		noOutputJobGenerated = createOutputJobsForFrontier(rp, statesPostFrontier, item, tc, stateInitial, stateFinal, depthCurrent) && noOutputJobGenerated;
-        	} catch (UninterpretedNoContextException e) {
-                LOGGER.info("From test case %s stopping generation of path conditions at depth %d because of invocation of an uninterpreted function in the context of a model", tc.getClassName(), depthCurrent);
-                break;
+        	//waits for the frontiers explored in parallel
+        	for (Future<Boolean> future : futures) {
+        		try {
+        			noOutputJobGenerated = future.get() && noOutputJobGenerated;
+        		} catch (ExecutionException e) {
+        			final Throwable cause = e.getCause();
+        			if (cause instanceof JobBudgetExhaustedException) {
+        				throw (JobBudgetExhaustedException) cause;
+        			}
+        			LOGGER.error("Unexpected exception while exploring a frontier of test case %s", tc.getClassName());
+        			LOGGER.error("Message: %s", cause.toString());
+        			LOGGER.error("Stack trace:");
+        			for (StackTraceElement elem : cause.getStackTrace()) {
+        				LOGGER.error("%s", elem.toString());
+        			}
+        			//continue
+        		}
+        	}
+        } finally {
+        	//if interrupted, stops the explorations not yet started
+        	//and waits for the running ones, since they use rp 
+        	//that the caller closes as soon as this method returns
+        	for (Future<Boolean> future : futures) {
+        		future.cancel(true);
+        	}
+        	for (FrontierExploration exploration : explorations) {
+        		exploration.cancelAndAwait();
         	}
         }
         if (noOutputJobGenerated) {
@@ -346,119 +577,306 @@ implements PerformerEvosuiteListener {
         }
     }
     
-    private boolean createOutputJobsForFrontier(RunnerPath rp, List<State> statesPostFrontier, EvosuiteResult item, TestCase tc, State stateInitial, State stateFinal, int depthCurrent) 
-    throws FrozenStateException {
-        //gives some feedback if detects a contradiction
-        if (statesPostFrontier.isEmpty()) {
-            LOGGER.info("Test case %s, detected contradiction while generating path conditions at depth %d", tc.getClassName(), depthCurrent);
-        }
+    private boolean createOutputJobsForFrontierFromSnapshot(RunnerPath rp, RunnerPreFrontier.Snapshot snapshot, EvosuiteResult item, TestCase tc, State stateInitial, State stateFinal, int depthCurrent) 
+    throws DecisionException, CannotBuildEngineException, InitializationException, InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, 
+    ClasspathException, CannotBacktrackException, CannotManageStateException, ThreadStackEmptyException, ContradictionException, EngineStuckException, 
+    FailureException, InterruptedException, FrozenStateException {
+    	//explores the frontier, creating the output jobs as soon as it can
+    	final FrontierOutputJobs outputJobs = new FrontierOutputJobs(item, tc, stateInitial, stateFinal, depthCurrent);
+    	try {
+    		final RunnerPath.Frontier frontier = rp.runFrontier(snapshot, depthCurrent, outputJobs);
 
-        final String entryPoint = item.getTargetMethodSignature();
-    	boolean noOutputJobGenerated = true;
-        final State statePreFrontier = rp.getStatePreFrontier();
-        final List<String> branchesPostFrontier = rp.getBranchesPostFrontier(); 
-        for (int i = 0; i < statesPostFrontier.size(); ++i) {
-        	//gets the generated path condition
-            final State statePostFrontier = statesPostFrontier.get(i);
-            final List<Clause> pathConditionPostFrontier = statePostFrontier.getPathCondition();
-            final Clause pathConditionPostFrontierLastClause = pathConditionPostFrontier.get(pathConditionPostFrontier.size() - 1);
-            
-            //determines if the last clause is an expands one
-            final boolean lastClauseIsExpands = !pathConditionPostFrontier.isEmpty() && (pathConditionPostFrontierLastClause instanceof ClauseAssumeExpands);
-            
-            //creates the generated path condition
-            final List<Clause> pathConditionGenerated = new ArrayList<>(pathConditionPostFrontier);
-            final Set<String> expansions;
-            if (lastClauseIsExpands) {
-            	final ReferenceSymbolic referenceToExpand = ((ClauseAssumeExpands) pathConditionPostFrontierLastClause).getReference();
+    		//checks shutdown of the performer
+    		if (Thread.interrupted()) {
+    			throw new InterruptedException();
+    		}
 
-            	//gets/creates the set of the seen expansions for the path condition
-            	final MethodPathConditon methodPathCondition = new MethodPathConditon(entryPoint, shorten(pathConditionGenerated));
-        		if (!this.freshObjectsExpansions.containsKey(methodPathCondition)) {
-        			this.freshObjectsExpansions.put(methodPathCondition, Collections.synchronizedSet(new HashSet<>()));
-        		}
-        		expansions = this.freshObjectsExpansions.get(methodPathCondition);
-        		
-        		//finds the clause in the test path condition that predicates
-        		//on the same symbolic reference as the last clause in the 
-        		//generated path condition
-            	Clause pathConditionFinalClause = null;
-            	for (Clause clause : stateFinal.getPathCondition()) {
-            		if (clause instanceof ClauseAssumeReferenceSymbolic && 
-            		((ClauseAssumeReferenceSymbolic) clause).getReference().equals(referenceToExpand)) {
-            			pathConditionFinalClause = clause;
-            			break;
-            		}
-            	}
-            	
-        		//if such clause is also an expands clause, puts its expansion 
-            	//in the set of the seen expansions for the path condition
-            	if (pathConditionFinalClause instanceof ClauseAssumeExpands) {
-            		final ClauseAssumeExpands pathConditionFinalClauseExpands = (ClauseAssumeExpands) pathConditionFinalClause;
-            		final HeapObjekt objectTest = stateFinal.getObject(pathConditionFinalClauseExpands.getReference());
-                	//skips the generated path condition if it contradicts
-                	//the current seen expansions
-            		final HeapObjekt objectPathCondition = ((ClauseAssumeExpands) pathConditionPostFrontierLastClause).getObjekt();
-            		if (objectPathCondition.getType().equals(objectTest.getType())) {
-                		expansions.add(objectTest.getType().getClassName());
-            		} else {
-            			continue;
-            		}
-            	} //else, leave the set of the seen expansions as it is
+    		return outputJobs.finish(frontier);
+    	} catch (UninterpretedNoContextException e) {
+    		LOGGER.info("From test case %s stopping generation of path conditions at depth %d because of invocation of an uninterpreted function in the context of a model", tc.getClassName(), depthCurrent);
+    		return true;
+    	} finally {
+    		outputJobs.finishIfAborted();
+    	}
+    }
+    
+    /**
+     * The exploration of a frontier in the frontier pool. Differently
+     * from its {@link Future}, it allows to wait until it ends after 
+     * it is cancelled, since cancelling a {@link Future} does not stop 
+     * a running JBSE exploration, that does not check interrupts.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class FrontierExploration implements Callable<Boolean> {
+    	private final Callable<Boolean> exploration;
+    	private boolean started = false;
+    	private boolean ended = false;
+    	private boolean cancelled = false;
+    	
+    	FrontierExploration(Callable<Boolean> exploration) {
+    		this.exploration = exploration;
+    	}
+    	
+    	@Override
+    	public Boolean call() throws Exception {
+    		synchronized (this) {
+    			if (this.cancelled) {
+    				return true;
+    			}
+    			this.started = true;
+    		}
+    		try {
+    			return this.exploration.call();
+    		} finally {
+    			synchronized (this) {
+    				this.ended = true;
+    				notifyAll();
+    			}
+    		}
+    	}
+    	
+    	/**
+    	 * Prevents the exploration from starting, or if it 
+    	 * is already running waits until it ends. The wait 
+    	 * is not interruptible; the interrupt status of the 
+    	 * waiting thread is restored afterwards.
+    	 */
+    	synchronized void cancelAndAwait() {
+    		this.cancelled = true;
+    		boolean interrupted = false;
+    		while (this.started && !this.ended) {
+    			try {
+    				wait();
+    			} catch (InterruptedException e) {
+    				interrupted = true;
+    			}
+    		}
+    		if (interrupted) {
+    			Thread.currentThread().interrupt();
+    		}
+    	}
+    }
+    
+    /**
+     * Creates the output jobs for the post-frontier states of a 
+     * frontier as soon as they are discovered, i.e., inserts their
+     * path conditions in the {@link TreePath} and emits them in
+     * the output buffer, so EvoSuite does not wait for the end
+     * of the exploration of the frontier.
+     * 
+     * @author Pietro Braione
+     */
+    private final class FrontierOutputJobs implements RunnerPath.PostFrontierSink {
+    	private final EvosuiteResult item;
+    	private final TestCase tc;
+    	private final State stateInitial;
+    	private final State stateFinal;
+    	private final int depthCurrent;
+    	private final String entryPoint;
+    	private final ArrayList<JBSEResult> outputs = new ArrayList<>();
+    	private final ArrayList<String> branchesPostFrontier = new ArrayList<>();
+    	private boolean noOutputJobGenerated = true;
+    	private boolean expandsFound = false;
+    	private boolean finished = false;
+    	
+    	FrontierOutputJobs(EvosuiteResult item, TestCase tc, State stateInitial, State stateFinal, int depthCurrent) {
+    		this.item = item;
+    		this.tc = tc;
+    		this.stateInitial = stateInitial;
+    		this.stateFinal = stateFinal;
+    		this.depthCurrent = depthCurrent;
+    		this.entryPoint = item.getTargetMethodSignature();
+    	}
+    	
+    	@Override
+    	public void accept(State statePostFrontier, boolean atJump, String branchPostFrontier, 
+    	                   Map<Long, String> stringLiterals, Set<Long> stringOthers, Set<String> coverage) {
+    		if (branchPostFrontier != null) {
+    			this.branchesPostFrontier.add(branchPostFrontier);
+    		}
+    		try {
+    			createOutputJob(statePostFrontier, atJump, branchPostFrontier, stringLiterals, stringOthers, coverage);
+    		} catch (FrozenStateException e) {
+    			LOGGER.error("Unexpected frozen state exception while trying to generate path condition for additional fresh object");
+    			LOGGER.error("Message: %s", e.toString());
+    			LOGGER.error("Stack trace:");
+    			for (StackTraceElement elem : e.getStackTrace()) {
+    				LOGGER.error("%s", elem.toString());
+    			}
+    			//continue
+    		}
+    	}
+    	
+    	private void createOutputJob(State statePostFrontier, boolean atJump, String branchPostFrontier, 
+    	                             Map<Long, String> stringLiterals, Set<Long> stringOthers, Set<String> coverage) 
+    	throws FrozenStateException {
+    		final String entryPoint = this.entryPoint;
+    		final TestCase tc = this.tc;
+    		
+    		//gets the generated path condition
+    		final List<Clause> pathConditionPostFrontier = statePostFrontier.getPathCondition();
+    		final Clause pathConditionPostFrontierLastClause = pathConditionPostFrontier.get(pathConditionPostFrontier.size() - 1);
 
-            	//sets the last clause of the generated path condition
-            	final Clause pathConditionGeneratedLastClause;
-            	try {
-					pathConditionGeneratedLastClause = new ClauseAssumeExpandsSubtypes(referenceToExpand, expansions);
-				} catch (InvalidInputException e) {
-					//this should never happen
-	                LOGGER.error("Unexpected InvalidInputException while attempting to generate an unconstrained expansion path condition clause");
-	                LOGGER.error("Message: %s", e.toString());
-	                LOGGER.error("Stack trace:");
-	                for (StackTraceElement elem : e.getStackTrace()) {
-	                    LOGGER.error("%s", elem.toString());
-	                }
-	                continue;
-				}
-            	pathConditionGenerated.set(pathConditionGenerated.size() - 1, pathConditionGeneratedLastClause);
-            } else {
-            	expansions = Collections.emptySet();
-            }
-            
-        	//inserts the generated path condition in the treePath 
-            //it if is not already present and if it does not violate 
-            //some basic assumptions on model maps, otherwise skips
-            synchronized (this.treePath) {
-            	if (this.treePath.containsPath(entryPoint, pathConditionGenerated, false)) {
-            		LOGGER.info("From test case %s skipping generated post-frontier path condition %s:%s because redundant, with %d clauses", tc.getClassName(), entryPoint, stringifyPostFrontierPathCondition(pathConditionGenerated), shorten(pathConditionGenerated).size());
-            		continue;
-            	}
-            	final ClassHierarchy hier = statePostFrontier.getClassHierarchy();
-            	if (!pathConditionGenerated.isEmpty() && mapModelAssumptionViolated(hier, pathConditionPostFrontierLastClause)) {
-            		LOGGER.info("From test case %s skipping generated post-frontier path condition %s:%s because clause %s contradicts initialMap assumptions", tc.getClassName(), entryPoint, stringifyPostFrontierPathCondition(pathConditionGenerated), pathConditionGenerated.get(pathConditionGenerated.size() - 1));
-            		continue;
-            	}
-            	this.treePath.insertPath(entryPoint, pathConditionGenerated, rp.getCoverage(), branchesPostFrontier, false);
-            }
-            
-            //creates the output job...
-            final boolean atJump = rp.getAtJump();
-            final Map<Long, String> stringLiterals = rp.getStringLiterals().get(i);
-            final Set<Long> stringOthers = rp.getStringOthers().get(i); 
-            final JBSEResult output = 
-            new JBSEResult(item.getTargetMethodClassName(), item.getTargetMethodDescriptor(), item.getTargetMethodName(), 
-                           stateInitial, statePreFrontier, statePostFrontier, pathConditionGenerated, atJump, 
-                           (atJump ? branchesPostFrontier.get(i) : null), stringLiterals, stringOthers, 
-                           (lastClauseIsExpands ? depthCurrent - 1 : depthCurrent), expansions);
+    		//determines if the last clause is an expands one
+    		final boolean lastClauseIsExpands = !pathConditionPostFrontier.isEmpty() && (pathConditionPostFrontierLastClause instanceof ClauseAssumeExpands);
+    		this.expandsFound = this.expandsFound || lastClauseIsExpands;
 
-            //...and emits it in the output buffer
-            this.out.add(output);
-            LOGGER.info("From test case %s generated post-frontier path condition %s:%s%s, with %d clauses", tc.getClassName(), entryPoint, stringifyPostFrontierPathCondition(output), (atJump ? (" aimed at branch " + branchesPostFrontier.get(i)) : ""), shorten(pathConditionGenerated).size());
-            noOutputJobGenerated = false;
-        }
-        return noOutputJobGenerated;
-    }
+    		//creates the generated path condition
+    		final List<Clause> pathConditionGenerated = new ArrayList<>(pathConditionPostFrontier);
+    		final Set<String> expansions;
+    		if (lastClauseIsExpands) {
+    			final ReferenceSymbolic referenceToExpand = ((ClauseAssumeExpands) pathConditionPostFrontierLastClause).getReference();
+
+    			//gets/creates the set of the seen expansions for the path condition
+    			final MethodPathConditon methodPathCondition = new MethodPathConditon(entryPoint, shorten(pathConditionGenerated));
+    			expansions = PerformerJBSE.this.freshObjectsExpansions.computeIfAbsent(methodPathCondition, k -> Collections.synchronizedSet(new HashSet<>()));
+
+    			//finds the clause in the test path condition that predicates
+    			//on the same symbolic reference as the last clause in the 
+    			//generated path condition
+    			Clause pathConditionFinalClause = null;
+    			for (Clause clause : this.stateFinal.getPathCondition()) {
+    				if (clause instanceof ClauseAssumeReferenceSymbolic && 
+    				((ClauseAssumeReferenceSymbolic) clause).getReference().equals(referenceToExpand)) {
+    					pathConditionFinalClause = clause;
+    					break;
+    				}
+    			}
 
+    			//if such clause is also an expands clause, puts its expansion 
+    			//in the set of the seen expansions for the path condition
+    			if (pathConditionFinalClause instanceof ClauseAssumeExpands) {
+    				final ClauseAssumeExpands pathConditionFinalClauseExpands = (ClauseAssumeExpands) pathConditionFinalClause;
+    				final HeapObjekt objectTest = this.stateFinal.getObject(pathConditionFinalClauseExpands.getReference());
+    				//skips the generated path condition if it contradicts
+    				//the current seen expansions
+    				final HeapObjekt objectPathCondition = ((ClauseAssumeExpands) pathConditionPostFrontierLastClause).getObjekt();
+    				if (objectPathCondition.getType().equals(objectTest.getType())) {
+    					expansions.add(objectTest.getType().getClassName());
+    				} else {
+    					return;
+    				}
+    			} //else, leave the set of the seen expansions as it is
+
+    			//sets the last clause of the generated path condition
+    			final Clause pathConditionGeneratedLastClause;
+    			try {
+    				pathConditionGeneratedLastClause = new ClauseAssumeExpandsSubtypes(referenceToExpand, expansions);
+    			} catch (InvalidInputException e) {
+    				//this should never happen
+    				LOGGER.error("Unexpected InvalidInputException while attempting to generate an unconstrained expansion path condition clause");
+    				LOGGER.error("Message: %s", e.toString());
+    				LOGGER.error("Stack trace:");
+    				for (StackTraceElement elem : e.getStackTrace()) {
+    					LOGGER.error("%s", elem.toString());
+    				}
+    				return;
+    			}
+    			pathConditionGenerated.set(pathConditionGenerated.size() - 1, pathConditionGeneratedLastClause);
+    		} else {
+    			expansions = Collections.emptySet();
+    		}
+
+    		//inserts the generated path condition in the treePath 
+    		//it if is not already present and if it does not violate 
+    		//some basic assumptions on model maps, otherwise skips;
+    		//the other branches of the frontier are not known yet, 
+    		//they are added by finish
+    		final List<String> branchesPostFrontier = (branchPostFrontier == null ? Collections.emptyList() : Collections.singletonList(branchPostFrontier));
+    		synchronized (PerformerJBSE.this.treePath) {
+    			if (PerformerJBSE.this.treePath.containsPath(entryPoint, pathConditionGenerated, false)) {
+    				LOGGER.info("From test case %s skipping generated post-frontier path condition %s:%s because redundant, with %d clauses", tc.getClassName(), entryPoint, stringifyPostFrontierPathCondition(pathConditionGenerated), shorten(pathConditionGenerated).size());
+    				return;
+    			}
+    			final ClassHierarchy hier = statePostFrontier.getClassHierarchy();
+    			if (!pathConditionGenerated.isEmpty() && mapModelAssumptionViolated(hier, pathConditionPostFrontierLastClause)) {
+    				LOGGER.info("From test case %s skipping generated post-frontier path condition %s:%s because clause %s contradicts initialMap assumptions", tc.getClassName(), entryPoint, stringifyPostFrontierPathCondition(pathConditionGenerated), pathConditionGenerated.get(pathConditionGenerated.size() - 1));
+    				return;
+    			}
+    			PerformerJBSE.this.treePath.insertPath(entryPoint, pathConditionGenerated, coverage, branchesPostFrontier, false);
+    		}
+
+    		//creates the output job...
+    		final int depthGenerated = (lastClauseIsExpands ? this.depthCurrent - 1 : this.depthCurrent);
+    		final JBSEResult output;
+    		if (PerformerJBSE.this.o.getEagerWrapperRendering()) {
+    			//renders the wrapper here, so the output job does not
+    			//need to keep the states
+    			final EvoSuiteWrapperSource wrapperSource = EvoSuiteWrapperSource.render(this.stateInitial, statePostFrontier, stringLiterals, stringOthers, expansions);
+    			output = new JBSEResult(this.item.getTargetMethodClassName(), this.item.getTargetMethodDescriptor(), this.item.getTargetMethodName(), 
+    			                        wrapperSource, pathConditionGenerated, atJump, branchPostFrontier, depthGenerated, expansions);
+    		} else {
+    			output = new JBSEResult(this.item.getTargetMethodClassName(), this.item.getTargetMethodDescriptor(), this.item.getTargetMethodName(), 
+    			                        this.stateInitial, statePostFrontier, pathConditionGenerated, atJump, 
+    			                        branchPostFrontier, stringLiterals, stringOthers, depthGenerated, expansions);
+    		}
+
+    		//...and emits it in the output buffer
+    		PerformerJBSE.this.out.add(output);
+    		this.outputs.add(output);
+    		LOGGER.info("From test case %s generated post-frontier path condition %s:%s%s, with %d clauses", tc.getClassName(), entryPoint, stringifyPostFrontierPathCondition(output), (atJump ? (" aimed at branch " + branchPostFrontier) : ""), shorten(pathConditionGenerated).size());
+    		this.noOutputJobGenerated = false;
+    	}
+    	
+    	/**
+    	 * To be invoked after the exploration of the frontier ends.
+    	 * Adds all the branches of the frontier to the generated path
+    	 * conditions in the treePath, and updates the improvability 
+    	 * index of the emitted output jobs accordingly.
+    	 * 
+    	 * @param frontier the explored {@link RunnerPath.Frontier}.
+    	 * @return {@code true} iff no output job was created.
+    	 */
+    	boolean finish(RunnerPath.Frontier frontier) {
+    		this.finished = true;
+    		
+    		//gives some feedback if detects a contradiction
+    		if (frontier.getStatesPostFrontier().isEmpty()) {
+    			LOGGER.info("Test case %s, detected contradiction while generating path conditions at depth %d", this.tc.getClassName(), this.depthCurrent);
+    		}
+    		
+    		//adds the branches of the frontier to the generated path 
+    		//conditions, as they are all neighbors of each of them
+    		addNeighbors(frontier.getBranchesPostFrontier());
+
+    		//records that the frontier was expanded, unless it has 
+    		//expands clauses, whose generated path conditions depend
+    		//on the expansions seen so far
+    		if (!this.expandsFound) {
+    			PerformerJBSE.this.treePath.markFrontierExpanded(this.entryPoint, frontier.getStatePreFrontier().getPathCondition(), this.depthCurrent);
+    		}
+    		return this.noOutputJobGenerated;
+    	}
+    	
+    	/**
+    	 * To be invoked in any case after the exploration of the 
+    	 * frontier, that an exception might have aborted. If 
+    	 * {@link #finish(RunnerPath.Frontier) finish} was not invoked,
+    	 * adds the branches of the post-frontier states found so far
+    	 * to the generated path conditions in the treePath, and updates
+    	 * the improvability index of the emitted output jobs accordingly.
+    	 * The frontier is not recorded as expanded, since it was not
+    	 * completely explored.
+    	 */
+    	void finishIfAborted() {
+    		if (!this.finished) {
+    			this.finished = true;
+    			addNeighbors(this.branchesPostFrontier);
+    		}
+    	}
+    	
+    	private void addNeighbors(List<String> branches) {
+    		if (!this.outputs.isEmpty()) {
+    			synchronized (PerformerJBSE.this.treePath) {
+    				for (JBSEResult output : this.outputs) {
+    					PerformerJBSE.this.treePath.insertPath(this.entryPoint, output.getPathConditionGenerated(), Collections.emptySet(), branches, false);
+    				}
+    			}
+    			PerformerJBSE.this.out.updateIndexImprovabilityAndReclassify(this.outputs);
+    		}
+    	}
+    }
 	
 	public void allEvosuiteTerminated() {
 		testGeneratorTerminated = true;
@@ -0,0 +1,138 @@
+package tardis.implementation.jbse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tardis.Coverage;
+import tardis.Options;
+import tardis.framework.PerformerPausableFixedThreadPoolExecutor;
+import tardis.framework.QueueInputOutputBuffer;
+import tardis.implementation.evosuite.TestCase;
+
+/**
+ * A {@link PerformerPausableFixedThreadPoolExecutor} that consumes
+ * {@link AcceptedTest}s by copying their test cases and scaffoldings
+ * to the output directory, so the JBSE workers do not wait on the
+ * output file system. The test cases are copied in batches, and the
+ * package directories are created once. Upon stop, the test cases
+ * still in the input buffer are copied before returning, thus the
+ * emitter must be stopped after the performers that accept the test
+ * cases. The paths of the copied test cases are emitted.
+ *
+ * @author Pietro Braione
+ */
+public final class PerformerTestEmitter extends PerformerPausableFixedThreadPoolExecutor<AcceptedTest, Path> {
+    private static final Logger LOGGER = LogManager.getFormatterLogger(PerformerTestEmitter.class);
+
+    private static final int NUM_THREADS = 1;
+
+    private static final int NUM_INPUTS_PER_JOB = 32;
+
+    private static final long TIMEOUT_JOB_CREATION_MILLIS = 100;
+
+    private static final long TIMEOUT_BATCH_TERMINATION_SECONDS = 10;
+
+    private final Options o;
+    private final QueueInputOutputBuffer<AcceptedTest> in;
+    private final Set<Path> directoriesCreated = ConcurrentHashMap.newKeySet();
+
+    public PerformerTestEmitter(Options o, QueueInputOutputBuffer<AcceptedTest> in) {
+        //nobody consumes the paths of the copied test cases
+        super("PerformerTestEmitter", in, emitted -> true, NUM_THREADS, NUM_INPUTS_PER_JOB, TIMEOUT_JOB_CREATION_MILLIS, TimeUnit.MILLISECONDS);
+        this.o = o.clone();
+        this.in = in;
+    }
+
+    @Override
+    protected Runnable makeJob(List<AcceptedTest> items) {
+        final Runnable job = () -> {
+            emit(items);
+        };
+        return job;
+    }
+
+    @Override
+    protected void onStop() {
+        //waits for the batch being copied, then copies the test 
+        //cases not yet copied; the performers that produce them
+        //are stopped before, and wait for their running jobs
+        try {
+            awaitWorkersTermination(TIMEOUT_BATCH_TERMINATION_SECONDS, TimeUnit.SECONDS);
+            emit(this.in.pollN(Integer.MAX_VALUE, 0, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            //this should never happen
+            throw new AssertionError(e);
+        }
+    }
+
+    private void emit(List<AcceptedTest> items) {
+        //gives some feedback
+        if (this.o.getCoverage() == Coverage.BRANCHES) {
+            for (AcceptedTest t : items) {
+                LOGGER.info("Test case %s covered branch%s %s", t.getItem().getTestCase().getClassName(), (t.getBranchCoverageTargetNew() == 1 ? " " : "es"), String.join(", ", t.getNewCoveredBranches()));
+            }
+        }
+
+        //creates the intermediate package directories if they do not exist
+        final LinkedHashSet<Path> directories = new LinkedHashSet<>();
+        for (AcceptedTest t : items) {
+            final String className = t.getItem().getTestCase().getClassName();
+            final int lastSlash = className.lastIndexOf('/');
+            if (lastSlash != -1) {
+                directories.add(this.o.getOutDirectory().resolve(className.substring(0, lastSlash)));
+            }
+        }
+        directories.removeAll(this.directoriesCreated);
+        for (Path directory : directories) {
+            try {
+                Files.createDirectories(directory);
+                this.directoriesCreated.add(directory);
+            } catch (IOException e) {
+                LOGGER.error("Unexpected I/O error while attempting to create the output directory %s", directory.toString());
+                LOGGER.error("Message: %s", e.toString());
+                LOGGER.error("Stack trace:");
+                for (StackTraceElement elem : e.getStackTrace()) {
+                    LOGGER.error("%s", elem.toString());
+                }
+                //falls through, copying the test cases will fail
+            }
+        }
+
+        //copies the test cases
+        for (AcceptedTest t : items) {
+            final TestCase tc = t.getItem().getTestCase();
+            try {
+                //copies the test file
+                final Path destination = this.o.getOutDirectory().resolve(tc.getClassName() + ".java");
+                Files.copy(tc.getSourcePath(), destination, StandardCopyOption.REPLACE_EXISTING);
+
+                //possibly copies the scaffolding file
+                final Path sourceScaffolding = tc.getScaffoldingPath();
+                if (sourceScaffolding != null) {
+                    final Path destinationScaffolding = this.o.getOutDirectory().resolve(tc.getClassName() + "_scaffolding.java");
+                    Files.copy(sourceScaffolding, destinationScaffolding, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                getOutputBuffer().add(destination);
+            } catch (IOException e) {
+                LOGGER.error("Unexpected I/O error while attempting to copy test case %s or its scaffolding to its destination directory", tc.getClassName());
+                LOGGER.error("Message: %s", e.toString());
+                LOGGER.error("Stack trace:");
+                for (StackTraceElement elem : e.getStackTrace()) {
+                    LOGGER.error("%s", elem.toString());
+                }
+                //falls through
+            }
+        }
+    }
+}
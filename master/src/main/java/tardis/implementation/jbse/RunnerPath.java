@@ -27,7 +27,6 @@ import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.dec.DecisionProcedureAlwSat;
 import jbse.dec.DecisionProcedureClassInit;
 import jbse.dec.DecisionProcedureLICS;
-import jbse.dec.DecisionProcedureSMTLIB2_AUFNIRA;
 import jbse.dec.exc.DecisionException;
 import jbse.jvm.RunnerParameters;
 import jbse.jvm.EngineParameters.BreadthMode;
@@ -60,39 +59,272 @@ import tardis.implementation.evosuite.TestCase;
  */
 final class RunnerPath implements AutoCloseable {
     private static final String SWITCH_CHAR = System.getProperty("os.name").toLowerCase().contains("windows") ? "/" : "-";
+    static final long Z3_TIMEOUT_MILLIS = 100;
 
     private final String z3Path;
+    private final DecisionProcedureSMTLIB2Pool z3Pool;
+    private final SMTQueryCache smtCache;
+    private final FastPathSolver fastPath;
     private final String targetMethodClassName;
     private final String targetMethodDescriptor;
     private final String targetMethodName;
     private final TestCase testCase;
     private final int maxDepth;
     private final long maxCount;
+    private final JobBudget budget;
     private final RunnerParameters commonParamsSymbolic;
     private final RunnerParameters commonParamsConcrete;
     private final int numberOfHits;
+    private final int harvestDepthMin;
+    private final int harvestDepthMax;
+    private final RunnerPreFrontier.Snapshot entry;
+    private final boolean captureEntry;
+    private State stateInitial;
     private RunnerPreFrontier runnerPreFrontier = null;
     private State statePreFrontier = null;
+    private Set<String> coveragePreFrontier = null;
     private RunnerPostFrontier runnerPostFrontier = null;
     
-    public RunnerPath(Options o, EvosuiteResult item, State initialState) 
+    /**
+     * The result of the exploration of a frontier. It is immutable.
+     * 
+     * @author Pietro Braione
+     */
+    static final class Frontier {
+        private final State statePreFrontier;
+        private final List<State> statesPostFrontier;
+        private final boolean atJump;
+        private final List<String> branchesPostFrontier;
+        private final List<? extends Map<Long, String>> stringLiterals;
+        private final List<? extends Set<Long>> stringOthers;
+        private final Set<String> coverage;
+        
+        private Frontier(State statePreFrontier, List<State> statesPostFrontier, boolean atJump, List<String> branchesPostFrontier, 
+                         List<? extends Map<Long, String>> stringLiterals, List<? extends Set<Long>> stringOthers, Set<String> coverage) {
+            this.statePreFrontier = statePreFrontier;
+            this.statesPostFrontier = statesPostFrontier;
+            this.atJump = atJump;
+            this.branchesPostFrontier = branchesPostFrontier;
+            this.stringLiterals = stringLiterals;
+            this.stringOthers = stringOthers;
+            this.coverage = coverage;
+        }
+        
+        public State getStatePreFrontier() {
+            return this.statePreFrontier;
+        }
+        
+        public List<State> getStatesPostFrontier() {
+            return this.statesPostFrontier;
+        }
+        
+        public boolean getAtJump() {
+            return this.atJump;
+        }
+        
+        public List<String> getBranchesPostFrontier() {
+            return this.branchesPostFrontier;
+        }
+        
+        public List<? extends Map<Long, String>> getStringLiterals() {
+            return this.stringLiterals;
+        }
+        
+        public List<? extends Set<Long>> getStringOthers() {
+            return this.stringOthers;
+        }
+        
+        public Set<String> getCoverage() {
+            return this.coverage;
+        }
+    }
+    
+    /**
+     * Receives the post-frontier states of a frontier as soon as 
+     * they are discovered, before the exploration of the frontier ends.
+     * 
+     * @author Pietro Braione
+     */
+    interface PostFrontierSink {
+        /**
+         * Receives a post-frontier state. Invoked by the thread
+         * that explores the frontier.
+         * 
+         * @param statePostFrontier the post-frontier {@link State}.
+         *        It must not be modified.
+         * @param atJump {@code true} iff the frontier is at a jump bytecode.
+         * @param branchPostFrontier a {@link String}, the branch covered by 
+         *        {@code statePostFrontier} if {@code atJump}, otherwise {@code null}.
+         * @param stringLiterals a {@link Map}{@code <}{@link Long}{@code , }{@link String}{@code >}
+         *        mapping the heap positions of the {@link String} literals to their values.
+         * @param stringOthers a {@link Set}{@code <}{@link Long}{@code >} with the
+         *        heap positions of the other {@link String}s.
+         * @param coverage a {@link Set}{@code <}{@link String}{@code >}, the
+         *        branches covered up to {@code statePostFrontier}. It is an 
+         *        unmodifiable view of the coverage, that is not copied for
+         *        every post-frontier state.
+         */
+        void accept(State statePostFrontier, boolean atJump, String branchPostFrontier, 
+                    Map<Long, String> stringLiterals, Set<Long> stringOthers, Set<String> coverage);
+    }
+    
+    /**
+     * The parameters of the runners that do not depend on the test
+     * case but only on the target method, i.e., the classpath, the 
+     * settings of the guided (symbolic) and guiding (concrete) executions,
+     * the initial state of the target method if it is known, and the
+     * snapshot at its entry after class initialization if it is known.
+     * The guided executions start from the latter if possible. 
+     * A {@link Setup} is built once and shared by all the {@link RunnerPath}s 
+     * for the same target method, that never modify it.
+     * 
+     * @author Pietro Braione
+     */
+    static final class Setup {
+        private final String targetMethodSignature;
+        private final State initialState;
+        private final RunnerPreFrontier.Snapshot entry;
+        private final RunnerParameters paramsSymbolic;
+        private final RunnerParameters paramsConcrete;
+        
+        /**
+         * Constructor.
+         * 
+         * @param o the {@link Options}.
+         * @param item an {@link EvosuiteResult} for the target method.
+         * @param initialState the initial {@link State} of the target method, 
+         *        or {@code null} if it is not yet known. It must not be
+         *        modified afterwards.
+         * @param entry the {@link RunnerPreFrontier.Snapshot} at the entry
+         *        of the target method, after the initialization of its
+         *        classes, or {@code null} if it is not yet known. It must
+         *        not be modified afterwards, and it is ignored if 
+         *        {@code initialState == null}.
+         */
+        Setup(Options o, EvosuiteResult item, State initialState, RunnerPreFrontier.Snapshot entry) {
+            this.targetMethodSignature = item.getTargetMethodSignature();
+            this.initialState = initialState;
+            this.entry = (initialState == null ? null : entry);
+            this.paramsSymbolic = new RunnerParameters();
+            this.paramsConcrete = new RunnerParameters();
+            
+            final ArrayList<String> _classpath = new ArrayList<>();
+            _classpath.add(o.getEvosuitePath().toString());
+            _classpath.add(o.getTmpBinDirectoryPath().toString());
+            _classpath.addAll(o.getClassesPath().stream().map(Object::toString).collect(Collectors.toList()));
+            //builds the template parameters object for the guided (symbolic) execution
+            if (initialState == null) {
+                this.paramsSymbolic.setJBSELibPath(o.getJBSELibraryPath());
+                this.paramsSymbolic.addUserClasspath(_classpath.toArray(new String[0]));
+                this.paramsSymbolic.setMethodSignature(item.getTargetMethodClassName(), item.getTargetMethodDescriptor(), item.getTargetMethodName());
+            } else if (this.entry == null) {
+                this.paramsSymbolic.setStartingState(initialState);
+            } else {
+                this.paramsSymbolic.setStartingState(this.entry.getPreFrontierState());
+            }
+            this.paramsSymbolic.setBreadthMode(BreadthMode.ALL_DECISIONS_SYMBOLIC);
+            if (o.getHeapScope() != null) {
+                for (Map.Entry<String, Integer> e : o.getHeapScope().entrySet()) {
+                    this.paramsSymbolic.setHeapScope(e.getKey(), e.getValue());
+                }
+            }
+            if (o.getCountScope() > 0) {
+                this.paramsSymbolic.setCountScope(o.getCountScope());
+            }
+            this.paramsSymbolic.addUninterpreted(JAVA_STRING, "(" + REFERENCE + JAVA_OBJECT + TYPEEND + ")" + BOOLEAN, "equals");
+            this.paramsSymbolic.addUninterpreted(JAVA_STRING, "(" + REFERENCE + JAVA_CHARSEQUENCE + TYPEEND + ")" + BOOLEAN, "contains");
+            this.paramsSymbolic.addUninterpreted(JAVA_STRING, "(" + REFERENCE + JAVA_STRING + TYPEEND + ")" + BOOLEAN, "endsWith");
+            this.paramsSymbolic.addUninterpreted(JAVA_STRING, "(" + REFERENCE + JAVA_STRING + TYPEEND + ")" + BOOLEAN, "startsWith");
+            for (List<String> unint : o.getUninterpreted()) {
+                this.paramsSymbolic.addUninterpreted(unint.get(0), unint.get(1), unint.get(2));
+            }
+
+            //builds the template parameters object for the guiding (concrete) execution
+            _classpath.add(o.getJBSELibraryPath().toString());
+            this.paramsConcrete.addUserClasspath(_classpath.toArray(new String[0]));
+            this.paramsConcrete.setStateIdentificationMode(StateIdentificationMode.COMPACT);
+
+            //more settings to the template parameters objects:
+            //1- accelerate things by bypassing standard loading
+            if (initialState == null) {
+                this.paramsSymbolic.setBypassStandardLoading(true);
+            }
+            this.paramsConcrete.setBypassStandardLoading(true); //this has no effect with JDI guidance (unfortunately introduces misalignments between the two)
+
+            //2- disallow aliasing to static, pre-initial objects (too hard)
+            this.paramsSymbolic.setMakePreInitClassesSymbolic(false);
+            this.paramsConcrete.setMakePreInitClassesSymbolic(false);
+
+            //3- set the maximum length of arrays with simple representation
+            this.paramsSymbolic.setMaxSimpleArrayLength(o.getMaxSimpleArrayLength());
+            this.paramsConcrete.setMaxSimpleArrayLength(o.getMaxSimpleArrayLength());
+
+            //4- set the executions to execute the static initializer
+            this.paramsConcrete.addClassInvariantAfterInitializationPattern(".*");
+            this.paramsSymbolic.addClassInvariantAfterInitializationPattern(".*");
+        }
+        
+        String getTargetMethodSignature() {
+            return this.targetMethodSignature;
+        }
+        
+        boolean hasInitialState() {
+            return this.initialState != null;
+        }
+        
+        boolean hasEntry() {
+            return this.entry != null;
+        }
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param o the {@link Options}.
+     * @param setup the {@link Setup} for the target method of {@code item}.
+     * @param item the {@link EvosuiteResult} whose test case must be run.
+     * @param z3Pool a {@link DecisionProcedureSMTLIB2Pool} from which the 
+     *        runners lease their decision procedures, or {@code null} if
+     *        every runner must spawn its own solver process.
+     * @param smtCache a {@link SMTQueryCache} for the answers of the solver 
+     *        processes not leased from {@code z3Pool}, or {@code null} if 
+     *        their answers must not be cached.
+     * @param fastPath a {@link FastPathSolver} for the queries to the solver 
+     *        processes not leased from {@code z3Pool}, or {@code null} if 
+     *        all their queries must be sent to them.
+     * @param budget the {@link JobBudget} consumed by the runners. When it
+     *        is exhausted, the runners throw {@link JobBudgetExhaustedException}.
+     */
+    public RunnerPath(Options o, Setup setup, EvosuiteResult item, DecisionProcedureSMTLIB2Pool z3Pool, SMTQueryCache smtCache, FastPathSolver fastPath, JobBudget budget) 
     throws DecisionException, CannotBuildEngineException, InitializationException, InvalidClassFileFactoryClassException, 
     NonexistingObservedVariablesException, ClasspathException, ContradictionException, CannotBacktrackException, 
     CannotManageStateException, ThreadStackEmptyException, EngineStuckException, FailureException, NoTargetHitException {
         this.z3Path = o.getZ3Path().toString();
+        this.z3Pool = z3Pool;
+        this.smtCache = smtCache;
+        this.fastPath = fastPath;
         this.targetMethodClassName = item.getTargetMethodClassName();
         this.targetMethodDescriptor = item.getTargetMethodDescriptor();
         this.targetMethodName = item.getTargetMethodName();
         this.testCase = item.getTestCase();
         this.maxDepth = o.getMaxDepth();
         this.maxCount = o.getMaxCount();
+        this.budget = budget;
+        this.harvestDepthMin = item.getStartDepth();
+        this.harvestDepthMax = Math.min(item.getStartDepth() + o.getMaxTestCaseDepth(), this.maxDepth);
+        this.entry = setup.entry;
+        this.captureEntry = (o.getEntryStateCache() && setup.entry == null);
+        this.stateInitial = setup.initialState;
 
-        //builds the template parameters object for the guided (symbolic) 
-        //and the guiding (concrete) executions
-        this.commonParamsSymbolic = new RunnerParameters();
-        this.commonParamsConcrete = new RunnerParameters();
-        fillCommonParams(o, item, initialState);
-
+        //takes the template parameters object for the guided (symbolic) 
+        //execution from the setup: it is shared if it has the initial 
+        //state, otherwise it is cloned because getStateInitial sets it
+        this.commonParamsSymbolic = (setup.hasInitialState() ? setup.paramsSymbolic : setup.paramsSymbolic.clone());
+        
+        //the template parameters object for the guiding (concrete)
+        //execution must be completed with the guiding method
+        this.commonParamsConcrete = setup.paramsConcrete.clone();
+        this.commonParamsConcrete.setMethodSignature(this.testCase.getClassName(), this.testCase.getMethodDescriptor(), this.testCase.getMethodName());
         
         //calculates the number of hits
         this.numberOfHits = countNumberOfInvocations(this.targetMethodClassName, this.targetMethodDescriptor, this.targetMethodName);
@@ -101,64 +333,6 @@ final class RunnerPath implements AutoCloseable {
         }
     }
     
-    private void fillCommonParams(Options o, EvosuiteResult item, State initialState) {
-        final ArrayList<String> _classpath = new ArrayList<>();
-        _classpath.add(o.getEvosuitePath().toString());
-        _classpath.add(o.getTmpBinDirectoryPath().toString());
-        _classpath.addAll(o.getClassesPath().stream().map(Object::toString).collect(Collectors.toList()));
-        //builds the template parameters object for the guided (symbolic) execution
-        if (initialState == null) {
-            this.commonParamsSymbolic.setJBSELibPath(o.getJBSELibraryPath());
-            this.commonParamsSymbolic.addUserClasspath(_classpath.toArray(new String[0]));
-            this.commonParamsSymbolic.setMethodSignature(item.getTargetMethodClassName(), item.getTargetMethodDescriptor(), item.getTargetMethodName());
-        } else {
-            this.commonParamsSymbolic.setStartingState(initialState);
-        }
-        this.commonParamsSymbolic.setBreadthMode(BreadthMode.ALL_DECISIONS_SYMBOLIC);
-        if (o.getHeapScope() != null) {
-            for (Map.Entry<String, Integer> e : o.getHeapScope().entrySet()) {
-                this.commonParamsSymbolic.setHeapScope(e.getKey(), e.getValue());
-            }
-        }
-        if (o.getCountScope() > 0) {
-            this.commonParamsSymbolic.setCountScope(o.getCountScope());
-        }
-        this.commonParamsSymbolic.addUninterpreted(JAVA_STRING, "(" + REFERENCE + JAVA_OBJECT + TYPEEND + ")" + BOOLEAN, "equals");
-        this.commonParamsSymbolic.addUninterpreted(JAVA_STRING, "(" + REFERENCE + JAVA_CHARSEQUENCE + TYPEEND + ")" + BOOLEAN, "contains");
-        this.commonParamsSymbolic.addUninterpreted(JAVA_STRING, "(" + REFERENCE + JAVA_STRING + TYPEEND + ")" + BOOLEAN, "endsWith");
-        this.commonParamsSymbolic.addUninterpreted(JAVA_STRING, "(" + REFERENCE + JAVA_STRING + TYPEEND + ")" + BOOLEAN, "startsWith");
-        for (List<String> unint : o.getUninterpreted()) {
-            this.commonParamsSymbolic.addUninterpreted(unint.get(0), unint.get(1), unint.get(2));
-        }
-
-        //builds the template parameters object for the guiding (concrete) execution
-        _classpath.add(o.getJBSELibraryPath().toString());
-        this.commonParamsConcrete.addUserClasspath(_classpath.toArray(new String[0]));
-        this.commonParamsConcrete.setStateIdentificationMode(StateIdentificationMode.COMPACT);
-
-        //more settings to the template parameters objects:
-        //1- accelerate things by bypassing standard loading
-        if (initialState == null) {
-            this.commonParamsSymbolic.setBypassStandardLoading(true);
-        }
-        this.commonParamsConcrete.setBypassStandardLoading(true); //this has no effect with JDI guidance (unfortunately introduces misalignments between the two)
-
-        //2- disallow aliasing to static, pre-initial objects (too hard)
-        this.commonParamsSymbolic.setMakePreInitClassesSymbolic(false);
-        this.commonParamsConcrete.setMakePreInitClassesSymbolic(false);
-
-        //3- set the maximum length of arrays with simple representation
-        this.commonParamsSymbolic.setMaxSimpleArrayLength(o.getMaxSimpleArrayLength());
-        this.commonParamsConcrete.setMaxSimpleArrayLength(o.getMaxSimpleArrayLength());
-
-        //4- set the guiding method (to be executed concretely)
-        this.commonParamsConcrete.setMethodSignature(this.testCase.getClassName(), this.testCase.getMethodDescriptor(), this.testCase.getMethodName());
-        
-        //5- set the executions to execute the static initializer
-        this.commonParamsConcrete.addClassInvariantAfterInitializationPattern(".*");
-        this.commonParamsSymbolic.addClassInvariantAfterInitializationPattern(".*");
-    }
-
     /**
      * Performs symbolic execution of the target method guided by a test case,
      * and returns the final state.
@@ -188,6 +362,38 @@ final class RunnerPath implements AutoCloseable {
         return (endStates.size() == 0 ? null : endStates.get(0));
     }
     
+    /**
+     * Performs symbolic execution of the target method guided by a test case 
+     * up to some depth, then peeks the states on the next branch. Same as
+     * {@link #runProgram(int, PostFrontierSink) runProgram}{@code (testDepth, null)}.
+     * 
+     * @param testDepth the maximum depth up to which {@code t} guides 
+     *        symbolic execution, see {@link #runProgram(int, PostFrontierSink)}.
+     * @return a {@link List}{@code <}{@link State}{@code >} containing
+     *         all the states on branch at depth {@code testDepth}, see
+     *         {@link #runProgram(int, PostFrontierSink)}.
+     * @throws DecisionException
+     * @throws CannotBuildEngineException
+     * @throws InitializationException
+     * @throws InvalidClassFileFactoryClassException
+     * @throws NonexistingObservedVariablesException
+     * @throws ClasspathException
+     * @throws CannotBacktrackException
+     * @throws CannotManageStateException
+     * @throws ThreadStackEmptyException
+     * @throws ContradictionException
+     * @throws EngineStuckException
+     * @throws FailureException
+     */
+    public List<State> runProgram(int testDepth)
+    throws DecisionException, CannotBuildEngineException, InitializationException, 
+    InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, 
+    ClasspathException, CannotBacktrackException, CannotManageStateException, 
+    ThreadStackEmptyException, ContradictionException, EngineStuckException, 
+    FailureException {
+    	return runProgram(testDepth, null);
+    }
+    
     /**
      * Performs symbolic execution of the target method guided by a test case 
      * up to some depth, then peeks the states on the next branch.  
@@ -206,7 +412,14 @@ final class RunnerPath implements AutoCloseable {
      *         final state and returns a singleton list containing the final state.
      *         If the execution exhausts one of its bounds or terminates (does 
      *         not arrive at the pre-frontier branch) before the depth equals
-     *         {@code testDepth}, returns an empty {@link List}.  
+     *         {@code testDepth}, returns an empty {@link List}. If a previous
+     *         guided execution (e.g., the one of {@link #runProgram()}) went 
+     *         past the frontier, the frontier is explored starting from the 
+     *         pre-frontier state snapshotted by that execution, without
+     *         running the guided execution again.
+     * @param sink a {@link PostFrontierSink} that receives the states 
+     *        on branch at depth {@code testDepth} as soon as they are
+     *        discovered, or {@code null}. 
      * @throws DecisionException
      * @throws CannotBuildEngineException
      * @throws InitializationException
@@ -220,12 +433,24 @@ final class RunnerPath implements AutoCloseable {
      * @throws EngineStuckException
      * @throws FailureException
      */
-    public List<State> runProgram(int testDepth)
+    public List<State> runProgram(int testDepth, PostFrontierSink sink)
     throws DecisionException, CannotBuildEngineException, InitializationException, 
     InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, 
     ClasspathException, CannotBacktrackException, CannotManageStateException, 
     ThreadStackEmptyException, ContradictionException, EngineStuckException, 
     FailureException {
+        //if a previous guided execution already went past the 
+        //frontier, explores it from the snapshotted pre-frontier state
+        final RunnerPreFrontier.Snapshot snapshot = 
+        (testDepth > 0 && this.runnerPreFrontier != null ? this.runnerPreFrontier.getSnapshot(testDepth) : null);
+        if (snapshot != null) {
+        	this.statePreFrontier = snapshot.getPreFrontierState().clone();
+        	this.coveragePreFrontier = snapshot.getCoverage();
+        	makeRunnerPostFrontier(snapshot.getStringLiterals(), snapshot.getStringOthers(), this.coveragePreFrontier);
+        	setSink(this.runnerPostFrontier, sink);
+        	return runPostFrontier(testDepth);
+        }
+        
         //runs up to the pre-frontier
         if (this.runnerPreFrontier == null || 
         !this.runnerPreFrontier.foundPreFrontier() ||
@@ -250,19 +475,113 @@ final class RunnerPath implements AutoCloseable {
         } else if (this.runnerPreFrontier.foundPreFrontier()) {
         	//steps to all the post-frontier states and gathers them
         	this.statePreFrontier = this.runnerPreFrontier.getPreFrontierState().clone();
-        	makeRunnerPostFrontier();
-        	if (this.runnerPostFrontier == null) {
-        		return Collections.emptyList();
-        	} else {
-        		this.runnerPostFrontier.setPostFrontierDepth(postFrontierDepth);
-        		this.runnerPostFrontier.run();
-        		return this.runnerPostFrontier.getStatesPostFrontier();
-        	}
+        	this.coveragePreFrontier = null;
+        	makeRunnerPostFrontier(this.runnerPreFrontier.getStringLiterals(), this.runnerPreFrontier.getStringOthers(), this.runnerPreFrontier.getCoverage());
+        	setSink(this.runnerPostFrontier, sink);
+        	return runPostFrontier(postFrontierDepth);
         } else {
         	return Collections.emptyList();
         }
     }
     
+    /**
+     * Must be invoked after an invocation of {@link #runProgram()}.
+     * Returns the snapshot of the pre-frontier state taken by the 
+     * guided execution.
+     * 
+     * @param testDepth an {@code int}, the depth of the frontier, 
+     *        see {@link #runProgram(int)}.
+     * @return the {@link RunnerPreFrontier.Snapshot} for {@code testDepth}, 
+     *         or {@code null} if the guided execution did not take it.
+     */
+    public RunnerPreFrontier.Snapshot getSnapshot(int testDepth) {
+    	return (testDepth > 0 && this.runnerPreFrontier != null ? this.runnerPreFrontier.getSnapshot(testDepth) : null);
+    }
+    
+    /**
+     * Explores a frontier starting from a snapshot of its pre-frontier
+     * state. Differently from {@link #runProgram(int)} it does not 
+     * modify this {@link RunnerPath}, thus it can be invoked concurrently
+     * by different threads, also while another thread invokes 
+     * {@link #runProgram(int)}. 
+     * 
+     * @param snapshot a {@link RunnerPreFrontier.Snapshot}, as returned
+     *        by {@link #getSnapshot(int) getSnapshot}{@code (testDepth)}.
+     * @param testDepth an {@code int}, the depth of the frontier.
+     * @param sink a {@link PostFrontierSink} that receives the post-frontier
+     *        states as soon as they are discovered, or {@code null}. 
+     * @return the explored {@link Frontier}.
+     * @throws DecisionException
+     * @throws CannotBuildEngineException
+     * @throws InitializationException
+     * @throws InvalidClassFileFactoryClassException
+     * @throws NonexistingObservedVariablesException
+     * @throws ClasspathException
+     * @throws CannotBacktrackException
+     * @throws CannotManageStateException
+     * @throws ThreadStackEmptyException
+     * @throws ContradictionException
+     * @throws EngineStuckException
+     * @throws FailureException
+     */
+    public Frontier runFrontier(RunnerPreFrontier.Snapshot snapshot, int testDepth, PostFrontierSink sink) 
+    throws DecisionException, CannotBuildEngineException, InitializationException, 
+    InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, 
+    ClasspathException, CannotBacktrackException, CannotManageStateException, 
+    ThreadStackEmptyException, ContradictionException, EngineStuckException, 
+    FailureException {
+    	final State statePreFrontier = snapshot.getPreFrontierState().clone();
+    	final RunnerPostFrontier runnerPostFrontier = newRunnerPostFrontier(statePreFrontier, snapshot.getStringLiterals(), snapshot.getStringOthers(), snapshot.getCoverage());
+    	if (runnerPostFrontier == null) {
+    		return new Frontier(statePreFrontier, Collections.emptyList(), false, Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), snapshot.getCoverage());
+    	}
+    	try {
+    		setSink(runnerPostFrontier, sink);
+    		runnerPostFrontier.setPostFrontierDepth(testDepth);
+    		runnerPostFrontier.run();
+    		return new Frontier(statePreFrontier, runnerPostFrontier.getStatesPostFrontier(), runnerPostFrontier.atJump(), runnerPostFrontier.getBranchesPostFrontier(), 
+    		                    runnerPostFrontier.getStringLiterals(), runnerPostFrontier.getStringOthers(), runnerPostFrontier.getCoverage());
+    	} finally {
+    		runnerPostFrontier.close();
+    	}
+    }
+    
+    /**
+     * Must be invoked after an invocation of {@link #runProgram(int) runProgram(depth)}.
+     * Returns the explored frontier.
+     * 
+     * @param statesPostFrontier the {@link List}{@code <}{@link State}{@code >}
+     *        returned by {@link #runProgram(int) runProgram(depth)}.
+     * @return the explored {@link Frontier}.
+     */
+    public Frontier getFrontier(List<State> statesPostFrontier) {
+    	return new Frontier(getStatePreFrontier(), statesPostFrontier, getAtJump(), getBranchesPostFrontier(), 
+    	                    getStringLiterals(), getStringOthers(), getCoverage());
+    }
+    
+    private static void setSink(RunnerPostFrontier runnerPostFrontier, PostFrontierSink sink) {
+    	if (runnerPostFrontier == null || sink == null) {
+    		return;
+    	}
+    	//the coverage of the post-frontier runner includes 
+    	//that of the pre-frontier, and reading it does not copy it
+    	runnerPostFrontier.setSink((statePostFrontier, atJump, branchPostFrontier, stringLiterals, stringOthers) -> 
+    		sink.accept(statePostFrontier, atJump, branchPostFrontier, stringLiterals, stringOthers, runnerPostFrontier.getCoverage()));
+    }
+    
+    private List<State> runPostFrontier(int postFrontierDepth) 
+    throws CannotBacktrackException, CannotManageStateException, ClasspathException, 
+    ThreadStackEmptyException, ContradictionException, DecisionException, EngineStuckException, 
+    FailureException, NonexistingObservedVariablesException {
+    	if (this.runnerPostFrontier == null) {
+    		return Collections.emptyList();
+    	} else {
+    		this.runnerPostFrontier.setPostFrontierDepth(postFrontierDepth);
+    		this.runnerPostFrontier.run();
+    		return this.runnerPostFrontier.getStatesPostFrontier();
+    	}
+    }
+    
     private void makeRunnerPreFrontier() throws DecisionException, NotYetImplementedException, 
     CannotBuildEngineException, InitializationException, InvalidClassFileFactoryClassException, 
     NonexistingObservedVariablesException, ClasspathException, ContradictionException {
@@ -271,26 +590,43 @@ final class RunnerPath implements AutoCloseable {
         final RunnerParameters pConcrete = this.commonParamsConcrete.clone();
         completeParametersGuided(pSymbolic, pConcrete);
         
+        //disposes of the previous runner, if any
+        if (this.runnerPreFrontier != null) {
+        	this.runnerPreFrontier.close();
+        }
+        
         //builds the runner
-        this.runnerPreFrontier = new RunnerPreFrontier(pSymbolic, this.maxCount);
+        this.runnerPreFrontier = new RunnerPreFrontier(pSymbolic, this.maxCount, this.budget, this.entry, this.captureEntry);
+        this.runnerPreFrontier.setHarvestDepths(this.harvestDepthMin, this.harvestDepthMax);
     }
     
-    private void makeRunnerPostFrontier() throws DecisionException, NotYetImplementedException, 
+    private void makeRunnerPostFrontier(Map<Long, String> stringLiterals, Set<Long> stringOthers, Set<String> coveragePreFrontier) throws DecisionException, NotYetImplementedException, 
     CannotBuildEngineException, InitializationException, InvalidClassFileFactoryClassException, 
     NonexistingObservedVariablesException, ClasspathException, ContradictionException {
+        //disposes of the previous runner, if any
+        if (this.runnerPostFrontier != null) {
+        	this.runnerPostFrontier.close();
+        }
+        
+        this.runnerPostFrontier = newRunnerPostFrontier(this.statePreFrontier, stringLiterals, stringOthers, coveragePreFrontier);
+    }
+    
+    private RunnerPostFrontier newRunnerPostFrontier(State statePreFrontier, Map<Long, String> stringLiterals, Set<Long> stringOthers, Set<String> coveragePreFrontier) 
+    throws DecisionException, NotYetImplementedException, CannotBuildEngineException, InitializationException, 
+    InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, ClasspathException, ContradictionException {
         //gets the pre-frontier state and sets it as the initial
         //state of the post-frontier runner
-        if (this.statePreFrontier.isStuck()) {
+        if (statePreFrontier.isStuck()) {
             //degenerate case: execution ended before or at the pre-frontier
-            this.runnerPostFrontier = null;
+            return null;
         } else { 
             //builds the parameters
             final RunnerParameters pSymbolic = this.commonParamsSymbolic.clone();
             completeParametersSymbolic(pSymbolic);            
-            pSymbolic.setStartingState(this.statePreFrontier);
+            pSymbolic.setStartingState(statePreFrontier);
 
             //builds the runner
-            this.runnerPostFrontier = new RunnerPostFrontier(pSymbolic, this.maxCount, this.runnerPreFrontier.getStringLiterals(), this.runnerPreFrontier.getStringOthers());
+            return new RunnerPostFrontier(pSymbolic, this.maxCount, this.budget, stringLiterals, stringOthers, coveragePreFrontier);
         }
     }
 
@@ -302,13 +638,36 @@ final class RunnerPath implements AutoCloseable {
         completeParametersGuided(pSymbolic, null);
     }
 
-    private void completeParametersGuided(RunnerParameters pSymbolic, RunnerParameters pConcrete) throws DecisionException {
-        //sets the calculator
+    static CalculatorRewriting makeCalculator() {
         final CalculatorRewriting calc = new CalculatorRewriting();
         calc.addRewriter(new RewriterExpressionOrConversionOnSimplex());
         calc.addRewriter(new RewriterFunctionApplicationOnSimplex());
         calc.addRewriter(new RewriterZeroUnit());
         calc.addRewriter(new RewriterNegationElimination());
+        return calc;
+    }
+    
+    static List<String> makeZ3CommandLine(String z3Path) {
+        final ArrayList<String> z3CommandLine = new ArrayList<>();
+        z3CommandLine.add(z3Path);
+        z3CommandLine.add(SWITCH_CHAR + "smt2");
+        z3CommandLine.add(SWITCH_CHAR + "in");
+        z3CommandLine.add(SWITCH_CHAR + "t:" + Z3_TIMEOUT_MILLIS);
+        return z3CommandLine;
+    }
+
+    private void completeParametersGuided(RunnerParameters pSymbolic, RunnerParameters pConcrete) throws DecisionException {
+        //leases the solver, if pooled (only the symbolic execution needs it)
+        final DecisionProcedureSMTLIB2Pool.Pooled decPooled;
+        try {
+            decPooled = (this.z3Pool == null || pSymbolic == null ? null : this.z3Pool.lease());
+        } catch (InvalidInputException e) {
+            //this should never happen
+            throw new AssertionError(e);
+        }
+        
+        //sets the calculator; a pooled solver comes with its own
+        final CalculatorRewriting calc = (decPooled == null ? makeCalculator() : decPooled.getCalculatorRewriting());
         if (pConcrete == null) {
             //nothing
         } else {
@@ -322,11 +681,6 @@ final class RunnerPath implements AutoCloseable {
         }
 
         //sets the decision procedures
-        final ArrayList<String> z3CommandLine = new ArrayList<>();
-        z3CommandLine.add(this.z3Path);
-        z3CommandLine.add(SWITCH_CHAR + "smt2");
-        z3CommandLine.add(SWITCH_CHAR + "in");
-        z3CommandLine.add(SWITCH_CHAR + "t:100");
         final ClassInitRulesRepo initRules = new ClassInitRulesRepo();
         try {
             if (pConcrete == null) {
@@ -341,12 +695,17 @@ final class RunnerPath implements AutoCloseable {
             if (pSymbolic == null) {
                 //nothing
             } else {
+                final DecisionProcedureSMTLIB2Cached decSolver = 
+                    (decPooled == null ?
+                     new DecisionProcedureSMTLIB2Cached(
+                         new DecisionProcedureAlwSat(calc), makeZ3CommandLine(this.z3Path), Z3_TIMEOUT_MILLIS, this.smtCache, this.fastPath) :
+                     decPooled);
+                decSolver.setCacheScope(this.targetMethodClassName + ":" + this.targetMethodDescriptor + ":" + this.targetMethodName);
                 final DecisionProcedureAlgorithms decAlgo = 
                     new DecisionProcedureAlgorithms(
                         new DecisionProcedureClassInit(
                             new DecisionProcedureLICS( //useless?
-                                new DecisionProcedureSMTLIB2_AUFNIRA(
-                                    new DecisionProcedureAlwSat(calc), z3CommandLine), 
+                                decSolver, 
                                 new LICSRulesRepo()), initRules)); 
                 if (pConcrete == null) {
                     pSymbolic.setDecisionProcedure(decAlgo);
@@ -381,16 +740,24 @@ final class RunnerPath implements AutoCloseable {
      *         before an invocation of {@link #runProgram(int)}.
      */
     public State getStateInitial() {
-        State retVal = this.commonParamsSymbolic.getStartingState();
-        if (retVal == null) {
-        	if (this.runnerPreFrontier == null) {
-        		retVal = null;
-        	} else {
-        		retVal = this.runnerPreFrontier.getInitialState();
-        		this.commonParamsSymbolic.setStartingState(retVal);
-        	}
+        if (this.stateInitial == null && this.runnerPreFrontier != null) {
+        	this.stateInitial = this.runnerPreFrontier.getInitialState();
+        	this.commonParamsSymbolic.setStartingState(this.stateInitial);
         }
-        return retVal;
+        return this.stateInitial;
+    }
+
+    /**
+     * Must be invoked after an invocation of {@link #runProgram(int) runProgram(depth)} or
+     * {@link #runProgram()}.
+     * Returns the snapshot of the guided execution at the entry of the 
+     * target method, after the initialization of its classes.
+     * 
+     * @return a {@link RunnerPreFrontier.Snapshot}, or {@code null} if the 
+     *         guided execution started from it or did not take it.
+     */
+    public RunnerPreFrontier.Snapshot getEntrySnapshot() {
+    	return (this.runnerPreFrontier == null ? null : this.runnerPreFrontier.getEntrySnapshot());
     }
 
     /**
@@ -484,7 +851,8 @@ final class RunnerPath implements AutoCloseable {
      *         returns an empty {@link Set}.
      */
     public Set<String> getCoverage() {
-    	final HashSet<String> retVal = (this.runnerPreFrontier == null ? new HashSet<>() : new HashSet<>(this.runnerPreFrontier.getCoverage()));
+    	final Set<String> retVal = (this.coveragePreFrontier != null ? new HashSet<>(this.coveragePreFrontier) : 
+    		this.runnerPreFrontier == null ? new HashSet<>() : new HashSet<>(this.runnerPreFrontier.getCoverage()));
     	if (this.runnerPostFrontier != null) {
     		retVal.addAll(this.runnerPostFrontier.getCoverage());
     	}
@@ -71,13 +71,14 @@ final class RunnerPostFrontier implements AutoCloseable {
 
     private final Runner runner;
     private final long maxCount;
+    private final JobBudget budget;
     private final Map<Long, String> stringLiteralsAtFrontier;
     private final Set<Long> stringOthersAtFrontier;
     private final ArrayList<HashMap<Long, String>> stringLiterals = new ArrayList<>();
     private final ArrayList<HashSet<Long>> stringOthers = new ArrayList<>();
     private final ArrayList<State> statesPostFrontier = new ArrayList<>();
     private final ArrayList<String> branchesPostFrontier = new ArrayList<>();
-    private final HashSet<String> coverage = new HashSet<>();
+    private final CoverageRecorder coverage;
     private int postFrontierDepth;
     private HashMap<Long, String> stringLiteralsCurrent;
     private HashSet<Long> stringOthersCurrent;
@@ -87,8 +88,34 @@ final class RunnerPostFrontier implements AutoCloseable {
     private int jumpPC = 0;
     private boolean atLoadConstant = false;
     private int loadConstantStackSize = 0;
+    private Sink sink = null;
     
-    public RunnerPostFrontier(RunnerParameters runnerParameters, long maxCount, Map<Long, String> stringLiterals, Set<Long> stringOthers) 
+    /**
+     * Receives the post-frontier states as soon as they are
+     * recorded, before the exploration of the frontier ends.
+     * 
+     * @author Pietro Braione
+     */
+    interface Sink {
+        /**
+         * Receives a post-frontier state. Invoked by the thread
+         * that runs the {@link RunnerPostFrontier}.
+         * 
+         * @param statePostFrontier the post-frontier {@link State}. 
+         *        It must not be modified.
+         * @param atJump {@code true} iff the frontier is at a jump bytecode.
+         * @param branchPostFrontier a {@link String}, the branch covered by 
+         *        {@code statePostFrontier} if {@code atJump}, otherwise {@code null}.
+         * @param stringLiterals a {@link Map}{@code <}{@link Long}{@code , }{@link String}{@code >}
+         *        mapping the heap positions of the {@link String} literals to their values.
+         * @param stringOthers a {@link Set}{@code <}{@link Long}{@code >} with the
+         *        heap positions of the other {@link String}s.
+         */
+        void accept(State statePostFrontier, boolean atJump, String branchPostFrontier, Map<Long, String> stringLiterals, Set<Long> stringOthers);
+    }
+    
+    public RunnerPostFrontier(RunnerParameters runnerParameters, long maxCount, JobBudget budget, Map<Long, String> stringLiterals, Set<Long> stringOthers, 
+                              Set<String> coverageAtFrontier) 
     throws NotYetImplementedException, CannotBuildEngineException, DecisionException, InitializationException, 
     InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, ClasspathException, 
     ContradictionException {
@@ -96,16 +123,22 @@ final class RunnerPostFrontier implements AutoCloseable {
         final RunnerBuilder rb = new RunnerBuilder();
         this.runner = rb.build(runnerParameters);
         this.maxCount = maxCount;
+        this.budget = budget;
         this.stringLiteralsAtFrontier = stringLiterals;
         this.stringOthersAtFrontier = stringOthers;
         this.stringLiteralsCurrent = new HashMap<>(this.stringLiteralsAtFrontier);
         this.stringOthersCurrent = new HashSet<>(this.stringOthersAtFrontier);
+        this.coverage = new CoverageRecorder(coverageAtFrontier);
     }
     
     public void setPostFrontierDepth(int postFrontierDepth) {
         this.postFrontierDepth = postFrontierDepth;
     }
     
+    public void setSink(Sink sink) {
+        this.sink = sink;
+    }
+    
     public void run() throws CannotBacktrackException, CannotManageStateException, ClasspathException, 
     ThreadStackEmptyException, ContradictionException, DecisionException, EngineStuckException, 
     FailureException, NonexistingObservedVariablesException {
@@ -133,7 +166,7 @@ final class RunnerPostFrontier implements AutoCloseable {
     }
     
     public Set<String> getCoverage() {
-    	return this.coverage;
+    	return this.coverage.getBranches();
     }
 
     /**
@@ -145,6 +178,9 @@ final class RunnerPostFrontier implements AutoCloseable {
     private class ActionsRunnerPostFrontier extends Actions {
         @Override
         public boolean atStepPre() {
+            //consumes budget
+            RunnerPostFrontier.this.budget.step();
+            
             final State currentState = getEngine().getCurrentState();
             if (currentState.phase() != Phase.PRE_INITIAL) {
                 try {
@@ -182,7 +218,7 @@ final class RunnerPostFrontier implements AutoCloseable {
             //updates coverage
             if (currentState.phase() != Phase.PRE_INITIAL && RunnerPostFrontier.this.atJump) {
                 try {
-                	RunnerPostFrontier.this.coverage.add(currentState.getCurrentMethodSignature().toString() + ":" + RunnerPostFrontier.this.jumpPC + ":" + currentState.getCurrentProgramCounter());
+                	RunnerPostFrontier.this.coverage.record(currentState.getCurrentMethodSignature(), RunnerPostFrontier.this.jumpPC, currentState.getCurrentProgramCounter());
                 } catch (ThreadStackEmptyException e) {
                     //this should never happen
                     LOGGER.error("Internal error when attempting to update coverage");
@@ -228,7 +264,7 @@ final class RunnerPostFrontier implements AutoCloseable {
             //updates coverage
             if (currentState.phase() != Phase.PRE_INITIAL && RunnerPostFrontier.this.atJump) {
                 try {
-                	RunnerPostFrontier.this.coverage.add(currentState.getCurrentMethodSignature().toString() + ":" + RunnerPostFrontier.this.jumpPC + ":" + currentState.getCurrentProgramCounter());
+                	RunnerPostFrontier.this.coverage.record(currentState.getCurrentMethodSignature(), RunnerPostFrontier.this.jumpPC, currentState.getCurrentProgramCounter());
                 } catch (ThreadStackEmptyException e) {
                     //this should never happen
                     LOGGER.error("Internal error when attempting to update coverage");
@@ -261,19 +297,29 @@ final class RunnerPostFrontier implements AutoCloseable {
         
         private void recordState(State s) {
             if (!RunnerPostFrontier.this.contradictory) {
-            	RunnerPostFrontier.this.statesPostFrontier.add(s.clone());
-            	RunnerPostFrontier.this.stringLiterals.add(RunnerPostFrontier.this.stringLiteralsCurrent);
-            	RunnerPostFrontier.this.stringOthers.add(RunnerPostFrontier.this.stringOthersCurrent);
+            	final State statePostFrontier = s.clone();
+            	final HashMap<Long, String> stringLiterals = RunnerPostFrontier.this.stringLiteralsCurrent;
+            	final HashSet<Long> stringOthers = RunnerPostFrontier.this.stringOthersCurrent;
+            	RunnerPostFrontier.this.statesPostFrontier.add(statePostFrontier);
+            	RunnerPostFrontier.this.stringLiterals.add(stringLiterals);
+            	RunnerPostFrontier.this.stringOthers.add(stringOthers);
             	RunnerPostFrontier.this.stringLiteralsCurrent = new HashMap<>(RunnerPostFrontier.this.stringLiteralsAtFrontier);
             	RunnerPostFrontier.this.stringOthersCurrent = new HashSet<>(RunnerPostFrontier.this.stringOthersAtFrontier);
+            	String branchPostFrontier = null;
                 if (RunnerPostFrontier.this.atJump) {
                     try {
-                    	RunnerPostFrontier.this.branchesPostFrontier.add(s.getCurrentMethodSignature().toString() + ":" + RunnerPostFrontier.this.jumpPC + ":" + s.getCurrentProgramCounter());
+                    	branchPostFrontier = s.getCurrentMethodSignature().toString() + ":" + RunnerPostFrontier.this.jumpPC + ":" + s.getCurrentProgramCounter();
+                    	RunnerPostFrontier.this.branchesPostFrontier.add(branchPostFrontier);
                     } catch (ThreadStackEmptyException e) {
                         //this should never happen
                         throw new RuntimeException(e); //TODO better exception!
                     }
                 } //else, do nothing
+                
+                //publishes the state
+                if (RunnerPostFrontier.this.sink != null) {
+                	RunnerPostFrontier.this.sink.accept(statePostFrontier, RunnerPostFrontier.this.atJump, branchPostFrontier, stringLiterals, stringOthers);
+                }
             }
             RunnerPostFrontier.this.contradictory = false;
         }
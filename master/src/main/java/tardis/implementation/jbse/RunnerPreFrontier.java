@@ -41,6 +41,7 @@ import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.val.Reference;
 import jbse.val.ReferenceConcrete;
 import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
 import jbse.val.Value;
 
 /**
@@ -55,9 +56,12 @@ final class RunnerPreFrontier implements AutoCloseable {
 	private final Runner runner;
 	private final DecisionProcedureGuidance guid;
 	private final long maxCount;
+	private final JobBudget budget;
 	private final HashMap<Long, String> stringLiterals = new HashMap<>();
 	private final HashSet<Long> stringOthers = new HashSet<>();
-	private final HashSet<String> coverage = new HashSet<>();
+	private final CoverageRecorder coverage;
+	private final boolean captureEntry;
+	private Snapshot entrySnapshot = null;
 	private int postFrontierDepth = 0;
 	private boolean atJump = false;
 	private int jumpPC = 0;
@@ -66,8 +70,66 @@ final class RunnerPreFrontier implements AutoCloseable {
 	private boolean foundPreFrontier = false;
 	private boolean foundFinalState = false;
 	private State preFrontierState;
+	private int harvestDepthMin = 1;
+	private int harvestDepthMax = 0;
+	private final HashMap<Integer, Snapshot> snapshots = new HashMap<>();
+	private State snapshotCandidateState = null;
+	private int snapshotCandidateDepth = 0;
 
-	public RunnerPreFrontier(RunnerParameters runnerParameters, long maxCount) throws NotYetImplementedException,
+	/**
+	 * A snapshot of the execution taken at a pre-frontier
+	 * state, i.e., at a symbolic branch bytecode, or at the
+	 * entry of the target method after the initialization
+	 * of its classes.
+	 * 
+	 * @author Pietro Braione
+	 */
+	static final class Snapshot {
+		private final State preFrontierState;
+		private final HashMap<Long, String> stringLiterals;
+		private final HashSet<Long> stringOthers;
+		private final Set<String> coverage;
+
+		private Snapshot(State preFrontierState, Map<Long, String> stringLiterals, Set<Long> stringOthers, Set<String> coverage) {
+			this.preFrontierState = preFrontierState;
+			this.stringLiterals = new HashMap<>(stringLiterals); //safety copy
+			this.stringOthers = new HashSet<>(stringOthers);     //safety copy
+			this.coverage = coverage;                            //immutable
+		}
+
+		public State getPreFrontierState() {
+			return this.preFrontierState;
+		}
+
+		public Map<Long, String> getStringLiterals() {
+			return this.stringLiterals;
+		}
+
+		public Set<Long> getStringOthers() {
+			return this.stringOthers;
+		}
+
+		public Set<String> getCoverage() {
+			return this.coverage;
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param runnerParameters the {@link RunnerParameters} of the guided execution.
+	 * @param maxCount a {@code long}, the maximum count of the states.
+	 * @param budget the {@link JobBudget} consumed by the execution.
+	 * @param entry a {@link Snapshot} at the entry of the target method, 
+	 *        or {@code null}. If not {@code null} the starting state of 
+	 *        {@code runnerParameters} must be that of {@code entry}, and 
+	 *        the string literals and the coverage of {@code entry} are
+	 *        included in those of the execution.
+	 * @param captureEntry a {@code boolean}, {@code true} iff a snapshot 
+	 *        at the entry of the target method must be taken. It is 
+	 *        ignored if {@code entry != null}.
+	 */
+	public RunnerPreFrontier(RunnerParameters runnerParameters, long maxCount, JobBudget budget, Snapshot entry, boolean captureEntry) throws NotYetImplementedException,
 	CannotBuildEngineException, DecisionException, InitializationException, InvalidClassFileFactoryClassException,
 	NonexistingObservedVariablesException, ClasspathException, ContradictionException {
 		runnerParameters.setActions(new ActionsRunnerPreFrontier());
@@ -75,6 +137,16 @@ final class RunnerPreFrontier implements AutoCloseable {
 		this.runner = rb.build(runnerParameters);
 		this.guid = (DecisionProcedureGuidance) runnerParameters.getDecisionProcedure();
 		this.maxCount = maxCount;
+		this.budget = budget;
+		if (entry == null) {
+			this.coverage = new CoverageRecorder();
+			this.captureEntry = captureEntry;
+		} else {
+			this.stringLiterals.putAll(entry.getStringLiterals());
+			this.stringOthers.addAll(entry.getStringOthers());
+			this.coverage = new CoverageRecorder(entry.getCoverage());
+			this.captureEntry = false;
+		}
 	}
 
 	/**
@@ -88,6 +160,51 @@ final class RunnerPreFrontier implements AutoCloseable {
 		this.postFrontierDepth = postFrontierDepth;
 	}
 
+	/**
+	 * Sets the range of the post-frontier depths whose pre-frontier
+	 * states must be snapshotted while running, so the frontiers
+	 * can be explored without running the guided execution again.
+	 * 
+	 * @param harvestDepthMin an {@code int}, the minimum post-frontier
+	 *        depth (the snapshot at depth {@code harvestDepthMin - 1} 
+	 *        is the first taken).
+	 * @param harvestDepthMax an {@code int}, the maximum post-frontier
+	 *        depth (the snapshot at depth {@code harvestDepthMax - 1} 
+	 *        is the last taken). If less than {@code harvestDepthMin}
+	 *        no snapshot is taken.
+	 */
+	public void setHarvestDepths(int harvestDepthMin, int harvestDepthMax) {
+		this.harvestDepthMin = Math.max(1, harvestDepthMin);
+		this.harvestDepthMax = harvestDepthMax;
+	}
+
+	/**
+	 * Returns the snapshot taken at the frontier between 
+	 * {@code postFrontierDepth - 1} and {@code postFrontierDepth}.
+	 * 
+	 * @param postFrontierDepth an {@code int}.
+	 * @return a {@link Snapshot}, or {@code null} if 
+	 *         {@code postFrontierDepth} is not in the range
+	 *         set with {@link #setHarvestDepths(int, int)}, or
+	 *         if the execution did not reach it.
+	 */
+	public Snapshot getSnapshot(int postFrontierDepth) {
+		return this.snapshots.get(postFrontierDepth);
+	}
+
+	/**
+	 * Returns the snapshot taken at the entry of the target method, 
+	 * after the initialization of its classes.
+	 * 
+	 * @return a {@link Snapshot}, or {@code null} if it was not 
+	 *         requested, or if the execution did not reach the 
+	 *         entry of the target method without taking any
+	 *         decision, or if the execution started from there.
+	 */
+	public Snapshot getEntrySnapshot() {
+		return this.entrySnapshot;
+	}
+
 	public State getInitialState() {
 		return this.runner.getEngine().getInitialState();
 	}
@@ -117,7 +234,7 @@ final class RunnerPreFrontier implements AutoCloseable {
 	}
 
 	public Set<String> getCoverage() {
-		return this.coverage;
+		return this.coverage.getBranches();
 	}
 
 	public void run() throws CannotBacktrackException, CannotManageStateException, ClasspathException,
@@ -143,6 +260,9 @@ final class RunnerPreFrontier implements AutoCloseable {
 
 		@Override
 		public boolean atStepPre() {
+			// consumes budget
+			RunnerPreFrontier.this.budget.step();
+			
 			final State currentState = getEngine().getCurrentState();
 
 			// steps guidance
@@ -157,10 +277,19 @@ final class RunnerPreFrontier implements AutoCloseable {
 					final int currentProgramCounter = currentState.getCurrentProgramCounter();
 					final byte currentInstruction = currentState.getInstruction();
 
+					// if at the entry of the target method, after the static
+					// initializers run, and if no decision was taken so far 
+					// (thus every run gets here the same way), takes a snapshot
+					if (RunnerPreFrontier.this.captureEntry && RunnerPreFrontier.this.entrySnapshot == null &&
+					currentProgramCounter == 0 && currentState.getStackSize() == 1 && currentState.getDepth() == 0) {
+						RunnerPreFrontier.this.entrySnapshot = 
+						new Snapshot(currentState.clone(), RunnerPreFrontier.this.stringLiterals, 
+						RunnerPreFrontier.this.stringOthers, getCoverage());
+					}
+
 					// if at entry of a method, add the entry point to coverage
 					if (currentProgramCounter == 0) {
-						RunnerPreFrontier.this.coverage
-						.add(currentState.getCurrentMethodSignature().toString() + ":0:0");
+						RunnerPreFrontier.this.coverage.recordEntry(currentState.getCurrentMethodSignature());
 					}
 
 					// if at a jump bytecode, saves the start program counter
@@ -177,10 +306,22 @@ final class RunnerPreFrontier implements AutoCloseable {
 
 					// if at a symbolic branch bytecode, and at postFrontierDepth - 1,
 					// saves the pre-state
-					if (isBytecodeBranch(currentInstruction) &&
+					final boolean mayIncreaseDepth = mayIncreaseDepth(currentState, currentInstruction);
+					if (mayIncreaseDepth &&
 					currentState.getDepth() == RunnerPreFrontier.this.postFrontierDepth - 1) {
 						RunnerPreFrontier.this.preFrontierState = currentState.clone();
 					}
+
+					// if at a symbolic branch bytecode in the harvest range,
+					// saves the pre-state as a snapshot candidate (it becomes
+					// a snapshot if the next step increases the depth)
+					final int depthNext = currentState.getDepth() + 1;
+					if (mayIncreaseDepth &&
+					RunnerPreFrontier.this.harvestDepthMin <= depthNext && depthNext <= RunnerPreFrontier.this.harvestDepthMax) {
+						RunnerPreFrontier.this.snapshotCandidateState = (depthNext == RunnerPreFrontier.this.postFrontierDepth ? 
+						RunnerPreFrontier.this.preFrontierState : currentState.clone());
+						RunnerPreFrontier.this.snapshotCandidateDepth = depthNext;
+					}
 				} catch (ThreadStackEmptyException | FrozenStateException e) {
 					// this should never happen
 					LOGGER
@@ -197,6 +338,50 @@ final class RunnerPreFrontier implements AutoCloseable {
 			return super.atStepPre();
 		}
 
+		/**
+		 * Checks whether executing the current bytecode may increase 
+		 * the depth of the current state. This happens only at branch
+		 * bytecodes, but not at jump bytecodes whose operands are all
+		 * concrete, as the ones evaluating the conditions of the 
+		 * concrete loops, so cloning the state there is avoided.
+		 * 
+		 * @param currentState the current {@link State}.
+		 * @param currentInstruction a {@code byte}, the current bytecode.
+		 * @return {@code false} if executing {@code currentInstruction}
+		 *         surely does not increase the depth of {@code currentState}.
+		 * @throws ThreadStackEmptyException if the thread stack of 
+		 *         {@code currentState} is empty.
+		 * @throws FrozenStateException if {@code currentState} is frozen.
+		 */
+		private boolean mayIncreaseDepth(State currentState, byte currentInstruction) 
+		throws ThreadStackEmptyException, FrozenStateException {
+			if (!isBytecodeBranch(currentInstruction)) {
+				return false;
+			}
+			if (!isBytecodeJump(currentInstruction)) {
+				return true;
+			}
+			
+			// a jump has at most two operands; if it has one, 
+			// the one below it is checked as well, that is safe
+			Value[] operands;
+			try {
+				operands = currentState.getCurrentFrame().operands(2);
+			} catch (InvalidNumberOfOperandsException e) {
+				try {
+					operands = currentState.getCurrentFrame().operands(1);
+				} catch (InvalidNumberOfOperandsException e1) {
+					operands = new Value[0];
+				}
+			}
+			for (Value operand : operands) {
+				if (!(operand instanceof Simplex) && !(operand instanceof ReferenceConcrete)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
 		@Override
 		public boolean atStepPost() {
 			final State currentState = getEngine().getCurrentState();
@@ -211,8 +396,8 @@ final class RunnerPreFrontier implements AutoCloseable {
 			// updates coverage
 			if (currentState.phase() != Phase.PRE_INITIAL && RunnerPreFrontier.this.atJump) {
 				try {
-					RunnerPreFrontier.this.coverage.add(currentState.getCurrentMethodSignature().toString() + ":" +
-					RunnerPreFrontier.this.jumpPC + ":" + currentState.getCurrentProgramCounter());
+					RunnerPreFrontier.this.coverage.record(currentState.getCurrentMethodSignature(), 
+					RunnerPreFrontier.this.jumpPC, currentState.getCurrentProgramCounter());
 				} catch (ThreadStackEmptyException e) {
 					// this should never happen
 					LOGGER.error("Internal error when attempting to update coverage");
@@ -225,6 +410,15 @@ final class RunnerPreFrontier implements AutoCloseable {
 				}
 			}
 
+			// possibly promotes the snapshot candidate to snapshot
+			if (RunnerPreFrontier.this.snapshotCandidateState != null && 
+			currentState.getDepth() == RunnerPreFrontier.this.snapshotCandidateDepth) {
+				RunnerPreFrontier.this.snapshots.put(RunnerPreFrontier.this.snapshotCandidateDepth, 
+				new Snapshot(RunnerPreFrontier.this.snapshotCandidateState, RunnerPreFrontier.this.stringLiterals, 
+				RunnerPreFrontier.this.stringOthers, getCoverage()));
+				RunnerPreFrontier.this.snapshotCandidateState = null;
+			}
+
 			// stops if current state is at post-frontier (before adding string literals)
 			// or if the state count exceeded the maximum count
 			RunnerPreFrontier.this.foundPreFrontier =
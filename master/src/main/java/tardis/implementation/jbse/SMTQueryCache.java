@@ -0,0 +1,194 @@
+package tardis.implementation.jbse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.ClauseAssumeReferenceSymbolic;
+import jbse.val.Expression;
+import jbse.val.Primitive;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+import jbse.val.Symbolic;
+
+/**
+ * A cache of the answers of the SMT solver, shared by all the
+ * JBSE runners. A query is identified by the target method of
+ * the runner, by its assumptions and by the queried expression, 
+ * after canonicalization, and by the type and origin of each of 
+ * the symbols they mention, as the names of the symbols are 
+ * allocated by each run and do not identify them. The cache is
+ * bounded, and evicts the least recently used entries. The answers
+ * that might come from a solver timeout are held in a separate, smaller
+ * cache, so they do not evict the certain ones.
+ *
+ * @author Pietro Braione
+ */
+final class SMTQueryCache {
+    /**
+     * The ratio between the capacity of the cache of the
+     * certain answers and that of the possibly timed out ones.
+     */
+    private static final int TIMEOUT_CAPACITY_RATIO = 16;
+
+    /** The cache of the certain answers. */
+    private final Map<String, Boolean> answers;
+
+    /** The cache of the answers that might come from a timeout. */
+    private final Map<String, Boolean> answersTimeout;
+
+    /** The number of cache hits. */
+    private final AtomicLong hits = new AtomicLong(0);
+
+    /** The number of cache misses. */
+    private final AtomicLong misses = new AtomicLong(0);
+
+    /**
+     * Constructor.
+     *
+     * @param capacity a positive {@code int}, the maximum number
+     *        of certain answers kept by the cache.
+     */
+    SMTQueryCache(int capacity) {
+        this.answers = makeLRUMap(capacity);
+        this.answersTimeout = makeLRUMap(Math.max(1, capacity / TIMEOUT_CAPACITY_RATIO));
+    }
+
+    private static Map<String, Boolean> makeLRUMap(int capacity) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    /**
+     * Builds the key of a query. The assumptions are sorted,
+     * so the key does not depend on the order they were pushed.
+     *
+     * @param scope a {@link String}, the signature of the target 
+     *        method of the runner that makes the query.
+     * @param assumptions a {@link List}{@code <}{@link Clause}{@code >},
+     *        the current assumptions.
+     * @param exp the queried {@link Expression}.
+     * @return a {@link String}, the key of the query, or {@code null}
+     *         if the query mentions a value whose symbols cannot be
+     *         identified, in which case the query must not be cached.
+     */
+    static String key(String scope, List<Clause> assumptions, Expression exp) {
+        final TreeMap<String, String> symbols = new TreeMap<>();
+        final ArrayList<String> clauses = new ArrayList<>(assumptions.size());
+        for (Clause c : assumptions) {
+            if (!collectSymbols(c, symbols)) {
+                return null;
+            }
+            clauses.add(c.toString());
+        }
+        if (!collectSymbols(exp, symbols)) {
+            return null;
+        }
+        Collections.sort(clauses);
+        final StringBuilder retVal = new StringBuilder();
+        retVal.append(scope);
+        retVal.append(": ");
+        for (String c : clauses) {
+            retVal.append(c);
+            retVal.append(" && ");
+        }
+        retVal.append("|- ");
+        retVal.append(exp.toString());
+        retVal.append(" where ");
+        for (Map.Entry<String, String> symbol : symbols.entrySet()) {
+            retVal.append(symbol.getKey());
+            retVal.append(" = ");
+            retVal.append(symbol.getValue());
+            retVal.append("; ");
+        }
+        return retVal.toString();
+    }
+
+    private static boolean collectSymbols(Clause c, Map<String, String> symbols) {
+        if (c instanceof ClauseAssume) {
+            return collectSymbols(((ClauseAssume) c).getCondition(), symbols);
+        } else if (c instanceof ClauseAssumeReferenceSymbolic) {
+            final ReferenceSymbolic r = ((ClauseAssumeReferenceSymbolic) c).getReference();
+            symbols.put(r.toString(), r.getStaticType() + " " + r.asOriginString());
+            return true;
+        } else {
+            //the class initialization clauses, that mention no symbol
+            return true;
+        }
+    }
+
+    private static boolean collectSymbols(Primitive p, Map<String, String> symbols) {
+        if (p instanceof Simplex) {
+            return true;
+        } else if (p instanceof Expression) {
+            final Expression e = (Expression) p;
+            if (e.isUnary()) {
+                return collectSymbols(e.getOperand(), symbols);
+            } else {
+                return collectSymbols(e.getFirstOperand(), symbols) && collectSymbols(e.getSecondOperand(), symbols);
+            }
+        } else if (p instanceof Symbolic) {
+            symbols.put(p.toString(), p.getType() + " " + ((Symbolic) p).asOriginString());
+            return true;
+        } else {
+            //e.g., conversions and terms
+            return false;
+        }
+    }
+
+    /**
+     * Gets a cached answer.
+     *
+     * @param key a {@link String}, as returned by {@link #key(String, List, Expression)}.
+     * @return a {@link Boolean}, the cached answer for {@code key},
+     *         or {@code null} if no answer is cached.
+     */
+    Boolean get(String key) {
+        Boolean retVal = this.answers.get(key);
+        if (retVal == null) {
+            retVal = this.answersTimeout.get(key);
+        }
+        if (retVal == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+        }
+        return retVal;
+    }
+
+    /**
+     * Caches an answer.
+     *
+     * @param key a {@link String}, as returned by {@link #key(String, List, Expression)}.
+     * @param answer a {@code boolean}, the answer of the solver.
+     * @param possiblyTimeout {@code true} iff the solver might have
+     *        timed out while answering.
+     */
+    void put(String key, boolean answer, boolean possiblyTimeout) {
+        if (possiblyTimeout) {
+            this.answersTimeout.put(key, answer);
+        } else {
+            this.answers.put(key, answer);
+        }
+    }
+
+    long getHits() {
+        return this.hits.get();
+    }
+
+    long getMisses() {
+        return this.misses.get();
+    }
+}
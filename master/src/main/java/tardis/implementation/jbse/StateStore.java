@@ -0,0 +1,95 @@
+package tardis.implementation.jbse;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import jbse.mem.State;
+
+/**
+ * Stores the {@link State}s shared by the {@link JBSEResult}s, so
+ * that the initial {@link State} of a target method is held in 
+ * memory only once regardless of how many {@link JBSEResult}s 
+ * refer to it. It also stores the snapshots at the entry of the target
+ * methods, that the guided executions start from. The stored 
+ * {@link State}s must be treated as read-only: whoever needs 
+ * to modify them must work on a clone.
+ *
+ * @author Pietro Braione
+ */
+final class StateStore {
+    /**
+     * The initial {@link State}s, keyed by the signature of their
+     * target method. They are held until the store is dismissed.
+     */
+    private final ConcurrentHashMap<String, State> initialStates = new ConcurrentHashMap<>();
+
+    /**
+     * The snapshots at the entry of the target methods, after
+     * the initialization of their classes, keyed by the signature
+     * of their target method. They are held until the store is
+     * dismissed.
+     */
+    private final ConcurrentHashMap<String, RunnerPreFrontier.Snapshot> entrySnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a private copy of the initial {@link State}
+     * of a target method.
+     *
+     * @param targetMethodSignature a {@link String}, the signature
+     *        of the target method.
+     * @return a clone of the stored initial {@link State},
+     *         or {@code null} if no initial {@link State} was
+     *         stored for {@code targetMethodSignature}.
+     */
+    State getInitialStateCopy(String targetMethodSignature) {
+        final State value = this.initialStates.get(targetMethodSignature);
+        return (value == null ? null : value.clone());
+    }
+
+    /**
+     * Returns the shared initial {@link State} of a
+     * target method, possibly storing it.
+     *
+     * @param targetMethodSignature a {@link String}, the signature
+     *        of the target method.
+     * @param initialState the initial {@link State} of
+     *        {@code targetMethodSignature}. It is cloned and stored
+     *        iff no initial {@link State} was already stored for
+     *        {@code targetMethodSignature}.
+     * @return the shared initial {@link State} for
+     *         {@code targetMethodSignature}. It must not be modified.
+     */
+    State shareInitialState(String targetMethodSignature, State initialState) {
+        return this.initialStates.computeIfAbsent(targetMethodSignature, k -> initialState.clone());
+    }
+
+    /**
+     * Returns the shared snapshot at the entry of a target method.
+     * It is not copied because the runners copy the {@link State}
+     * they start from.
+     *
+     * @param targetMethodSignature a {@link String}, the signature
+     *        of the target method.
+     * @return the stored {@link RunnerPreFrontier.Snapshot}, or 
+     *         {@code null} if no snapshot was stored for
+     *         {@code targetMethodSignature}. It must not be modified.
+     */
+    RunnerPreFrontier.Snapshot getEntrySnapshot(String targetMethodSignature) {
+        return this.entrySnapshots.get(targetMethodSignature);
+    }
+
+    /**
+     * Stores the snapshot at the entry of a target method,
+     * unless one is already stored.
+     *
+     * @param targetMethodSignature a {@link String}, the signature
+     *        of the target method.
+     * @param entry the {@link RunnerPreFrontier.Snapshot} at the entry
+     *        of {@code targetMethodSignature}, or {@code null}. It must
+     *        not be modified afterwards.
+     */
+    void storeEntrySnapshot(String targetMethodSignature, RunnerPreFrontier.Snapshot entry) {
+        if (entry != null) {
+            this.entrySnapshots.putIfAbsent(targetMethodSignature, entry);
+        }
+    }
+}